@@ -0,0 +1,74 @@
+package org.jenkinsci.plugins.unity3d;
+
+import hudson.Util;
+import hudson.model.Run;
+import java.util.List;
+import java.util.Locale;
+import jenkins.model.RunAction2;
+import org.jenkinsci.plugins.unity3d.logs.AssetImportIndex;
+
+/**
+ * The slowest asset imports of the Unity3d builds of a run, and the time spent importing per file extension and folder.
+ * <p>
+ * Each Unity3d build step adds the imports found in its Editor.log.
+ */
+public class Unity3dAssetImportAction implements RunAction2 {
+    private final AssetImportIndex index = new AssetImportIndex();
+    private transient Run<?, ?> run;
+
+    public String getIconFileName() {
+        return "symbol-folder";
+    }
+
+    public String getDisplayName() {
+        return Messages.Unity3d_AssetImportAction_DisplayName();
+    }
+
+    public String getUrlName() {
+        return "unity3d-asset-imports";
+    }
+
+    public void onAttached(Run<?, ?> r) {
+        this.run = r;
+    }
+
+    public void onLoad(Run<?, ?> r) {
+        this.run = r;
+    }
+
+    public Run<?, ?> getRun() {
+        return run;
+    }
+
+    synchronized void add(AssetImportIndex imports) {
+        index.addAll(imports);
+    }
+
+    public synchronized int getCount() {
+        return index.getCount();
+    }
+
+    public synchronized String getDuration() {
+        return format(index.getMillis());
+    }
+
+    public synchronized List<AssetImportIndex.AssetImport> getSlowest() {
+        return index.getSlowest();
+    }
+
+    public synchronized List<AssetImportIndex.Aggregate> getExtensions() {
+        return index.getExtensions();
+    }
+
+    public synchronized List<AssetImportIndex.Aggregate> getFolders() {
+        return index.getFolders();
+    }
+
+    /**
+     * @return the duration, with the milliseconds when short
+     */
+    public String format(double millis) {
+        if (millis < 10_000) return String.format(Locale.ROOT, "%.1f ms", millis);
+        return Util.getTimeSpanString((long) millis);
+    }
+}
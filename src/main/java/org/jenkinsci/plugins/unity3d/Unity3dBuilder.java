@@ -7,34 +7,74 @@ import hudson.CopyOnWrite;
 import hudson.EnvVars;
 import hudson.Extension;
 import hudson.FilePath;
+import hudson.Functions;
 import hudson.Launcher;
+import hudson.Proc;
 import hudson.Util;
 import hudson.model.AbstractBuild;
 import hudson.model.AbstractProject;
+import hudson.model.Action;
 import hudson.model.BuildListener;
 import hudson.model.Computer;
+import hudson.model.Node;
 import hudson.model.Result;
+import hudson.model.Run;
+import hudson.model.TaskListener;
+import hudson.remoting.Channel;
+import hudson.remoting.VirtualChannel;
+import hudson.slaves.WorkspaceList;
 import hudson.tasks.BuildStepDescriptor;
 import hudson.tasks.Builder;
 import hudson.tools.ToolInstallation;
 import hudson.util.ArgumentListBuilder;
 import hudson.util.FormValidation;
 import hudson.util.QuotedStringTokenizer;
+import java.io.File;
 import java.io.IOException;
 import java.io.ObjectStreamException;
 import java.io.PrintStream;
 import java.io.Serial;
+import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+import java.util.logging.Level;
 import java.util.logging.Logger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+import jenkins.MasterToSlaveFileCallable;
+import jenkins.util.SystemProperties;
+import jenkins.util.Timer;
 import net.sf.json.JSONObject;
+import org.jenkinsci.plugins.unity3d.io.EditorLogArchive;
+import org.jenkinsci.plugins.unity3d.io.LibraryCache;
 import org.jenkinsci.plugins.unity3d.io.Pipe;
-import org.jenkinsci.plugins.unity3d.io.StreamCopyThread;
+import org.jenkinsci.plugins.unity3d.io.StreamCopyTask;
+import org.jenkinsci.plugins.unity3d.logs.AssetImportIndex;
+import org.jenkinsci.plugins.unity3d.logs.ConsoleVerbosity;
+import org.jenkinsci.plugins.unity3d.logs.EditorLogActivity;
+import org.jenkinsci.plugins.unity3d.logs.EditorLogPhases;
+import org.jenkinsci.plugins.unity3d.logs.EditorLogReport;
+import org.jenkinsci.plugins.unity3d.logs.PlayerSizeStatistics;
+import org.jenkinsci.plugins.unity3d.logs.Unity3dEditorLogAnnotator;
 import org.kohsuke.stapler.DataBoundConstructor;
+import org.kohsuke.stapler.DataBoundSetter;
 import org.kohsuke.stapler.QueryParameter;
 import org.kohsuke.stapler.StaplerRequest2;
 
@@ -44,13 +84,57 @@ import org.kohsuke.stapler.StaplerRequest2;
  * Features:<br/>
  * <u>
  *  <li>supports local and remote execution</li>
- *  <li>pipe the editor.log into the console</li>
+ *  <li>runs as a Pipeline step too, see {@link Unity3dStep}</li>
+ *  <li>limits the Unity3d Editors each node runs, see {@link Unity3dGovernor}</li>
+ *  <li>pipe the editor.log into the console, parsed on the build node, as verbose as configured</li>
+ *  <li>show the time spent in the Editor.log phases on a build timeline</li>
+ *  <li>report the slowest asset imports</li>
+ *  <li>report the player size, and mark the build unstable when over budget</li>
+ *  <li>cache the Library folder of the project on each node, see {@link LibraryCache}</li>
+ *  <li>archive the Editor.log compressed, readable from any line, see {@link Unity3dEditorLogAction}</li>
+ *  <li>kill Unity3d when its Editor.log stays silent for longer than the phase it is in allows</li>
+ *  <li>kill Unity3d and fail as soon as its Editor.log has a fatal line, e.g. a compilation error</li>
  * </u>
  * @author Jerome Lacoste
  */
 public class Unity3dBuilder extends Builder {
     private static final Logger log = Logger.getLogger(Unity3dBuilder.class.getName());
 
+    /**
+     * How long to wait for the Editor.log piping to complete after Unity3d exited.
+     */
+    private static final long DRAIN_TIMEOUT_SECONDS =
+            SystemProperties.getLong(Unity3dBuilder.class.getName() + ".drainTimeoutSeconds", 60L);
+
+    private static final long DRAIN_RETRY_MILLIS = 100;
+
+    /**
+     * How long to wait for a node to be back online, after the channel piping its Editor.log was lost, to pipe the
+     * rest.
+     */
+    private static final long RESUME_TIMEOUT_SECONDS =
+            SystemProperties.getLong(Unity3dBuilder.class.getName() + ".resumeTimeoutSeconds", 300L);
+
+    /**
+     * How often the watchdog checks when the Editor.log last had a line, and whether it had a fatal one, if the
+     * builder has inactivity timeouts or fatal signatures.
+     */
+    private static final long WATCHDOG_INTERVAL_MILLIS =
+            SystemProperties.getLong(Unity3dBuilder.class.getName() + ".watchdogIntervalMillis", 5000L);
+
+    private static final Pattern DURATION =
+            Pattern.compile("(\\d+(?:\\.\\d+)?)\\s*(ms|s|m|h)", Pattern.CASE_INSENSITIVE);
+
+    /**
+     * The Library cache directory, relative to the root directory of the node.
+     */
+    static final String LIBRARY_CACHE_DIR = "unity3d-library-cache";
+
+    /**
+     * The default maximum size of the Library cache of a node.
+     */
+    private static final long DEFAULT_LIBRARY_CACHE_SIZE = 50L * 1024 * 1024 * 1024;
+
     /**
      * @since 0.1
      */
@@ -62,6 +146,36 @@ public class Unity3dBuilder extends Builder {
 
     private String unstableReturnCodes;
 
+    /**
+     * @since 1.4
+     */
+    private String playerSizeBudgets = "";
+
+    /**
+     * @since 1.4
+     */
+    private boolean libraryCache;
+
+    /**
+     * @since 1.4
+     */
+    private boolean archiveEditorLog;
+
+    /**
+     * @since 1.4
+     */
+    private ConsoleVerbosity consoleVerbosity;
+
+    /**
+     * @since 1.4
+     */
+    private String inactivityTimeouts = "";
+
+    /**
+     * @since 1.4
+     */
+    private String fatalSignatures = "";
+
     @DataBoundConstructor
     public Unity3dBuilder(String unity3dName, String argLine, String unstableReturnCodes) {
         this.unity3dName = unity3dName;
@@ -72,6 +186,9 @@ public class Unity3dBuilder extends Builder {
     @SuppressWarnings("unused")
     private Object readResolve() throws ObjectStreamException {
         if (unstableReturnCodes == null) unstableReturnCodes = "";
+        if (playerSizeBudgets == null) playerSizeBudgets = "";
+        if (inactivityTimeouts == null) inactivityTimeouts = "";
+        if (fatalSignatures == null) fatalSignatures = "";
         return this;
     }
 
@@ -89,6 +206,102 @@ public class Unity3dBuilder extends Builder {
         return unstableReturnCodes;
     }
 
+    /**
+     * @since 1.4
+     */
+    public String getPlayerSizeBudgets() {
+        return playerSizeBudgets;
+    }
+
+    @DataBoundSetter
+    public void setPlayerSizeBudgets(String playerSizeBudgets) {
+        this.playerSizeBudgets = Util.fixNull(playerSizeBudgets);
+    }
+
+    /**
+     * @since 1.4
+     */
+    public boolean isLibraryCache() {
+        return libraryCache;
+    }
+
+    @DataBoundSetter
+    public void setLibraryCache(boolean libraryCache) {
+        this.libraryCache = libraryCache;
+    }
+
+    /**
+     * @since 1.4
+     */
+    public boolean isArchiveEditorLog() {
+        return archiveEditorLog;
+    }
+
+    @DataBoundSetter
+    public void setArchiveEditorLog(boolean archiveEditorLog) {
+        this.archiveEditorLog = archiveEditorLog;
+    }
+
+    /**
+     * @since 1.4
+     */
+    public ConsoleVerbosity getConsoleVerbosity() {
+        return consoleVerbosity != null ? consoleVerbosity : ConsoleVerbosity.FULL;
+    }
+
+    @DataBoundSetter
+    public void setConsoleVerbosity(ConsoleVerbosity consoleVerbosity) {
+        this.consoleVerbosity = consoleVerbosity;
+    }
+
+    /**
+     * @since 1.4
+     */
+    public String getInactivityTimeouts() {
+        return inactivityTimeouts;
+    }
+
+    @DataBoundSetter
+    public void setInactivityTimeouts(String inactivityTimeouts) {
+        this.inactivityTimeouts = Util.fixNull(inactivityTimeouts);
+    }
+
+    /**
+     * @since 1.4
+     */
+    public String getFatalSignatures() {
+        return fatalSignatures;
+    }
+
+    @DataBoundSetter
+    public void setFatalSignatures(String fatalSignatures) {
+        this.fatalSignatures = Util.fixNull(fatalSignatures);
+    }
+
+    /**
+     * @return the fatal signatures, or none if they are invalid
+     */
+    private List<String> getFatalSignatureList(PrintStream logger) {
+        try {
+            return toFatalSignatures(fatalSignatures);
+        } catch (IllegalArgumentException e) {
+            logger.println(Messages.Unity3d_InvalidParamFatalSignatures(e.getMessage()));
+            return List.of();
+        }
+    }
+
+    /**
+     * @return the inactivity timeouts, or none if they are invalid
+     */
+    private Map<String, Long> getInactivityTimeoutsMillis(PrintStream logger) {
+        try {
+            return toInactivityTimeouts(inactivityTimeouts);
+        } catch (IllegalArgumentException e) {
+            logger.println(Messages.Unity3d_InvalidParamInactivityTimeouts(inactivityTimeouts));
+            return Map.of();
+        }
+    }
+
     Set<Integer> toUnstableReturnCodesSet() {
         return toIntegerSet(unstableReturnCodes);
     }
@@ -105,7 +318,7 @@ public class Unity3dBuilder extends Builder {
         return unity3dName;
     }
 
-    private static class PerformException extends Exception {
+    static class PerformException extends Exception {
         @Serial
         private static final long serialVersionUID = 1L;
 
@@ -131,63 +344,687 @@ public class Unity3dBuilder extends Builder {
         }
     }
 
+    @SuppressFBWarnings("NP_NULL_ON_SOME_PATH_FROM_RETURN_VALUE")
     private void _perform(AbstractBuild<?, ?> build, Launcher launcher, BuildListener listener)
             throws IOException, InterruptedException, PerformException {
         EnvVars env = build.getEnvironment(listener);
 
-        Unity3dInstallation ui = getAndConfigureUnity3dInstallation(listener, env);
+        Node node = Computer.currentComputer().getNode();
+        Launch launch = prepare(build, build.getWorkspace(), node, env, launcher, listener);
+        launch.start(launch.awaitAdmission());
+        launch.join();
+    }
+
+    /**
+     * Prepare the launch of Unity3d, which starts once the {@link Unity3dGovernor} admitted it on its node.
+     *
+     * @param workspace the directory to run Unity3d in, and its default project path unless the run is an
+     *     {@link AbstractBuild} with a different module root
+     * @param node the build node, which the Unity3d installation is resolved for
+     * @see Unity3dStep
+     */
+    Launch prepare(Run<?, ?> run, FilePath workspace, Node node, EnvVars env, Launcher launcher, TaskListener listener)
+            throws IOException, InterruptedException, PerformException {
+        Unity3dInstallation ui = getAndConfigureUnity3dInstallation(node, listener, env);
+
+        // a single call to the build node, cached between builds
+        Unity3dInstallation.AgentProbe probe = ui.probe(launcher);
+
+        ArgumentListBuilder args = prepareCommandlineArguments(run, workspace, probe, env);
+
+        String id = UUID.randomUUID().toString();
+        // the launches of a node would otherwise all write to the same per-user Editor.log
+        FilePath generatedEditorLog = null;
+        if (!args.toList().contains("-logFile")) {
+            generatedEditorLog = getGeneratedEditorLog(run, workspace, id);
+            args.add("-logFile", generatedEditorLog.getRemote());
+        }
+
+        String editorLogPath = getEditorLogPath(workspace, probe, findLogFileArgument(args));
+
+        return new Launch(
+                run, workspace, node, launcher, listener, ui, probe, args, env, editorLogPath, generatedEditorLog, id);
+    }
+
+    /**
+     * A Unity3d process prepared by {@link #prepare}, and the piping of its Editor.log into the console.
+     */
+    final class Launch {
+        private final Run<?, ?> run;
+        private final FilePath workspace;
+        private final Node node;
+        private final Launcher launcher;
+        private final TaskListener listener;
+        private final Unity3dInstallation ui;
+        private final Unity3dInstallation.AgentProbe probe;
+        private final ArgumentListBuilder args;
+        private final EnvVars env;
+        private final String editorLogPath;
+        private FilePath generatedEditorLog;
+        private final String drainId;
 
-        ArgumentListBuilder args = prepareCommandlineArguments(build, launcher, ui, env);
+        private final EditorLogReport report = new EditorLogReport();
+        private final List<String> signatures;
+        private final EditorLogActivity activity;
+        private final Unity3dEditorLogAnnotator annotator;
 
-        String customLogFile = findLogFileArgument(args);
+        private FilePath checkpoint;
+        private FilePath archive;
+        private Pipe pipe;
+        private Future<?> piping;
+        private Future<Long> copier;
+        private Unity3dGovernor.Permit permit;
+        private boolean queued;
+        private String libraryKey;
+        private volatile Proc proc;
+        private ScheduledFuture<?> watchdog;
+        // why the launch was killed, if it was
+        private volatile String abortCause;
 
-        Pipe pipe = Pipe.createRemoteToLocal(launcher);
+        private Launch(
+                Run<?, ?> run,
+                FilePath workspace,
+                Node node,
+                Launcher launcher,
+                TaskListener listener,
+                Unity3dInstallation ui,
+                Unity3dInstallation.AgentProbe probe,
+                ArgumentListBuilder args,
+                EnvVars env,
+                String editorLogPath,
+                FilePath generatedEditorLog,
+                String drainId) {
+            this.run = run;
+            this.workspace = workspace;
+            this.node = node;
+            this.launcher = launcher;
+            this.listener = listener;
+            this.ui = ui;
+            this.probe = probe;
+            this.args = args;
+            this.env = env;
+            this.editorLogPath = editorLogPath;
+            this.generatedEditorLog = generatedEditorLog;
+            this.drainId = drainId;
+            this.signatures = getFatalSignatureList(listener.getLogger());
+            this.activity = new EditorLogActivity(signatures);
+            this.annotator = new Unity3dEditorLogAnnotator(
+                    listener.getLogger(),
+                    run.getCharset(),
+                    getConsoleVerbosity(),
+                    null,
+                    null,
+                    report.getListeners(activity));
+        }
 
-        PrintStream ca = listener.getLogger();
-        ca.println("Piping unity Editor.log from " + ui.getEditorLogPath(launcher, customLogFile));
-        Future<Long> futureReadBytes = ui.pipeEditorLog(launcher, customLogFile, pipe.getOut());
-        // Unity3dConsoleAnnotator ca = new Unity3dConsoleAnnotator(listener.getLogger(), build.getCharset());
+        /**
+         * Ask the {@link Unity3dGovernor} to admit the launch on its node.
+         *
+         * @return the permit to start Unity3d, once admitted. Cancel it to give up.
+         */
+        CompletableFuture<Unity3dGovernor.Permit> requestAdmission() {
+            Unity3dGovernor governor = Unity3dGovernor.get();
+            DescriptorImpl descriptor = getDescriptor();
+            CompletableFuture<Unity3dGovernor.Permit> admission = governor.acquire(
+                    node.getNodeName(),
+                    descriptor.getMaxEditorsPerNode(),
+                    probe.getTotalMemory(),
+                    descriptor.getMemoryPerEditorBytes(),
+                    toProjectKey(workspace, findArgument(args, "-projectPath")));
+            Unity3dGovernor.Statistics statistics = governor.getStatistics(node.getNodeName());
+            if (!admission.isDone() && statistics != null) {
+                queued = true;
+                listener.getLogger()
+                        .println(Messages.Unity3d_Queued(
+                                node.getDisplayName(), statistics.getRunning(), statistics.getQueued()));
+            }
+            return admission;
+        }
 
-        StreamCopyThread copierThread = new StreamCopyThread("Pipe editor.log to output thread.", pipe.getIn(), ca);
+        /**
+         * Wait for the {@link Unity3dGovernor} to admit the launch, giving up if interrupted.
+         */
+        Unity3dGovernor.Permit awaitAdmission() throws IOException, InterruptedException {
+            CompletableFuture<Unity3dGovernor.Permit> admission = requestAdmission();
+            try {
+                return admission.get();
+            } catch (InterruptedException e) {
+                // admitted meanwhile
+                if (!admission.cancel(false)) admission.join().release();
+                throw e;
+            } catch (ExecutionException e) {
+                throw new IOException(e.getCause());
+            }
+        }
+
+        /**
+         * Start Unity3d along with the piping of its Editor.log, without waiting for it to exit.
+         *
+         * @param permit the admission of the launch, released once Unity3d exited
+         */
+        void start(Unity3dGovernor.Permit permit) throws IOException, InterruptedException {
+            this.permit = permit;
+            PrintStream ca = listener.getLogger();
+            try {
+                if (queued) {
+                    long now = System.currentTimeMillis();
+                    report.getPhases().add("Queued", now - permit.getWaitMillis(), now);
+                    ca.println(Messages.Unity3d_Admitted(Util.getTimeSpanString(permit.getWaitMillis())));
+                }
+
+                if (libraryCache) restoreLibrary();
+
+                checkpoint = getEditorLogCheckpoint(run, workspace, drainId);
+                if (archiveEditorLog) archive = getEditorLogArchive(run, workspace, drainId);
+
+                // a local Editor.log is tailed straight into the console by the piping task, without a pipe and copier.
+                // A remote one is parsed on its node, and only what goes into the console crosses the channel.
+                pipe = launcher instanceof Launcher.LocalLauncher ? null : Pipe.createRemoteToLocal(launcher);
+                if (pipe == null) EditorLogActivity.register(drainId, activity);
+
+                ca.println("Piping unity Editor.log from " + editorLogPath);
+                String checkpointPath = checkpoint.getRemote();
+                String archivePath = archive != null ? archive.getRemote() : null;
+                piping = pipe != null
+                        ? ui.parseEditorLog(
+                                launcher,
+                                editorLogPath,
+                                pipe.getOut(),
+                                checkpointPath,
+                                drainId,
+                                archivePath,
+                                run.getCharset().name(),
+                                getConsoleVerbosity(),
+                                signatures)
+                        : ui.pipeEditorLog(
+                                launcher, editorLogPath, annotator, false, checkpointPath, drainId, archivePath);
+            } catch (IOException | InterruptedException | RuntimeException e) {
+                permit.release();
+                throw e;
+            }
+
+            boolean started = false;
+            try {
+                Map<String, Long> timeouts = getInactivityTimeoutsMillis(ca);
+                if (pipe != null) copier = new StreamCopyTask(pipe.getIn(), ca).start();
+                EnvVars launchEnv = new EnvVars(env);
+                launchEnv.put(Unity3dProcessTree.LAUNCH_ID, drainId);
+                proc = launcher.launch()
+                        .cmds(args)
+                        .envs(launchEnv)
+                        .stdout(ca)
+                        .pwd(workspace)
+                        .start();
+                started = true;
+                if (!timeouts.isEmpty() || !signatures.isEmpty()) {
+                    long interval = WATCHDOG_INTERVAL_MILLIS;
+                    synchronized (this) {
+                        watchdog = Timer.get()
+                                .scheduleWithFixedDelay(
+                                        () -> watch(timeouts), interval, interval, TimeUnit.MILLISECONDS);
+                    }
+                }
+            } finally {
+                if (!started) finish();
+            }
+        }
+
+        /**
+         * @return true once Unity3d was started
+         */
+        boolean isStarted() {
+            return proc != null;
+        }
+
+        /**
+         * @return true while Unity3d runs
+         */
+        boolean isAlive() throws IOException, InterruptedException {
+            return proc.isAlive();
+        }
+
+        void kill() throws IOException, InterruptedException {
+            proc.kill();
+        }
+
+        /**
+         * Kill Unity3d if its Editor.log had a fatal line, or no line for longer than the inactivity timeout of the
+         * innermost block it is in, or than the default timeout.
+         */
+        private void watch(Map<String, Long> timeouts) {
+            try {
+                EditorLogActivity.Snapshot snapshot = ui.getEditorLogActivity(launcher, drainId);
+                // not piping yet, or anymore
+                if (snapshot == null) return;
+                if (snapshot.getFatalLine() != null) {
+                    abort(Messages.Unity3d_Fatal(snapshot.getFatalLine()), false);
+                    return;
+                }
+                String block = null;
+                Long timeout = null;
+                for (String b : snapshot.getBlocks()) {
+                    timeout = timeouts.get(b);
+                    if (timeout != null) {
+                        block = b;
+                        break;
+                    }
+                }
+                if (timeout == null) timeout = timeouts.get("");
+                if (timeout == null || snapshot.getIdleMillis() <= timeout) return;
+
+                String idle = Util.getTimeSpanString(snapshot.getIdleMillis());
+                abort(
+                        block != null
+                                ? Messages.Unity3d_InactiveInBlock(idle, block, Util.getTimeSpanString(timeout))
+                                : Messages.Unity3d_Inactive(idle, Util.getTimeSpanString(timeout)),
+                        true);
+            } catch (IOException | InterruptedException e) {
+                // Unity3d exited and the launch is finishing, or the agent went away
+                log.log(Level.FINE, "Unable to check the Editor.log activity", e);
+            }
+        }
+
+        /**
+         * Kill Unity3d and the processes it started, and have the launch fail with the given cause once they exited.
+         *
+         * @param describe true to print the state of the processes before killing them, e.g. when they hang
+         */
+        private void abort(String cause, boolean describe) throws IOException, InterruptedException {
+            synchronized (this) {
+                if (abortCause != null) return;
+                abortCause = cause;
+                if (watchdog != null) watchdog.cancel(false);
+            }
+            PrintStream ca = listener.getLogger();
+            ca.println(cause);
+            if (describe) {
+                try {
+                    ca.println(Messages.Unity3d_ProcessTree());
+                    ca.print(Unity3dProcessTree.describe(launcher, drainId));
+                } catch (IOException e) {
+                    ca.println(e);
+                }
+            }
+            // the editor first, so that its exit code doesn't come from a killed child
+            proc.kill();
+            Unity3dProcessTree.kill(launcher, drainId);
+        }
+
+        /**
+         * Wait for Unity3d to exit and check its return code, then finish the piping of the Editor.log and record
+         * what was parsed from it.
+         */
+        void join() throws IOException, InterruptedException, PerformException {
+            try {
+                int r = proc.join();
+                if (abortCause != null) throw new PerformException(abortCause);
+                // r == 11 means executeMethod could not be found ?
+                checkProcResult(run, r);
+                // before releasing the project to another Unity3d
+                if (libraryCache && isBuildSuccess(r)) saveLibrary();
+            } finally {
+                finish();
+            }
+        }
+
+        /**
+         * Restore the Library of the project from the node cache, unless it already has one. Failures only cost the
+         * time Unity3d takes to import the project again.
+         */
+        private void restoreLibrary() throws InterruptedException {
+            long start = System.currentTimeMillis();
+            FilePath cacheDir = getLibraryCacheDir();
+            if (cacheDir == null) return;
+            PrintStream ca = listener.getLogger();
+            try {
+                LibraryCache.Stats stats = getProjectDir()
+                        .act(new RestoreLibrary(
+                                cacheDir.getRemote(),
+                                getDescriptor().getLibraryCacheSizeBytes(),
+                                ui.getHome(),
+                                findArgument(args, "-buildTarget")));
+                libraryKey = stats.getKey();
+                switch (stats.getOutcome()) {
+                    case RESTORED:
+                        ca.println(Messages.Unity3d_LibraryRestored(
+                                node.getDisplayName(),
+                                Util.getTimeSpanString(stats.getMillis()),
+                                stats.getFiles(),
+                                Functions.humanReadableByteSize(stats.getBytes())));
+                        report.getPhases().add("Library cache", start, System.currentTimeMillis());
+                        break;
+                    case MISSED:
+                        ca.println(Messages.Unity3d_LibraryMissed(node.getDisplayName()));
+                        break;
+                    default:
+                        ca.println(Messages.Unity3d_LibraryPresent());
+                        break;
+                }
+            } catch (IOException e) {
+                ca.println(Messages.Unity3d_LibraryCacheFailed(e));
+            }
+        }
+
+        /**
+         * Save the changes of the Library of the project into the node cache.
+         */
+        private void saveLibrary() throws InterruptedException {
+            long start = System.currentTimeMillis();
+            FilePath cacheDir = getLibraryCacheDir();
+            if (cacheDir == null || libraryKey == null) return;
+            PrintStream ca = listener.getLogger();
+            try {
+                LibraryCache.Stats stats = getProjectDir()
+                        .act(new SaveLibrary(
+                                cacheDir.getRemote(), getDescriptor().getLibraryCacheSizeBytes(), libraryKey));
+                if (stats == null) return;
+                ca.println(Messages.Unity3d_LibrarySaved(
+                        node.getDisplayName(),
+                        Util.getTimeSpanString(stats.getMillis()),
+                        stats.getFiles(),
+                        Functions.humanReadableByteSize(stats.getBytes())));
+                report.getPhases().add("Library cache", start, System.currentTimeMillis());
+            } catch (IOException e) {
+                ca.println(Messages.Unity3d_LibraryCacheFailed(e));
+            }
+        }
+
+        /**
+         * Move the Editor.log archive into the run directory, along with where its phases start.
+         */
+        private void recordEditorLog() throws InterruptedException {
+            FilePath index = archive.sibling(archive.getName() + ".idx");
+            try {
+                // the piping task only writes the index once the archive is complete
+                if (!index.exists()) {
+                    listener.getLogger().println(Messages.Unity3d_EditorLogNotArchived(index + " is missing"));
+                    return;
+                }
+                File file = Unity3dEditorLogAction.getFile(run, drainId);
+                archive.copyTo(new FilePath(file));
+                index.copyTo(new FilePath(EditorLogArchive.indexOf(file.toPath()).toFile()));
+
+                List<Unity3dEditorLogAction.Mark> marks = new ArrayList<>();
+                for (EditorLogPhases.Phase phase : report.getPhases().getPhases()) {
+                    if (phase.getLine() >= 0) marks.add(new Unity3dEditorLogAction.Mark(phase));
+                }
+                Unity3dEditorLogAction.Archive recorded;
+                try (EditorLogArchive.Reader reader = new EditorLogArchive.Reader(file.toPath())) {
+                    recorded = new Unity3dEditorLogAction.Archive(
+                            drainId,
+                            findArgument(args, "-projectPath"),
+                            reader.getLines(),
+                            reader.getBytes(),
+                            reader.getCompressedBytes(),
+                            marks);
+                }
+                getOrAddAction(run, Unity3dEditorLogAction.class, Unity3dEditorLogAction::new).add(recorded);
+            } catch (IOException e) {
+                listener.getLogger().println(Messages.Unity3d_EditorLogNotArchived(e));
+            } finally {
+                deleteQuietly(archive, listener);
+                deleteQuietly(index, listener);
+            }
+        }
+
+        private FilePath getProjectDir() {
+            return workspace.child(findArgument(args, "-projectPath"));
+        }
+
+        /**
+         * @return the Library cache directory of the node, or null if the node is offline
+         */
+        private FilePath getLibraryCacheDir() {
+            FilePath root = node.getRootPath();
+            return root == null ? null : root.child(LIBRARY_CACHE_DIR);
+        }
+
+        /**
+         * Pipe the rest of the Editor.log once the node is back online, after the channel of the piping task was lost,
+         * e.g. when the agent reconnected. The new task resumes from the checkpoint the lost one kept on the node, so
+         * that the console neither misses nor repeats lines. The archive of the lost task is incomplete, so the
+         * Editor.log isn't archived.
+         *
+         * @return what the new task parsed, or null if the node didn't come back in time
+         */
+        private EditorLogReport resumeEditorLogPiping() throws InterruptedException {
+            PrintStream ca = listener.getLogger();
+            ca.println(Messages.Unity3d_EditorLogPipingLost(node.getDisplayName()));
+            // nothing closes the pipe of the lost task
+            if (copier != null) copier.cancel(true);
+            copier = null;
+            VirtualChannel channel = awaitChannel();
+            if (channel == null) {
+                String timeout = Util.getTimeSpanString(TimeUnit.SECONDS.toMillis(RESUME_TIMEOUT_SECONDS));
+                ca.println(Messages.Unity3d_EditorLogPipingNotResumed(node.getDisplayName(), timeout));
+                return null;
+            }
+            // the files of the launch, through the new channel
+            checkpoint = new FilePath(channel, checkpoint.getRemote());
+            if (generatedEditorLog != null) generatedEditorLog = new FilePath(channel, generatedEditorLog.getRemote());
+            if (archive != null) {
+                FilePath lost = new FilePath(channel, archive.getRemote());
+                archive = null;
+                deleteQuietly(lost, listener);
+                deleteQuietly(lost.sibling(lost.getName() + ".idx"), listener);
+                ca.println(Messages.Unity3d_EditorLogNotArchived("its piping was interrupted"));
+            }
+            try {
+                Launcher resumed = node.createLauncher(listener);
+                pipe = Pipe.createRemoteToLocal(resumed);
+                copier = new StreamCopyTask(pipe.getIn(), ca).start();
+                Future<EditorLogReport> resumedPiping = ui.parseEditorLog(
+                        resumed,
+                        editorLogPath,
+                        pipe.getOut(),
+                        checkpoint.getRemote(),
+                        drainId,
+                        null,
+                        run.getCharset().name(),
+                        getConsoleVerbosity(),
+                        signatures);
+                return finishEditorLogPiping(ui, resumed, drainId, resumedPiping, listener);
+            } catch (IOException e) {
+                ca.println("Unable to pipe the end of the Editor.log: " + e);
+                return null;
+            }
+        }
+
+        /**
+         * @return the new channel of the node, or null if it isn't back online in time
+         */
+        private VirtualChannel awaitChannel() throws InterruptedException {
+            long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(RESUME_TIMEOUT_SECONDS);
+            while (true) {
+                Computer computer = node.toComputer();
+                VirtualChannel channel = computer != null ? computer.getChannel() : null;
+                if (channel != null && !isClosed(channel)) return channel;
+                if (System.currentTimeMillis() >= deadline) return null;
+                Thread.sleep(1000);
+            }
+        }
+
+        private void finish() throws InterruptedException {
+            permit.release();
+            synchronized (this) {
+                if (watchdog != null) watchdog.cancel(false);
+            }
+            EditorLogActivity.release(drainId, activity);
+            Object piped = finishEditorLogPiping(ui, launcher, drainId, piping, listener);
+            if (piped == null && pipe != null && isClosed(launcher.getChannel())) piped = resumeEditorLogPiping();
+            // what the node parsed
+            if (piped instanceof EditorLogReport) report.merge((EditorLogReport) piped);
+            try {
+                if (copier != null) {
+                    copier.get();
+                    log.fine("Editor.log: " + pipe.getStatistics());
+                }
+            } catch (ExecutionException e) {
+                PrintStream ca = listener.getLogger();
+                ca.println("Failure on remote ");
+                e.getCause().printStackTrace(ca);
+            } finally {
+                annotator.forceEol();
+                if (getConsoleVerbosity() != ConsoleVerbosity.FULL) {
+                    listener.getLogger()
+                            .println(Messages.Unity3d_EditorLogSummary(
+                                    report.getLines(), report.getWarnings(), report.getErrors()));
+                }
+                recordTimeline(run, report.getPhases());
+                recordAssetImports(run, report.getImports());
+                recordPlayerSize(run, report.getPlayerSize(), listener);
+                if (archive != null) recordEditorLog();
+                deleteQuietly(checkpoint, listener);
+                if (generatedEditorLog != null) deleteQuietly(generatedEditorLog, listener);
+            }
+        }
+    }
+
+    /**
+     * Have the Editor.log piping task copy the rest of the log and close the pipe, which ends the copier thread once
+     * everything was flushed to the console. The task is only cancelled if it doesn't complete in time.
+     *
+     * @return the result of the task, or null if it failed
+     */
+    private <T> T finishEditorLogPiping(
+            Unity3dInstallation ui, Launcher launcher, String drainId, Future<T> piping, TaskListener listener)
+            throws InterruptedException {
         try {
-            copierThread.start();
-            int r = launcher.launch()
-                    .cmds(args)
-                    .envs(env)
-                    .stdout(ca)
-                    .pwd(build.getWorkspace())
-                    .join();
-            // r == 11 means executeMethod could not be found ?
-            checkProcResult(build, r);
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(DRAIN_TIMEOUT_SECONDS);
+            // the task may not have started yet, e.g. when Unity3d failed right away
+            while (!ui.drainEditorLog(launcher, drainId) && !piping.isDone()) {
+                if (System.nanoTime() >= deadline) throw new TimeoutException("the piping task didn't start");
+                Thread.sleep(DRAIN_RETRY_MILLIS);
+            }
+            T result = piping.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            log.fine("Piped the Editor.log: " + result);
+            return result;
+        } catch (IOException | ExecutionException | TimeoutException e) {
+            listener.getLogger().println("Unable to pipe the end of the Editor.log: " + e);
+            return null;
         } finally {
-            // give a bit of time for the piping to complete. Not really
-            // sure why it's not properly flushed otherwise
-            Thread.sleep(1000);
-            if (!futureReadBytes.isDone()) {
+            if (!piping.isDone()) {
                 // NOTE According to the API, cancel() should cause future calls to get() to fail with an exception
                 // Jenkins implementation doesn't seem to record it right now and just interrupts the remote task
-                // but we won't use the value, in case that behavior changes, even for debugging / informative purposes
                 // we still call cancel to stop the task.
-                futureReadBytes.cancel(true);
-                // listener.getLogger().print("Read " + futureReadBytes.get() + " bytes from Editor.log");
+                piping.cancel(true);
             }
-            try {
-                copierThread.join();
-                if (copierThread.getFailure() != null) {
-                    ca.println("Failure on remote ");
-                    copierThread.getFailure().printStackTrace(ca);
-                }
-            } finally {
-                // ca.forceEol();
+        }
+    }
+
+    /**
+     * The action of the given type of the run, added if missing. The Unity3d steps of a run share their actions, and
+     * the steps of parallel branches may record theirs at the same time.
+     */
+    private static <T extends Action> T getOrAddAction(Run<?, ?> run, Class<T> type, Supplier<T> factory) {
+        synchronized (run) {
+            T action = run.getAction(type);
+            if (action == null) {
+                action = factory.get();
+                run.addAction(action);
             }
+            return action;
         }
     }
 
-    private void checkProcResult(AbstractBuild<?, ?> build, int result) throws PerformException {
+    /**
+     * Add the phases of the Editor.log to the build timeline, shared by the Unity3d steps of the build.
+     */
+    private static void recordTimeline(Run<?, ?> run, EditorLogPhases phases) {
+        phases.finish(System.currentTimeMillis());
+        if (phases.getPhases().isEmpty()) return;
+        getOrAddAction(run, Unity3dTimelineAction.class, Unity3dTimelineAction::new).addPhases(phases.getPhases());
+    }
+
+    /**
+     * Add the asset imports of the Editor.log to the build report, shared by the Unity3d steps of the build.
+     */
+    private static void recordAssetImports(Run<?, ?> run, AssetImportIndex imports) {
+        if (imports.getCount() == 0) return;
+        getOrAddAction(run, Unity3dAssetImportAction.class, Unity3dAssetImportAction::new).add(imports);
+    }
+
+    /**
+     * Add the player size statistics of the Editor.log to the build, and mark it unstable if the player is over one of
+     * its budgets.
+     */
+    private void recordPlayerSize(Run<?, ?> run, PlayerSizeStatistics playerSize, TaskListener listener) {
+        if (!playerSize.isFound()) return;
+        getOrAddAction(run, Unity3dPlayerSizeAction.class, Unity3dPlayerSizeAction::new).add(playerSize);
+
+        Map<String, Long> budgets;
+        try {
+            budgets = toPlayerSizeBudgets(playerSizeBudgets);
+        } catch (IllegalArgumentException e) {
+            listener.getLogger().println(Messages.Unity3d_InvalidParamPlayerSizeBudgets(playerSizeBudgets));
+            return;
+        }
+        for (Map.Entry<String, Long> budget : budgets.entrySet()) {
+            long size = playerSize.getSize(budget.getKey());
+            if (size < 0) {
+                listener.getLogger().println(Messages.Unity3d_PlayerSizeUnknownBudget(budget.getKey()));
+            } else if (size > budget.getValue()) {
+                listener.getLogger()
+                        .println(Messages.Unity3d_PlayerSizeOverBudget(
+                                budget.getKey(),
+                                Functions.humanReadableByteSize(size),
+                                Functions.humanReadableByteSize(budget.getValue())));
+                run.setResult(Result.UNSTABLE);
+            }
+        }
+    }
+
+    /**
+     * The checkpoint recording how much of the Editor.log of this step was piped, kept in the workspace temporary
+     * directory on the build node.
+     */
+    private static FilePath getEditorLogCheckpoint(Run<?, ?> run, FilePath workspace, String id)
+            throws IOException, InterruptedException {
+        return getTempFile(workspace, "unity3d-editorlog-" + run.getNumber() + "-" + id + ".checkpoint");
+    }
+
+    /**
+     * The {@link EditorLogArchive} the piping task writes, in the workspace temporary directory on the build node until
+     * the launch finished.
+     */
+    private static FilePath getEditorLogArchive(Run<?, ?> run, FilePath workspace, String id)
+            throws IOException, InterruptedException {
+        return getTempFile(workspace, "unity3d-editorlog-" + run.getNumber() + "-" + id + ".log.gz");
+    }
+
+    /**
+     * The Editor.log of a launch without -logFile argument, kept in the workspace temporary directory on the build
+     * node until the launch finished.
+     */
+    private static FilePath getGeneratedEditorLog(Run<?, ?> run, FilePath workspace, String id)
+            throws IOException, InterruptedException {
+        return getTempFile(workspace, "unity3d-editor-" + run.getNumber() + "-" + id + ".log");
+    }
+
+    private static FilePath getTempFile(FilePath workspace, String name) throws IOException, InterruptedException {
+        FilePath tmp = WorkspaceList.tempDir(workspace);
+        tmp.mkdirs();
+        return tmp.child(name);
+    }
+
+    private static boolean isClosed(VirtualChannel channel) {
+        return channel instanceof Channel c && c.isClosingOrClosed();
+    }
+
+    private static void deleteQuietly(FilePath file, TaskListener listener) throws InterruptedException {
+        try {
+            file.delete();
+        } catch (IOException e) {
+            // only a leftover in the workspace temporary directory
+            listener.getLogger().println("Unable to delete " + file + ": " + e.getMessage());
+        }
+    }
+
+    private void checkProcResult(Run<?, ?> run, int result) throws PerformException {
         log.info("Unity command line exited with error code: " + result);
         if (isBuildUnstable(result)) {
             log.info(Messages.Unity3d_BuildMarkedAsUnstableBecauseOfStatus(result));
-            build.setResult(Result.UNSTABLE);
+            run.setResult(Result.UNSTABLE);
         } else if (!isBuildSuccess(result)) {
             throw new PerformException(Messages.Unity3d_UnityExecFailed(result));
         }
@@ -205,35 +1042,70 @@ public class Unity3dBuilder extends Builder {
 
     /** Find the -logFile argument from the built arg line **/
     private String findLogFileArgument(ArgumentListBuilder args) {
-        String customLogFile = null;
+        return findArgument(args, "-logFile");
+    }
+
+    /**
+     * @param projectPath the -projectPath argument, which Unity3d resolves against the workspace. The built arg line
+     *     always has one, see {@link #createCommandlineArgs}.
+     * @return the project directory on the node however the command line spells it, e.g. with a trailing separator or
+     *     ".." segments, as the {@link Unity3dGovernor} locks it
+     */
+    static String toProjectKey(FilePath workspace, String projectPath) {
+        FilePath dir = workspace.child(projectPath);
+        // Windows paths are case insensitive
+        return dir.isUnix() ? dir.getRemote() : dir.getRemote().toLowerCase(Locale.ROOT);
+    }
+
+    /** Find the value of the last given argument from the built arg line **/
+    private static String findArgument(ArgumentListBuilder args, String name) {
+        String value = null;
         List<String> a = args.toList();
         for (int i = 0; i < a.size() - 1; i++) {
-            if (a.get(i).equals("-logFile")) {
-                customLogFile = a.get(i + 1);
+            if (a.get(i).equals(name)) {
+                value = a.get(i + 1);
             }
         }
-        return customLogFile;
+        return value;
+    }
+
+    /**
+     * @param customLogFile the -logFile argument, which Unity3d resolves against the workspace, or null
+     * @return the absolute path of the Editor.log on the build node
+     */
+    private String getEditorLogPath(FilePath workspace, Unity3dInstallation.AgentProbe probe, String customLogFile)
+            throws PerformException {
+        if (customLogFile != null) {
+            return workspace.child(customLogFile).getRemote();
+        }
+        if (probe.getEditorLogPath() == null) {
+            throw new PerformException(probe.getEditorLogError());
+        }
+        return probe.getEditorLogPath();
     }
 
     private ArgumentListBuilder prepareCommandlineArguments(
-            AbstractBuild<?, ?> build, Launcher launcher, Unity3dInstallation ui, EnvVars vars)
-            throws IOException, InterruptedException, PerformException {
-        String exe;
-        try {
-            exe = ui.getExecutable(launcher);
-        } catch (RuntimeException re) {
-            throw new PerformException(re.getMessage());
+            Run<?, ?> run, FilePath workspace, Unity3dInstallation.AgentProbe probe, EnvVars vars)
+            throws PerformException {
+        if (!probe.isExecutableFound()) {
+            throw new PerformException(probe.getInvalidInstallMessage());
         }
+        String exe = probe.getExecutable();
 
-        FilePath moduleRoot = build.getModuleRoot();
+        // Pipeline runs have no module root, and their parameters are in the environment
+        FilePath moduleRoot = workspace;
+        Map<String, String> buildParameters = Collections.emptyMap();
+        if (run instanceof AbstractBuild) {
+            AbstractBuild<?, ?> build = (AbstractBuild<?, ?>) run;
+            moduleRoot = build.getModuleRoot();
+            buildParameters = build.getBuildVariables();
+        }
         String moduleRootRemote = moduleRoot.getRemote();
-        Map<String, String> buildParameters = build.getBuildVariables();
 
         return createCommandlineArgs(exe, moduleRootRemote, vars, buildParameters);
     }
 
-    @SuppressFBWarnings("NP_NULL_ON_SOME_PATH_FROM_RETURN_VALUE")
-    private Unity3dInstallation getAndConfigureUnity3dInstallation(BuildListener listener, EnvVars env)
+    private Unity3dInstallation getAndConfigureUnity3dInstallation(Node node, TaskListener listener, EnvVars env)
             throws PerformException, IOException, InterruptedException {
         Unity3dInstallation ui = getUnity3dInstallation();
 
@@ -241,7 +1113,7 @@ public class Unity3dBuilder extends Builder {
             throw new PerformException(Messages.Unity3d_NoUnity3dInstallation());
         }
 
-        ui = ui.forNode(Computer.currentComputer().getNode(), listener);
+        ui = ui.forNode(node, listener);
         ui = ui.forEnvironment(env);
         return ui;
     }
@@ -285,6 +1157,120 @@ public class Unity3dBuilder extends Builder {
         return result;
     }
 
+    /**
+     * @param budgets comma separated name=size budgets, e.g. "compressed=20mb, Textures=8mb"
+     * @return the budgets in bytes, by {@link PlayerSizeStatistics#getSize(String) size name}
+     */
+    static Map<String, Long> toPlayerSizeBudgets(String budgets) {
+        Map<String, Long> result = new LinkedHashMap<>();
+        if (!budgets.trim().isEmpty()) {
+            for (String budget : budgets.split(",")) {
+                int eq = budget.indexOf('=');
+                if (eq <= 0) throw new IllegalArgumentException("Not a name=size budget: " + budget);
+                result.put(budget.substring(0, eq).trim(), PlayerSizeStatistics.parseSize(budget.substring(eq + 1)));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @param timeouts comma separated durations, for a block of the Editor.log or the default one, e.g.
+     *     "30m, Compile=10m, Lightmap=4h"
+     * @return the timeouts in milliseconds, by block name ignoring case, the default one under ""
+     */
+    static Map<String, Long> toInactivityTimeouts(String timeouts) {
+        Map<String, Long> result = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        if (!timeouts.trim().isEmpty()) {
+            for (String timeout : timeouts.split(",")) {
+                int eq = timeout.indexOf('=');
+                String block = eq < 0 ? "" : timeout.substring(0, eq).trim();
+                if (eq >= 0 && block.isEmpty()) {
+                    throw new IllegalArgumentException("Not a block=duration timeout: " + timeout);
+                }
+                result.put(block, parseDuration(timeout.substring(eq + 1)));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @param signatures regular expressions, one per line, found anywhere in an Editor.log line
+     * @return the regular expressions, checked
+     */
+    static List<String> toFatalSignatures(String signatures) {
+        List<String> result = new ArrayList<>();
+        for (String signature : signatures.split("\\R")) {
+            signature = signature.trim();
+            if (signature.isEmpty()) continue;
+            try {
+                Pattern.compile(signature);
+            } catch (PatternSyntaxException e) {
+                throw new IllegalArgumentException(signature, e);
+            }
+            result.add(signature);
+        }
+        return result;
+    }
+
+    /**
+     * @param duration a duration, e.g. "90s", "2.5h", "500ms"
+     * @return the duration in milliseconds
+     */
+    static long parseDuration(String duration) {
+        Matcher m = DURATION.matcher(duration.trim());
+        if (!m.matches()) throw new IllegalArgumentException("Not a duration: " + duration);
+        double value = Double.parseDouble(m.group(1));
+        switch (m.group(2).toLowerCase(Locale.ENGLISH)) {
+            case "ms":
+                return Math.round(value);
+            case "s":
+                return Math.round(value * 1000);
+            case "m":
+                return Math.round(value * 60 * 1000);
+            default:
+                return Math.round(value * 60 * 60 * 1000);
+        }
+    }
+
+    private static class RestoreLibrary extends MasterToSlaveFileCallable<LibraryCache.Stats> {
+        @Serial
+        private static final long serialVersionUID = 1L;
+        private final String cacheDir;
+        private final long maxSize;
+        private final String unityVersion;
+        private final String buildTarget;
+
+        RestoreLibrary(String cacheDir, long maxSize, String unityVersion, String buildTarget) {
+            this.cacheDir = cacheDir;
+            this.maxSize = maxSize;
+            this.unityVersion = unityVersion;
+            this.buildTarget = buildTarget;
+        }
+
+        public LibraryCache.Stats invoke(File project, VirtualChannel channel) throws IOException {
+            String key = LibraryCache.key(project.toPath(), unityVersion, buildTarget);
+            return new LibraryCache(Paths.get(cacheDir), maxSize).restore(key, project.toPath().resolve("Library"));
+        }
+    }
+
+    private static class SaveLibrary extends MasterToSlaveFileCallable<LibraryCache.Stats> {
+        @Serial
+        private static final long serialVersionUID = 1L;
+        private final String cacheDir;
+        private final long maxSize;
+        private final String key;
+
+        SaveLibrary(String cacheDir, long maxSize, String key) {
+            this.cacheDir = cacheDir;
+            this.maxSize = maxSize;
+            this.key = key;
+        }
+
+        public LibraryCache.Stats invoke(File project, VirtualChannel channel) throws IOException {
+            return new LibraryCache(Paths.get(cacheDir), maxSize).save(key, project.toPath().resolve("Library"));
+        }
+    }
+
     @Override
     public DescriptorImpl getDescriptor() {
         return (DescriptorImpl) super.getDescriptor();
@@ -294,6 +1280,21 @@ public class Unity3dBuilder extends Builder {
     public static final class DescriptorImpl extends BuildStepDescriptor<Builder> {
         private String globalArgLine;
 
+        /**
+         * @since 1.4
+         */
+        private int maxEditorsPerNode;
+
+        /**
+         * @since 1.4
+         */
+        private String memoryPerEditor;
+
+        /**
+         * @since 1.4
+         */
+        private String libraryCacheSize;
+
         @CopyOnWrite
         private volatile Unity3dInstallation[] installations = new Unity3dInstallation[0];
 
@@ -323,10 +1324,96 @@ public class Unity3dBuilder extends Builder {
             }
         }
 
+        public FormValidation doCheckPlayerSizeBudgets(@QueryParameter String value) {
+            try {
+                toPlayerSizeBudgets(value);
+                return FormValidation.ok();
+            } catch (RuntimeException re) {
+                return FormValidation.error(Messages.Unity3d_InvalidParamPlayerSizeBudgets(value));
+            }
+        }
+
+        public FormValidation doCheckInactivityTimeouts(@QueryParameter String value) {
+            try {
+                toInactivityTimeouts(value);
+                return FormValidation.ok();
+            } catch (RuntimeException re) {
+                return FormValidation.error(Messages.Unity3d_InvalidParamInactivityTimeouts(value));
+            }
+        }
+
+        public FormValidation doCheckFatalSignatures(@QueryParameter String value) {
+            try {
+                toFatalSignatures(value);
+                return FormValidation.ok();
+            } catch (IllegalArgumentException e) {
+                return FormValidation.error(Messages.Unity3d_InvalidParamFatalSignatures(e.getMessage()));
+            }
+        }
+
+        public FormValidation doCheckMemoryPerEditor(@QueryParameter String value) {
+            try {
+                if (Util.fixEmptyAndTrim(value) != null) PlayerSizeStatistics.parseSize(value);
+                return FormValidation.ok();
+            } catch (RuntimeException re) {
+                return FormValidation.error(Messages.Unity3d_InvalidParamMemoryPerEditor(value));
+            }
+        }
+
+        public FormValidation doCheckLibraryCacheSize(@QueryParameter String value) {
+            try {
+                if (Util.fixEmptyAndTrim(value) != null) PlayerSizeStatistics.parseSize(value);
+                return FormValidation.ok();
+            } catch (RuntimeException re) {
+                return FormValidation.error(Messages.Unity3d_InvalidParamLibraryCacheSize(value));
+            }
+        }
+
         public String getGlobalArgLine() {
             return globalArgLine;
         }
 
+        /**
+         * @return how many Unity3d Editors a node may run at once, or 0 for no limit
+         */
+        public int getMaxEditorsPerNode() {
+            return maxEditorsPerNode;
+        }
+
+        /**
+         * @return the memory to reserve for each Unity3d Editor, e.g. "8gb", or null to not reserve any
+         */
+        public String getMemoryPerEditor() {
+            return memoryPerEditor;
+        }
+
+        /**
+         * @return the maximum size of the Library cache of each node, e.g. "100gb", or null for the default
+         */
+        public String getLibraryCacheSize() {
+            return libraryCacheSize;
+        }
+
+        long getLibraryCacheSizeBytes() {
+            try {
+                return libraryCacheSize == null
+                        ? DEFAULT_LIBRARY_CACHE_SIZE
+                        : PlayerSizeStatistics.parseSize(libraryCacheSize);
+            } catch (IllegalArgumentException e) {
+                log.warning("Ignoring the invalid Library cache size: " + libraryCacheSize);
+                return DEFAULT_LIBRARY_CACHE_SIZE;
+            }
+        }
+
+        long getMemoryPerEditorBytes() {
+            try {
+                return memoryPerEditor == null ? 0 : PlayerSizeStatistics.parseSize(memoryPerEditor);
+            } catch (IllegalArgumentException e) {
+                log.warning("Ignoring the invalid memory per Unity3d Editor: " + memoryPerEditor);
+                return 0;
+            }
+        }
+
         public void setGlobalArgLine(String globalArgLine) {
             // log.info("setGlobalArgLine: " + globalArgLine);
             this.globalArgLine = globalArgLine;
@@ -336,6 +1423,9 @@ public class Unity3dBuilder extends Builder {
         @Override
         public boolean configure(StaplerRequest2 req, JSONObject o) {
             globalArgLine = Util.fixEmptyAndTrim(o.getString("globalArgLine"));
+            maxEditorsPerNode = Math.max(0, o.optInt("maxEditorsPerNode", 0));
+            memoryPerEditor = Util.fixEmptyAndTrim(o.optString("memoryPerEditor"));
+            libraryCacheSize = Util.fixEmptyAndTrim(o.optString("libraryCacheSize"));
             save();
 
             return true;
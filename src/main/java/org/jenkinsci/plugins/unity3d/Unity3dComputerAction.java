@@ -0,0 +1,59 @@
+package org.jenkinsci.plugins.unity3d;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import hudson.Extension;
+import hudson.Util;
+import hudson.model.Action;
+import hudson.model.Computer;
+import hudson.model.TransientComputerActionFactory;
+import java.util.Collection;
+import java.util.Collections;
+
+/**
+ * The Unity3d Editors of a build node, and how long their launches waited for the {@link Unity3dGovernor} to admit
+ * them.
+ */
+public class Unity3dComputerAction implements Action {
+    private final Computer computer;
+
+    public Unity3dComputerAction(Computer computer) {
+        this.computer = computer;
+    }
+
+    public String getIconFileName() {
+        // only once the node ran Unity3d
+        return getStatistics() == null ? null : "symbol-computer";
+    }
+
+    public String getDisplayName() {
+        return Messages.Unity3d_ComputerAction_DisplayName();
+    }
+
+    public String getUrlName() {
+        return "unity3d";
+    }
+
+    public Computer getComputer() {
+        return computer;
+    }
+
+    /**
+     * @return the state of the node, or null if it never ran a Unity3d Editor
+     */
+    public Unity3dGovernor.Statistics getStatistics() {
+        return Unity3dGovernor.get().getStatistics(computer.getName());
+    }
+
+    public String format(long millis) {
+        return Util.getTimeSpanString(millis);
+    }
+
+    @Extension
+    public static class Factory extends TransientComputerActionFactory {
+        @Override
+        @NonNull
+        public Collection<? extends Action> createFor(@NonNull Computer target) {
+            return Collections.singleton(new Unity3dComputerAction(target));
+        }
+    }
+}
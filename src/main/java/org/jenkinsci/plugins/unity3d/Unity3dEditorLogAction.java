@@ -0,0 +1,205 @@
+package org.jenkinsci.plugins.unity3d;
+
+import hudson.model.Run;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import jenkins.model.RunAction2;
+import org.jenkinsci.plugins.unity3d.io.EditorLogArchive;
+import org.jenkinsci.plugins.unity3d.logs.EditorLogPhases.Phase;
+import org.kohsuke.stapler.QueryParameter;
+import org.kohsuke.stapler.StaplerResponse2;
+import org.kohsuke.stapler.verb.GET;
+
+/**
+ * The Editor.logs of the Unity3d builds of a run, archived in the run directory as {@link EditorLogArchive}s.
+ * <p>
+ * The page lists the phases of each Editor.log, and shows the lines of a log from any line or phase without
+ * decompressing the whole log.
+ */
+public class Unity3dEditorLogAction implements RunAction2 {
+    static final String DIR = "unity3d-editorlog";
+    static final int DEFAULT_LINES = 1000;
+    static final int MAX_LINES = 10000;
+
+    private final List<Archive> archives = new ArrayList<>();
+    private transient Run<?, ?> run;
+
+    public String getIconFileName() {
+        return "symbol-terminal";
+    }
+
+    public String getDisplayName() {
+        return Messages.Unity3d_EditorLogAction_DisplayName();
+    }
+
+    public String getUrlName() {
+        return "unity3d-editor-log";
+    }
+
+    public void onAttached(Run<?, ?> r) {
+        this.run = r;
+    }
+
+    public void onLoad(Run<?, ?> r) {
+        this.run = r;
+    }
+
+    public Run<?, ?> getRun() {
+        return run;
+    }
+
+    synchronized void add(Archive archive) {
+        archives.add(archive);
+    }
+
+    public synchronized List<Archive> getArchives() {
+        return Collections.unmodifiableList(new ArrayList<>(archives));
+    }
+
+    /**
+     * @return where the archive of the given launch is stored in the run directory
+     */
+    static File getFile(Run<?, ?> run, String id) {
+        return new File(new File(run.getRootDir(), DIR), id + ".log.gz");
+    }
+
+    /**
+     * Show lines of an Editor.log as plain text.
+     *
+     * @param archive the index of the archive
+     * @param line the first line to show, from 1
+     * @param count how many lines to show, {@link #DEFAULT_LINES} if not given
+     */
+    @GET
+    public void doLines(
+            StaplerResponse2 rsp,
+            @QueryParameter int archive,
+            @QueryParameter long line,
+            @QueryParameter int count)
+            throws IOException {
+        Path file = getArchiveFile(archive);
+        if (file == null) {
+            rsp.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        int max = count <= 0 ? DEFAULT_LINES : Math.min(count, MAX_LINES);
+        List<String> lines;
+        try (EditorLogArchive.Reader reader = new EditorLogArchive.Reader(file)) {
+            lines = reader.readLines(Math.max(line, 1) - 1, max);
+        }
+        rsp.setContentType("text/plain;charset=UTF-8");
+        PrintWriter w = rsp.getWriter();
+        for (String l : lines) w.println(l);
+        w.flush();
+    }
+
+    /**
+     * Download a whole Editor.log archive, a plain gzip file.
+     */
+    @GET
+    public void doDownload(StaplerResponse2 rsp, @QueryParameter int archive) throws IOException {
+        Path file = getArchiveFile(archive);
+        if (file == null) {
+            rsp.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        rsp.setContentType("application/gzip");
+        String name = "Editor-" + run.getNumber() + "-" + archive + ".log.gz";
+        rsp.setHeader("Content-Disposition", "attachment; filename=" + name);
+        try (OutputStream out = rsp.getOutputStream()) {
+            Files.copy(file, out);
+        }
+    }
+
+    private synchronized Path getArchiveFile(int index) {
+        if (index < 0 || index >= archives.size()) return null;
+        Path file = getFile(run, archives.get(index).getId()).toPath();
+        return Files.exists(file) ? file : null;
+    }
+
+    /**
+     * The Editor.log of a Unity3d launch.
+     */
+    public static final class Archive {
+        private final String id;
+        private final String name;
+        private final long lines;
+        private final long bytes;
+        private final long compressedBytes;
+        private final List<Mark> marks;
+
+        Archive(String id, String name, long lines, long bytes, long compressedBytes, List<Mark> marks) {
+            this.id = id;
+            this.name = name;
+            this.lines = lines;
+            this.bytes = bytes;
+            this.compressedBytes = compressedBytes;
+            this.marks = new ArrayList<>(marks);
+        }
+
+        public String getId() {
+            return id;
+        }
+
+        /**
+         * @return the project Unity3d built
+         */
+        public String getName() {
+            return name;
+        }
+
+        public long getLines() {
+            return lines;
+        }
+
+        public long getBytes() {
+            return bytes;
+        }
+
+        public long getCompressedBytes() {
+            return compressedBytes;
+        }
+
+        public List<Mark> getMarks() {
+            return Collections.unmodifiableList(marks);
+        }
+    }
+
+    /**
+     * Where a phase of an Editor.log starts.
+     */
+    public static final class Mark {
+        private final String label;
+        private final int depth;
+        private final long line;
+
+        Mark(Phase phase) {
+            this.label = phase.getLabel();
+            this.depth = phase.getDepth();
+            this.line = phase.getLine();
+        }
+
+        public String getLabel() {
+            return label;
+        }
+
+        public int getDepth() {
+            return depth;
+        }
+
+        /**
+         * @return the line the phase starts at, from 1
+         */
+        public long getLine() {
+            return line + 1;
+        }
+    }
+}
@@ -0,0 +1,265 @@
+package org.jenkinsci.plugins.unity3d;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.LongSupplier;
+
+/**
+ * Admits the Unity3d launches of each build node, so that a node with many executors doesn't start more Unity3d
+ * Editors than it can run.
+ * <p>
+ * A launch is admitted when the node runs less than the maximum number of editors, when the memory reserved by the
+ * running editors leaves enough room for one more, and when no editor of the node has the same project open, as two
+ * editors would fight over its lock. The launches waiting for a project only wait for that project; the others are
+ * admitted in the order they were requested, so a launch can't be overtaken forever. An editor alone on its node is
+ * always admitted, whatever memory it needs.
+ * <p>
+ * The node states only live in memory: they are lost on restart, along with the Unity3d steps that can't be resumed.
+ */
+public final class Unity3dGovernor {
+    private static final Unity3dGovernor INSTANCE = new Unity3dGovernor(System::currentTimeMillis);
+
+    private final LongSupplier clock;
+    private final Map<String, NodeState> nodes = new HashMap<>();
+
+    Unity3dGovernor(LongSupplier clock) {
+        this.clock = clock;
+    }
+
+    public static Unity3dGovernor get() {
+        return INSTANCE;
+    }
+
+    /**
+     * Request to launch a Unity3d Editor.
+     *
+     * @param node the name of the build node
+     * @param maxEditors how many editors the node may run at once, or 0 for no limit
+     * @param totalMemory the physical memory of the node in bytes, or 0 if unknown
+     * @param memory the memory to reserve for this editor in bytes, or 0 to not reserve any
+     * @param projectPath the project the editor opens
+     * @return the permit to run the editor, once admitted. Cancelling it withdraws the request.
+     */
+    public CompletableFuture<Permit> acquire(
+            String node, int maxEditors, long totalMemory, long memory, String projectPath) {
+        Request request = new Request(node, maxEditors, totalMemory, memory, projectPath, clock.getAsLong());
+        List<Request> admitted;
+        synchronized (this) {
+            NodeState state = nodes.computeIfAbsent(node, n -> new NodeState());
+            state.queue.add(request);
+            admitted = dispatch(state);
+        }
+        complete(admitted);
+        request.future.whenComplete((permit, e) -> {
+            if (request.future.isCancelled()) withdraw(request);
+        });
+        return request.future;
+    }
+
+    /**
+     * @return the state of the node, or null if it never ran a Unity3d Editor
+     */
+    public synchronized Statistics getStatistics(String node) {
+        NodeState state = nodes.get(node);
+        return state == null ? null : new Statistics(state, clock.getAsLong());
+    }
+
+    private void withdraw(Request request) {
+        List<Request> admitted;
+        synchronized (this) {
+            NodeState state = nodes.get(request.node);
+            if (!state.queue.remove(request)) return;
+            // the first one in line may have held the others back
+            admitted = dispatch(state);
+        }
+        complete(admitted);
+    }
+
+    private void release(Permit permit) {
+        List<Request> admitted;
+        synchronized (this) {
+            NodeState state = nodes.get(permit.request.node);
+            state.running--;
+            state.reservedMemory -= permit.request.memory;
+            state.projects.remove(permit.request.projectPath);
+            admitted = dispatch(state);
+        }
+        complete(admitted);
+    }
+
+    /**
+     * Admit what can be from the queue of the node, in order.
+     */
+    private List<Request> dispatch(NodeState state) {
+        List<Request> admitted = new ArrayList<>();
+        for (Iterator<Request> it = state.queue.iterator(); it.hasNext(); ) {
+            Request request = it.next();
+            if (request.future.isDone()) {
+                // withdrawn
+                it.remove();
+                continue;
+            }
+            if (state.projects.contains(request.projectPath)) continue;
+            if (!state.hasRoomFor(request)) break;
+            it.remove();
+            state.running++;
+            state.reservedMemory += request.memory;
+            state.projects.add(request.projectPath);
+            long wait = clock.getAsLong() - request.queuedAt;
+            state.admitted++;
+            state.totalWaitMillis += wait;
+            state.maxWaitMillis = Math.max(state.maxWaitMillis, wait);
+            request.waitMillis = wait;
+            admitted.add(request);
+        }
+        return admitted;
+    }
+
+    /**
+     * Hand the permits out of the lock, as completing a future runs what depends on it.
+     */
+    private void complete(List<Request> admitted) {
+        for (Request request : admitted) {
+            Permit permit = new Permit(request);
+            if (!request.future.complete(permit)) {
+                // withdrawn meanwhile
+                permit.release();
+            }
+        }
+    }
+
+    private static final class Request {
+        private final String node;
+        private final int maxEditors;
+        private final long totalMemory;
+        private final long memory;
+        private final String projectPath;
+        private final long queuedAt;
+        private final CompletableFuture<Permit> future = new CompletableFuture<>();
+        private long waitMillis;
+
+        private Request(String node, int maxEditors, long totalMemory, long memory, String projectPath, long queuedAt) {
+            this.node = node;
+            this.maxEditors = maxEditors;
+            this.totalMemory = totalMemory;
+            this.memory = memory;
+            this.projectPath = projectPath;
+            this.queuedAt = queuedAt;
+        }
+    }
+
+    private static final class NodeState {
+        private final Deque<Request> queue = new ArrayDeque<>();
+        private final Set<String> projects = new HashSet<>();
+        private int running;
+        private long reservedMemory;
+
+        private long admitted;
+        private long totalWaitMillis;
+        private long maxWaitMillis;
+
+        private boolean hasRoomFor(Request request) {
+            if (running == 0) return true;
+            if (request.maxEditors > 0 && running >= request.maxEditors) return false;
+            return request.memory <= 0
+                    || request.totalMemory <= 0
+                    || reservedMemory + request.memory <= request.totalMemory;
+        }
+    }
+
+    /**
+     * The right to run a Unity3d Editor on a node, to release once it exited.
+     */
+    public final class Permit {
+        private final Request request;
+        private boolean released;
+
+        private Permit(Request request) {
+            this.request = request;
+        }
+
+        /**
+         * @return how long the launch waited to be admitted, in milliseconds
+         */
+        public long getWaitMillis() {
+            return request.waitMillis;
+        }
+
+        public void release() {
+            synchronized (this) {
+                if (released) return;
+                released = true;
+            }
+            Unity3dGovernor.this.release(this);
+        }
+    }
+
+    /**
+     * A snapshot of the Unity3d Editors of a node and of their admission.
+     */
+    public static final class Statistics {
+        private final int running;
+        private final int queued;
+        private final long reservedMemory;
+        private final long admitted;
+        private final long totalWaitMillis;
+        private final long maxWaitMillis;
+        private final long oldestQueuedMillis;
+
+        private Statistics(NodeState state, long now) {
+            this.running = state.running;
+            this.queued = state.queue.size();
+            this.reservedMemory = state.reservedMemory;
+            this.admitted = state.admitted;
+            this.totalWaitMillis = state.totalWaitMillis;
+            this.maxWaitMillis = state.maxWaitMillis;
+            Request oldest = state.queue.peek();
+            this.oldestQueuedMillis = oldest == null ? 0 : now - oldest.queuedAt;
+        }
+
+        public int getRunning() {
+            return running;
+        }
+
+        public int getQueued() {
+            return queued;
+        }
+
+        /**
+         * @return the memory reserved by the running editors, in bytes
+         */
+        public long getReservedMemory() {
+            return reservedMemory;
+        }
+
+        /**
+         * @return how many launches were admitted since the start of Jenkins
+         */
+        public long getAdmitted() {
+            return admitted;
+        }
+
+        public long getMeanWaitMillis() {
+            return admitted == 0 ? 0 : totalWaitMillis / admitted;
+        }
+
+        public long getMaxWaitMillis() {
+            return maxWaitMillis;
+        }
+
+        /**
+         * @return how long the first launch in line has been waiting, in milliseconds, or 0 if none is
+         */
+        public long getOldestQueuedMillis() {
+            return oldestQueuedMillis;
+        }
+    }
+}
@@ -10,6 +10,7 @@ import hudson.Util;
 import hudson.model.EnvironmentSpecific;
 import hudson.model.Node;
 import hudson.model.TaskListener;
+import hudson.remoting.VirtualChannel;
 import hudson.slaves.NodeSpecific;
 import hudson.tools.ToolDescriptor;
 import hudson.tools.ToolInstallation;
@@ -19,13 +20,34 @@ import hudson.util.FormValidation;
 import java.io.File;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.io.Serial;
+import java.io.Serializable;
+import java.lang.management.ManagementFactory;
+import java.lang.management.OperatingSystemMXBean;
+import java.nio.charset.Charset;
+import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Future;
+import java.util.function.LongSupplier;
 import java.util.logging.Logger;
 import jenkins.model.Jenkins;
 import jenkins.security.MasterToSlaveCallable;
+import org.apache.commons.io.output.TeeOutputStream;
+import org.jenkinsci.plugins.unity3d.io.DrainSignal;
+import org.jenkinsci.plugins.unity3d.io.EditorLogArchive;
 import org.jenkinsci.plugins.unity3d.io.PipeFileAfterModificationAction;
+import org.jenkinsci.plugins.unity3d.io.Syncable;
+import org.jenkinsci.plugins.unity3d.io.TailCheckpoint;
+import org.jenkinsci.plugins.unity3d.logs.ConsoleVerbosity;
+import org.jenkinsci.plugins.unity3d.logs.EditorLogActivity;
+import org.jenkinsci.plugins.unity3d.logs.EditorLogReport;
+import org.jenkinsci.plugins.unity3d.logs.Unity3dEditorLogAnnotator;
+import org.jenkinsci.plugins.unity3d.logs.Unity3dEditorLogNote;
 import org.kohsuke.stapler.DataBoundConstructor;
 import org.kohsuke.stapler.QueryParameter;
 
@@ -39,6 +61,13 @@ public class Unity3dInstallation extends ToolInstallation
 
     private static final Logger log = Logger.getLogger(Unity3dInstallation.class.getName());
 
+    /**
+     * The probes of the build nodes, per channel and Unity3d home. A node reconnecting gets a new channel, so it is
+     * probed again, and the probes of the old channel are dropped once it is garbage collected.
+     */
+    private static final Map<VirtualChannel, Map<String, AgentProbe>> PROBES =
+            Collections.synchronizedMap(new WeakHashMap<>());
+
     @DataBoundConstructor
     public Unity3dInstallation(final String name, final String home, final List<? extends ToolProperty<?>> properties) {
         super(name, home, properties);
@@ -64,11 +93,157 @@ public class Unity3dInstallation extends ToolInstallation
      */
     @SuppressFBWarnings("NP_NULL_ON_SOME_PATH_FROM_RETURN_VALUE")
     public String getExecutable(Launcher launcher) throws IOException, InterruptedException {
-        return launcher.getChannel().call(new MasterToSlaveCallable<String, IOException>() {
-            public String call() throws IOException {
-                return checkUnity3dExecutablePath(getHome());
+        return launcher.getChannel().call(new CheckExecutable(getHome()));
+    }
+
+    private static class CheckExecutable extends MasterToSlaveCallable<String, IOException> {
+        @Serial
+        private static final long serialVersionUID = 1L;
+        private final String home;
+
+        CheckExecutable(String home) {
+            this.home = home;
+        }
+
+        public String call() {
+            return checkUnity3dExecutablePath(home);
+        }
+    }
+
+    /**
+     * Find out in a single call what a build needs to know about the target system: the executable path and the default
+     * editor.log path.
+     * <p>
+     * The probes are cached per node connection and Unity3d home, unless the executable wasn't found.
+     */
+    @SuppressFBWarnings("NP_NULL_ON_SOME_PATH_FROM_RETURN_VALUE")
+    public AgentProbe probe(Launcher launcher) throws IOException, InterruptedException {
+        VirtualChannel channel = launcher.getChannel();
+        String home = getHome();
+        Map<String, AgentProbe> probes = PROBES.computeIfAbsent(channel, c -> new ConcurrentHashMap<>());
+        AgentProbe probe = probes.get(home);
+        if (probe == null) {
+            probe = channel.call(new Probe(home));
+            log.fine("Probed " + channel + ": " + probe);
+            if (probe.isExecutableFound()) probes.put(home, probe);
+        }
+        return probe;
+    }
+
+    /**
+     * What {@link #probe(Launcher)} found on the target system.
+     */
+    public static final class AgentProbe implements Serializable {
+        @Serial
+        private static final long serialVersionUID = 1L;
+
+        private final String home;
+        private final String executable;
+        private final boolean executableFound;
+        private final String editorLogPath;
+        private final String editorLogError;
+        private final String os;
+        private final long totalMemory;
+
+        AgentProbe(
+                String home,
+                String executable,
+                boolean executableFound,
+                String editorLogPath,
+                String editorLogError,
+                String os,
+                long totalMemory) {
+            this.home = home;
+            this.executable = executable;
+            this.executableFound = executableFound;
+            this.editorLogPath = editorLogPath;
+            this.editorLogError = editorLogError;
+            this.os = os;
+            this.totalMemory = totalMemory;
+        }
+
+        public String getExecutable() {
+            return executable;
+        }
+
+        public boolean isExecutableFound() {
+            return executableFound;
+        }
+
+        public String getInvalidInstallMessage() {
+            return new Unity3dExecutablePath(home, executable, executableFound).getInvalidInstallMessage();
+        }
+
+        /**
+         * @return the absolute path of the editor.log when no -logFile is given, or null if it couldn't be found
+         */
+        public String getEditorLogPath() {
+            return editorLogPath;
+        }
+
+        /**
+         * @return why the editor.log path couldn't be found, or null
+         */
+        public String getEditorLogError() {
+            return editorLogError;
+        }
+
+        /**
+         * @return the value of the os.name system property of the target system
+         */
+        public String getOs() {
+            return os;
+        }
+
+        /**
+         * @return the physical memory of the target system in bytes, or 0 if unknown
+         */
+        public long getTotalMemory() {
+            return totalMemory;
+        }
+
+        @Override
+        public String toString() {
+            return "executable=" + executable + (executableFound ? "" : " (not found)") + ", editorLogPath="
+                    + editorLogPath + ", os=" + os + ", totalMemory=" + totalMemory;
+        }
+    }
+
+    private static class Probe extends MasterToSlaveCallable<AgentProbe, IOException> {
+        @Serial
+        private static final long serialVersionUID = 1L;
+        private final String home;
+
+        Probe(String home) {
+            this.home = home;
+        }
+
+        public AgentProbe call() {
+            Unity3dExecutablePath install = Unity3dExecutablePath.check(home);
+            String editorLogPath = null;
+            String editorLogError = null;
+            try {
+                editorLogPath = getEditorLogFile(null).getAbsolutePath();
+            } catch (RuntimeException e) {
+                editorLogError = e.getMessage();
             }
-        });
+            return new AgentProbe(
+                    home,
+                    install.path,
+                    install.exists,
+                    editorLogPath,
+                    editorLogError,
+                    System.getProperty("os.name"),
+                    getTotalMemory());
+        }
+
+        private static long getTotalMemory() {
+            OperatingSystemMXBean os = ManagementFactory.getOperatingSystemMXBean();
+            if (os instanceof com.sun.management.OperatingSystemMXBean) {
+                return ((com.sun.management.OperatingSystemMXBean) os).getTotalMemorySize();
+            }
+            return 0;
+        }
     }
 
     static class Unity3dExecutablePath {
@@ -132,16 +307,262 @@ public class Unity3dInstallation extends ToolInstallation
      * @return the number of bytes read
      * @throws IOException
      */
-    @SuppressFBWarnings("NP_NULL_ON_SOME_PATH_FROM_RETURN_VALUE")
     public Future<Long> pipeEditorLog(final Launcher launcher, final String customLogFile, final OutputStream ros)
             throws IOException {
-        return launcher.getChannel().callAsync(new MasterToSlaveCallable<Long, IOException>() {
-            public Long call() throws IOException {
+        return pipeEditorLog(launcher, customLogFile, ros, null, null);
+    }
+
+    /**
+     * Create a long running task that pipes the Unity3d editor.log into the specified pipe, recording its progress in
+     * a checkpoint file on the remote machine.
+     * <p>
+     * If the checkpoint already records progress on the current editor.log, the piping resumes from there. This is
+     * what allows restarting the piping of a build after its agent reconnected.
+     * <p>
+     * Once Unity3d exited, call {@link #drainEditorLog(Launcher, String)} with the same drain id: the task then pipes
+     * the rest of the editor.log, closes the pipe and completes.
+     * @param launcher
+     * @param ros the output stream to write into
+     * @param checkpointPath the remote path of the checkpoint file, or null to not checkpoint
+     * @param drainId a unique identifier for this task, or null if it is only stopped by cancellation
+     * @return the number of bytes read
+     * @throws IOException
+     * @see TailCheckpoint
+     */
+    public Future<Long> pipeEditorLog(
+            final Launcher launcher,
+            final String customLogFile,
+            final OutputStream ros,
+            final String checkpointPath,
+            final String drainId)
+            throws IOException {
+        return pipeEditorLog(launcher, customLogFile, ros, true, checkpointPath, drainId);
+    }
+
+    /**
+     * Same as {@link #pipeEditorLog(Launcher, String, OutputStream, String, String)}, optionally leaving the output
+     * stream open once the editor.log was piped, e.g. when a local editor.log is piped straight into the console.
+     */
+    public Future<Long> pipeEditorLog(
+            final Launcher launcher,
+            final String customLogFile,
+            final OutputStream ros,
+            final boolean closeOut,
+            final String checkpointPath,
+            final String drainId)
+            throws IOException {
+        return pipeEditorLog(launcher, customLogFile, ros, closeOut, checkpointPath, drainId, null);
+    }
+
+    /**
+     * Same as {@link #pipeEditorLog(Launcher, String, OutputStream, boolean, String, String)}, also writing a
+     * compressed copy of the editor.log on the remote machine as it is piped.
+     * @param archivePath the remote path of the {@link EditorLogArchive}, or null to not archive. The archive is
+     *     complete once the task completed.
+     */
+    @SuppressFBWarnings("NP_NULL_ON_SOME_PATH_FROM_RETURN_VALUE")
+    public Future<Long> pipeEditorLog(
+            final Launcher launcher,
+            final String customLogFile,
+            final OutputStream ros,
+            final boolean closeOut,
+            final String checkpointPath,
+            final String drainId,
+            final String archivePath)
+            throws IOException {
+        return launcher.getChannel()
+                .callAsync(new PipeEditorLog(customLogFile, ros, closeOut, checkpointPath, drainId, archivePath));
+    }
+
+    private static class PipeEditorLog extends MasterToSlaveCallable<Long, IOException> {
+        @Serial
+        private static final long serialVersionUID = 1L;
+        private final String customLogFile;
+        private final OutputStream ros;
+        private final boolean closeOut;
+        private final String checkpointPath;
+        private final String drainId;
+        private final String archivePath;
+
+        PipeEditorLog(
+                String customLogFile,
+                OutputStream ros,
+                boolean closeOut,
+                String checkpointPath,
+                String drainId,
+                String archivePath) {
+            this.customLogFile = customLogFile;
+            this.ros = ros;
+            this.closeOut = closeOut;
+            this.checkpointPath = checkpointPath;
+            this.drainId = drainId;
+            this.archivePath = archivePath;
+        }
+
+        public Long call() throws IOException {
+            return pipe(ros);
+        }
+
+        /**
+         * @param out where to pipe the editor.log, {@link #ros} or a stream writing into it
+         */
+        long pipe(OutputStream out) throws IOException {
+            TailCheckpoint checkpoint = checkpointPath != null ? new TailCheckpoint(Paths.get(checkpointPath)) : null;
+            DrainSignal drain = drainId != null ? DrainSignal.forId(drainId) : null;
+            EditorLogArchive.Writer archive =
+                    archivePath != null ? new EditorLogArchive.Writer(Paths.get(archivePath)) : null;
+            if (archive != null) out = new ArchivingOutputStream(out, archive);
+            try {
                 return new PipeFileAfterModificationAction(
-                                getEditorLogFile(customLogFile).getAbsolutePath(), ros, true)
+                                getEditorLogFile(customLogFile).getAbsolutePath(), out, closeOut, checkpoint, drain)
                         .call();
+            } finally {
+                if (archive != null) archive.close();
+            }
+        }
+    }
+
+    /**
+     * Copies the editor.log into its archive as it is piped, syncing through to the pipe.
+     */
+    private static class ArchivingOutputStream extends TeeOutputStream implements Syncable {
+        private final OutputStream pipe;
+
+        ArchivingOutputStream(OutputStream pipe, OutputStream archive) {
+            super(pipe, archive);
+            this.pipe = pipe;
+        }
+
+        @Override
+        public long sync() throws IOException {
+            branch.flush();
+            return Syncable.sync(pipe);
+        }
+    }
+
+    /**
+     * Same as {@link #pipeEditorLog(Launcher, String, OutputStream, boolean, String, String, String)}, parsing the
+     * editor.log on the remote machine: only the console output the verbosity keeps, already annotated, goes through
+     * the pipe, and what the parsing found comes back once the task completed.
+     * @param ros the pipe to the console, closed once the editor.log was piped
+     * @param charset the name of the charset of the console
+     * @param fatalSignatures the regular expressions of the lines after which Unity3d is killed
+     * @return what was found in the editor.log
+     * @see EditorLogActivity
+     */
+    @SuppressFBWarnings("NP_NULL_ON_SOME_PATH_FROM_RETURN_VALUE")
+    public Future<EditorLogReport> parseEditorLog(
+            final Launcher launcher,
+            final String customLogFile,
+            final OutputStream ros,
+            final String checkpointPath,
+            final String drainId,
+            final String archivePath,
+            final String charset,
+            final ConsoleVerbosity verbosity,
+            final List<String> fatalSignatures)
+            throws IOException {
+        PipeEditorLog pipe = new PipeEditorLog(customLogFile, ros, true, checkpointPath, drainId, archivePath);
+        // encoding the notes needs Jenkins
+        byte[][] notes = Unity3dEditorLogNote.encodeAll();
+        return launcher.getChannel()
+                .callAsync(new ParseEditorLog(
+                        pipe, charset, verbosity, notes, new ArrayList<>(fatalSignatures), System.currentTimeMillis()));
+    }
+
+    private static class ParseEditorLog extends MasterToSlaveCallable<EditorLogReport, IOException> {
+        @Serial
+        private static final long serialVersionUID = 1L;
+        private final PipeEditorLog pipe;
+        private final String charset;
+        private final ConsoleVerbosity verbosity;
+        private final byte[][] notes;
+        private final ArrayList<String> fatalSignatures;
+        private final long controllerTime;
+
+        ParseEditorLog(
+                PipeEditorLog pipe,
+                String charset,
+                ConsoleVerbosity verbosity,
+                byte[][] notes,
+                ArrayList<String> fatalSignatures,
+                long controllerTime) {
+            this.pipe = pipe;
+            this.charset = charset;
+            this.verbosity = verbosity;
+            this.notes = notes;
+            this.fatalSignatures = fatalSignatures;
+            this.controllerTime = controllerTime;
+        }
+
+        public EditorLogReport call() throws IOException {
+            // the blocks are timed by the controller clock, like the rest of the build timeline
+            long offset = controllerTime - System.currentTimeMillis();
+            LongSupplier clock = () -> System.currentTimeMillis() + offset;
+            EditorLogReport report = new EditorLogReport();
+            EditorLogActivity activity = new EditorLogActivity(fatalSignatures);
+            EditorLogActivity.register(pipe.drainId, activity);
+            try {
+                pipe.pipe(new Unity3dEditorLogAnnotator(
+                        pipe.ros, Charset.forName(charset), verbosity, notes, clock, report.getListeners(activity)));
+            } finally {
+                EditorLogActivity.release(pipe.drainId, activity);
             }
-        });
+            report.getPhases().finish(clock.getAsLong());
+            return report;
+        }
+    }
+
+    /**
+     * Tell the task started by {@link #pipeEditorLog(Launcher, String, OutputStream, String, String)} that Unity3d
+     * exited, so that it pipes the rest of the editor.log and completes.
+     * @return false if the task isn't running, e.g. it didn't start yet, in which case the call has to be repeated, or
+     *     it is already done
+     */
+    @SuppressFBWarnings("NP_NULL_ON_SOME_PATH_FROM_RETURN_VALUE")
+    public boolean drainEditorLog(final Launcher launcher, final String drainId)
+            throws IOException, InterruptedException {
+        return launcher.getChannel().call(new DrainEditorLog(drainId));
+    }
+
+    private static class DrainEditorLog extends MasterToSlaveCallable<Boolean, IOException> {
+        @Serial
+        private static final long serialVersionUID = 1L;
+        private final String drainId;
+
+        DrainEditorLog(String drainId) {
+            this.drainId = drainId;
+        }
+
+        public Boolean call() {
+            return DrainSignal.request(drainId);
+        }
+    }
+
+    /**
+     * @param drainId the id given to the task piping the editor.log
+     * @return when the editor.log piped by the task last had a line, and which of its blocks are open, or null if the
+     *     task doesn't run
+     * @see EditorLogActivity
+     */
+    public EditorLogActivity.Snapshot getEditorLogActivity(final Launcher launcher, final String drainId)
+            throws IOException, InterruptedException {
+        return launcher.getChannel().call(new GetEditorLogActivity(drainId));
+    }
+
+    private static class GetEditorLogActivity
+            extends MasterToSlaveCallable<EditorLogActivity.Snapshot, IOException> {
+        @Serial
+        private static final long serialVersionUID = 1L;
+        private final String drainId;
+
+        GetEditorLogActivity(String drainId) {
+            this.drainId = drainId;
+        }
+
+        public EditorLogActivity.Snapshot call() {
+            return EditorLogActivity.snapshot(drainId);
+        }
     }
 
     /**
@@ -154,14 +575,24 @@ public class Unity3dInstallation extends ToolInstallation
     @SuppressFBWarnings("NP_NULL_ON_SOME_PATH_FROM_RETURN_VALUE")
     public String getEditorLogPath(final Launcher launcher, final String customLogFile)
             throws IOException, InterruptedException {
-        return launcher.getChannel().call(new MasterToSlaveCallable<String, IOException>() {
-            public String call() throws IOException {
-                return getEditorLogFile(customLogFile).getAbsolutePath();
-            }
-        });
+        return launcher.getChannel().call(new EditorLogPath(customLogFile));
+    }
+
+    private static class EditorLogPath extends MasterToSlaveCallable<String, IOException> {
+        @Serial
+        private static final long serialVersionUID = 1L;
+        private final String customLogFile;
+
+        EditorLogPath(String customLogFile) {
+            this.customLogFile = customLogFile;
+        }
+
+        public String call() {
+            return getEditorLogFile(customLogFile).getAbsolutePath();
+        }
     }
 
-    private File getEditorLogFile(String customLogFile) {
+    private static File getEditorLogFile(String customLogFile) {
         if (customLogFile != null) return new File(customLogFile);
 
         if (Functions.isWindows()) {
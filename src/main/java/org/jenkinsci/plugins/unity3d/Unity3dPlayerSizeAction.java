@@ -0,0 +1,50 @@
+package org.jenkinsci.plugins.unity3d;
+
+import hudson.model.Run;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import jenkins.model.RunAction2;
+import org.jenkinsci.plugins.unity3d.logs.PlayerSizeStatistics;
+
+/**
+ * The player size statistics of the Unity3d builds of a run.
+ * <p>
+ * Each Unity3d build step that built a player adds its statistics.
+ */
+public class Unity3dPlayerSizeAction implements RunAction2 {
+    private final List<PlayerSizeStatistics> players = new ArrayList<>();
+    private transient Run<?, ?> run;
+
+    public String getIconFileName() {
+        return "symbol-details";
+    }
+
+    public String getDisplayName() {
+        return Messages.Unity3d_PlayerSizeAction_DisplayName();
+    }
+
+    public String getUrlName() {
+        return "unity3d-player-size";
+    }
+
+    public void onAttached(Run<?, ?> r) {
+        this.run = r;
+    }
+
+    public void onLoad(Run<?, ?> r) {
+        this.run = r;
+    }
+
+    public Run<?, ?> getRun() {
+        return run;
+    }
+
+    synchronized void add(PlayerSizeStatistics statistics) {
+        players.add(statistics);
+    }
+
+    public synchronized List<PlayerSizeStatistics> getPlayers() {
+        return Collections.unmodifiableList(new ArrayList<>(players));
+    }
+}
@@ -0,0 +1,105 @@
+package org.jenkinsci.plugins.unity3d;
+
+import hudson.Launcher;
+import hudson.util.ProcessTree;
+import java.io.IOException;
+import java.io.Serial;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Map;
+import java.util.stream.Stream;
+import jenkins.security.MasterToSlaveCallable;
+
+/**
+ * The processes of a Unity3d launch on its build node: the editor and whatever it started, e.g. its shader compilers
+ * and licensing client.
+ * <p>
+ * The launch marks its processes with a {@link #LAUNCH_ID} environment variable, which they pass on to their own
+ * children, so that they can be found and killed together even when they were reparented.
+ */
+final class Unity3dProcessTree {
+    /**
+     * The environment variable holding the id of the launch.
+     */
+    static final String LAUNCH_ID = "UNITY3D_LAUNCH_ID";
+
+    private static final int MAX_THREADS = 500;
+
+    private Unity3dProcessTree() {}
+
+    /**
+     * Kill the processes of the given launch.
+     */
+    static void kill(Launcher launcher, String launchId) throws IOException, InterruptedException {
+        launcher.kill(Map.of(LAUNCH_ID, launchId));
+    }
+
+    /**
+     * Describe the processes of the given launch, as far as the build node tells: their command lines and, on Linux,
+     * the state of their threads and what they wait for, from /proc.
+     */
+    static String describe(Launcher launcher, String launchId) throws IOException, InterruptedException {
+        return launcher.getChannel().call(new Describe(launchId));
+    }
+
+    private static class Describe extends MasterToSlaveCallable<String, IOException> {
+        @Serial
+        private static final long serialVersionUID = 1L;
+        private final String launchId;
+
+        Describe(String launchId) {
+            this.launchId = launchId;
+        }
+
+        public String call() {
+            StringBuilder out = new StringBuilder();
+            Map<String, String> cookie = Map.of(LAUNCH_ID, launchId);
+            for (ProcessTree.OSProcess p : ProcessTree.get()) {
+                if (!p.hasMatchingEnvVars(cookie)) continue;
+                out.append(p.getPid()).append(' ').append(String.join(" ", p.getArguments())).append('\n');
+                describeProc(Paths.get("/proc", String.valueOf(p.getPid())), out);
+            }
+            return out.toString();
+        }
+
+        private static void describeProc(Path proc, StringBuilder out) {
+            if (!Files.isDirectory(proc)) return;
+            try {
+                for (String line : Files.readAllLines(proc.resolve("status"), StandardCharsets.UTF_8)) {
+                    if (line.startsWith("State:") || line.startsWith("Threads:") || line.startsWith("VmRSS:")) {
+                        out.append("    ").append(line.replace('\t', ' ')).append('\n');
+                    }
+                }
+                try (Stream<Path> tasks = Files.list(proc.resolve("task"))) {
+                    tasks.sorted().limit(MAX_THREADS).forEach(task -> describeThread(task, out));
+                }
+            } catch (IOException | RuntimeException e) {
+                // the process exited meanwhile, or its details can't be read
+                out.append("    ").append(e).append('\n');
+            }
+        }
+
+        private static void describeThread(Path task, StringBuilder out) {
+            try {
+                String stat = Files.readString(task.resolve("stat"), StandardCharsets.UTF_8);
+                // the thread name is in parentheses and may contain spaces, the state follows it
+                int end = stat.lastIndexOf(')');
+                String name = stat.substring(stat.indexOf('(') + 1, end);
+                String state = stat.substring(end + 2, end + 3);
+                String wchan = Files.readString(task.resolve("wchan"), StandardCharsets.UTF_8).trim();
+                out.append("    thread ")
+                        .append(task.getFileName())
+                        .append(' ')
+                        .append(name)
+                        .append(' ')
+                        .append(state)
+                        .append(wchan.isEmpty() || wchan.equals("0") ? "" : " in " + wchan)
+                        .append('\n');
+            } catch (IOException | RuntimeException e) {
+                // the thread exited meanwhile
+            }
+        }
+    }
+}
@@ -0,0 +1,343 @@
+package org.jenkinsci.plugins.unity3d;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import hudson.AbortException;
+import hudson.EnvVars;
+import hudson.Extension;
+import hudson.FilePath;
+import hudson.Launcher;
+import hudson.Util;
+import hudson.model.Computer;
+import hudson.model.Node;
+import hudson.model.Run;
+import hudson.model.TaskListener;
+import hudson.util.FormValidation;
+import hudson.util.ListBoxModel;
+import java.io.IOException;
+import java.io.Serial;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import jenkins.model.Jenkins;
+import jenkins.util.SystemProperties;
+import jenkins.util.Timer;
+import org.jenkinsci.Symbol;
+import org.jenkinsci.plugins.unity3d.logs.ConsoleVerbosity;
+import org.jenkinsci.plugins.workflow.steps.Step;
+import org.jenkinsci.plugins.workflow.steps.StepContext;
+import org.jenkinsci.plugins.workflow.steps.StepDescriptor;
+import org.jenkinsci.plugins.workflow.steps.StepExecution;
+import org.kohsuke.stapler.DataBoundConstructor;
+import org.kohsuke.stapler.DataBoundSetter;
+import org.kohsuke.stapler.QueryParameter;
+
+/**
+ * The unity3d Pipeline step, e.g.
+ * <pre>
+ * parallel android: {
+ *     node('unity') { unity3d unity3dName: 'Unity 2022', argLine: '-batchmode -quit -executeMethod Build.Android' }
+ * }, ios: {
+ *     node('unity') { unity3d unity3dName: 'Unity 2022', argLine: '-batchmode -quit -executeMethod Build.iOS' }
+ * }
+ * </pre>
+ * It runs Unity3d as the {@link Unity3dBuilder} does, with the same Editor.log piping and return codes handling.
+ * <p>
+ * The step execution is asynchronous: no thread waits for the {@link Unity3dGovernor} to admit it, nor for Unity3d to
+ * exit. A timer task checks every {@link #POLL_INTERVAL_MILLIS} msec whether it is still running, so the steps of
+ * parallel branches don't hold a controller thread each.
+ */
+public class Unity3dStep extends Step {
+    /**
+     * How often to check whether Unity3d exited.
+     */
+    static final long POLL_INTERVAL_MILLIS =
+            SystemProperties.getLong(Unity3dStep.class.getName() + ".pollIntervalMillis", 1000L);
+
+    private final String unity3dName;
+    private String argLine = "";
+    private String unstableReturnCodes = "";
+    private String playerSizeBudgets = "";
+    private boolean libraryCache;
+    private boolean archiveEditorLog;
+    private ConsoleVerbosity consoleVerbosity = ConsoleVerbosity.FULL;
+    private String inactivityTimeouts = "";
+    private String fatalSignatures = "";
+
+    @DataBoundConstructor
+    public Unity3dStep(String unity3dName) {
+        this.unity3dName = unity3dName;
+    }
+
+    public String getUnity3dName() {
+        return unity3dName;
+    }
+
+    public String getArgLine() {
+        return argLine;
+    }
+
+    @DataBoundSetter
+    public void setArgLine(String argLine) {
+        this.argLine = Util.fixNull(argLine);
+    }
+
+    public String getUnstableReturnCodes() {
+        return unstableReturnCodes;
+    }
+
+    @DataBoundSetter
+    public void setUnstableReturnCodes(String unstableReturnCodes) {
+        this.unstableReturnCodes = Util.fixNull(unstableReturnCodes);
+    }
+
+    public String getPlayerSizeBudgets() {
+        return playerSizeBudgets;
+    }
+
+    @DataBoundSetter
+    public void setPlayerSizeBudgets(String playerSizeBudgets) {
+        this.playerSizeBudgets = Util.fixNull(playerSizeBudgets);
+    }
+
+    public boolean isLibraryCache() {
+        return libraryCache;
+    }
+
+    @DataBoundSetter
+    public void setLibraryCache(boolean libraryCache) {
+        this.libraryCache = libraryCache;
+    }
+
+    public boolean isArchiveEditorLog() {
+        return archiveEditorLog;
+    }
+
+    @DataBoundSetter
+    public void setArchiveEditorLog(boolean archiveEditorLog) {
+        this.archiveEditorLog = archiveEditorLog;
+    }
+
+    public ConsoleVerbosity getConsoleVerbosity() {
+        return consoleVerbosity;
+    }
+
+    @DataBoundSetter
+    public void setConsoleVerbosity(ConsoleVerbosity consoleVerbosity) {
+        this.consoleVerbosity = consoleVerbosity != null ? consoleVerbosity : ConsoleVerbosity.FULL;
+    }
+
+    public String getInactivityTimeouts() {
+        return inactivityTimeouts;
+    }
+
+    @DataBoundSetter
+    public void setInactivityTimeouts(String inactivityTimeouts) {
+        this.inactivityTimeouts = Util.fixNull(inactivityTimeouts);
+    }
+
+    public String getFatalSignatures() {
+        return fatalSignatures;
+    }
+
+    @DataBoundSetter
+    public void setFatalSignatures(String fatalSignatures) {
+        this.fatalSignatures = Util.fixNull(fatalSignatures);
+    }
+
+    Unity3dBuilder toBuilder() {
+        Unity3dBuilder builder = new Unity3dBuilder(unity3dName, argLine, unstableReturnCodes);
+        builder.setPlayerSizeBudgets(playerSizeBudgets);
+        builder.setLibraryCache(libraryCache);
+        builder.setArchiveEditorLog(archiveEditorLog);
+        builder.setConsoleVerbosity(consoleVerbosity);
+        builder.setInactivityTimeouts(inactivityTimeouts);
+        builder.setFatalSignatures(fatalSignatures);
+        return builder;
+    }
+
+    @Override
+    public StepExecution start(StepContext context) {
+        return new Execution(context, toBuilder());
+    }
+
+    private static final class Execution extends StepExecution {
+        @Serial
+        private static final long serialVersionUID = 1L;
+
+        private static final Logger log = Logger.getLogger(Execution.class.getName());
+
+        private final transient Unity3dBuilder builder;
+        private transient volatile Unity3dBuilder.Launch launch;
+        private transient volatile CompletableFuture<Unity3dGovernor.Permit> admission;
+        private transient volatile Throwable stopCause;
+        private transient volatile ScheduledFuture<?> poll;
+        private final transient AtomicBoolean exited = new AtomicBoolean();
+
+        Execution(StepContext context, Unity3dBuilder builder) {
+            super(context);
+            this.builder = builder;
+        }
+
+        @Override
+        public boolean start() throws Exception {
+            StepContext context = getContext();
+            Computer computer = context.get(Computer.class);
+            Node node = computer.getNode();
+            if (node == null || computer.isOffline()) {
+                throw new AbortException(Messages.Unity3d_NodeOffline(computer.getDisplayName()));
+            }
+            Run<?, ?> run = context.get(Run.class);
+            FilePath workspace = context.get(FilePath.class);
+            EnvVars env = context.get(EnvVars.class);
+            Launcher launcher = context.get(Launcher.class);
+            TaskListener listener = context.get(TaskListener.class);
+            // preparing probes the node, which must not block the CPS VM thread
+            Computer.threadPoolForRemoting.submit(() -> prepare(run, workspace, node, env, launcher, listener));
+            return false;
+        }
+
+        private void prepare(
+                Run<?, ?> run, FilePath workspace, Node node, EnvVars env, Launcher launcher, TaskListener listener) {
+            try {
+                launch = builder.prepare(run, workspace, node, env, launcher, listener);
+            } catch (Unity3dBuilder.PerformException e) {
+                getContext().onFailure(stopCause != null ? stopCause : new AbortException(e.getMessage()));
+                return;
+            } catch (Exception e) {
+                getContext().onFailure(stopCause != null ? stopCause : e);
+                return;
+            }
+            synchronized (this) {
+                // stopped while preparing, the step already failed
+                if (stopCause != null) return;
+                // queued launches don't hold a thread either
+                admission = launch.requestAdmission();
+            }
+            admission.thenAcceptAsync(this::startLaunch, Computer.threadPoolForRemoting);
+        }
+
+        private void startLaunch(Unity3dGovernor.Permit permit) {
+            try {
+                launch.start(permit);
+                if (stopCause != null) launch.kill();
+            } catch (Exception e) {
+                getContext().onFailure(stopCause != null ? stopCause : e);
+                return;
+            }
+            long interval = POLL_INTERVAL_MILLIS;
+            poll = Timer.get().scheduleWithFixedDelay(this::poll, interval, interval, TimeUnit.MILLISECONDS);
+        }
+
+        /**
+         * Once Unity3d exited, finish the step on a pooled thread, as waiting for the end of the Editor.log may take
+         * a little while. Checking a remote Unity3d is a single call to the agent.
+         */
+        private void poll() {
+            try {
+                if (launch.isAlive()) return;
+            } catch (IOException | InterruptedException e) {
+                // the agent went away, the step fails when getting its return code
+                log.log(Level.FINE, "Unable to check whether Unity3d is still running", e);
+            }
+            if (exited.compareAndSet(false, true)) {
+                poll.cancel(false);
+                Computer.threadPoolForRemoting.submit(this::finish);
+            }
+        }
+
+        private void finish() {
+            StepContext context = getContext();
+            try {
+                // Unity3d exited, so this only waits for the end of the Editor.log
+                launch.join();
+                if (stopCause != null) {
+                    context.onFailure(stopCause);
+                } else {
+                    context.onSuccess(null);
+                }
+            } catch (Unity3dBuilder.PerformException e) {
+                context.onFailure(stopCause != null ? stopCause : new AbortException(e.getMessage()));
+            } catch (Exception e) {
+                context.onFailure(stopCause != null ? stopCause : e);
+            }
+        }
+
+        @Override
+        public void stop(@NonNull Throwable cause) throws Exception {
+            synchronized (this) {
+                stopCause = cause;
+                if (admission == null || admission.cancel(false)) {
+                    // not started
+                    getContext().onFailure(cause);
+                    return;
+                }
+            }
+            // the step completes once the Editor.log was piped. If Unity3d is being started, it is killed once it is.
+            if (launch.isStarted()) launch.kill();
+        }
+
+        @Override
+        public void onResume() {
+            getContext().onFailure(new AbortException(Messages.Unity3d_StepNotResumable()));
+        }
+
+        @Override
+        public String getStatus() {
+            if (admission == null) return "preparing Unity3d";
+            if (!admission.isDone()) return "waiting for a Unity3d slot";
+            return exited.get() ? "piping the end of the Editor.log" : "waiting for Unity3d to exit";
+        }
+    }
+
+    @Extension
+    @Symbol("unity3d")
+    public static class DescriptorImpl extends StepDescriptor {
+        @Override
+        public Set<? extends Class<?>> getRequiredContext() {
+            return Set.of(Run.class, FilePath.class, Computer.class, EnvVars.class, Launcher.class, TaskListener.class);
+        }
+
+        @Override
+        public String getFunctionName() {
+            return "unity3d";
+        }
+
+        @Override
+        @NonNull
+        public String getDisplayName() {
+            return "Invoke Unity3d Editor";
+        }
+
+        public ListBoxModel doFillUnity3dNameItems() {
+            ListBoxModel items = new ListBoxModel();
+            for (Unity3dInstallation i : getBuilderDescriptor().getInstallations()) {
+                items.add(i.getName());
+            }
+            return items;
+        }
+
+        public FormValidation doCheckUnstableReturnCodes(@QueryParameter String value) {
+            return getBuilderDescriptor().doCheckUnstableReturnCodes(value);
+        }
+
+        public FormValidation doCheckPlayerSizeBudgets(@QueryParameter String value) {
+            return getBuilderDescriptor().doCheckPlayerSizeBudgets(value);
+        }
+
+        public FormValidation doCheckInactivityTimeouts(@QueryParameter String value) {
+            return getBuilderDescriptor().doCheckInactivityTimeouts(value);
+        }
+
+        public FormValidation doCheckFatalSignatures(@QueryParameter String value) {
+            return getBuilderDescriptor().doCheckFatalSignatures(value);
+        }
+
+        private static Unity3dBuilder.DescriptorImpl getBuilderDescriptor() {
+            return Jenkins.get().getDescriptorByType(Unity3dBuilder.DescriptorImpl.class);
+        }
+    }
+}
@@ -0,0 +1,181 @@
+package org.jenkinsci.plugins.unity3d;
+
+import hudson.Util;
+import hudson.model.Run;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import jenkins.model.RunAction2;
+import org.jenkinsci.plugins.unity3d.logs.EditorLogPhases.Phase;
+
+/**
+ * The phases of the Unity3d builds of a run, shown as a timeline on the build page.
+ * <p>
+ * Each Unity3d build step adds the phases found in its Editor.log.
+ */
+public class Unity3dTimelineAction implements RunAction2 {
+    private final List<Phase> phases = new ArrayList<>();
+    private transient Run<?, ?> run;
+
+    public String getIconFileName() {
+        return "symbol-analytics";
+    }
+
+    public String getDisplayName() {
+        return Messages.Unity3d_TimelineAction_DisplayName();
+    }
+
+    public String getUrlName() {
+        return "unity3d-timeline";
+    }
+
+    public void onAttached(Run<?, ?> r) {
+        this.run = r;
+    }
+
+    public void onLoad(Run<?, ?> r) {
+        this.run = r;
+    }
+
+    public Run<?, ?> getRun() {
+        return run;
+    }
+
+    synchronized void addPhases(List<Phase> phases) {
+        this.phases.addAll(phases);
+    }
+
+    public synchronized List<Phase> getPhases() {
+        return Collections.unmodifiableList(new ArrayList<>(phases));
+    }
+
+    /**
+     * @return when the first phase started, in milliseconds since the epoch
+     */
+    public synchronized long getStart() {
+        long start = Long.MAX_VALUE;
+        for (Phase phase : phases) start = Math.min(start, phase.getStart());
+        return phases.isEmpty() ? 0 : start;
+    }
+
+    /**
+     * @return when the last phase finished, in milliseconds since the epoch
+     */
+    public synchronized long getEnd() {
+        long end = 0;
+        for (Phase phase : phases) end = Math.max(end, phase.getEnd());
+        return end;
+    }
+
+    /**
+     * @return the phases, placed on the timeline
+     */
+    public synchronized List<Row> getRows() {
+        long start = getStart();
+        long total = getEnd() - start;
+        List<Row> rows = new ArrayList<>(phases.size());
+        for (Phase phase : phases) rows.add(new Row(phase, start, total));
+        return rows;
+    }
+
+    /**
+     * @return the time spent in each kind of block, the longest first. Nested blocks count in their parent's time too.
+     */
+    public synchronized List<Total> getTotals() {
+        Map<String, Total> totals = new LinkedHashMap<>();
+        for (Phase phase : phases) {
+            totals.computeIfAbsent(phase.getName(), Total::new).add(phase);
+        }
+        List<Total> sorted = new ArrayList<>(totals.values());
+        sorted.sort(Comparator.comparingLong(Total::getDuration).reversed());
+        return sorted;
+    }
+
+    /**
+     * A phase on the timeline, relative to when the first phase started.
+     */
+    public static final class Row {
+        private final Phase phase;
+        private final long start;
+        private final long total;
+
+        Row(Phase phase, long start, long total) {
+            this.phase = phase;
+            this.start = start;
+            this.total = total;
+        }
+
+        public Phase getPhase() {
+            return phase;
+        }
+
+        /**
+         * @return where the phase starts on the timeline, in percent
+         */
+        public String getOffset() {
+            return percent(phase.getStart() - start);
+        }
+
+        /**
+         * @return the length of the phase on the timeline, in percent
+         */
+        public String getWidth() {
+            return percent(phase.getDuration());
+        }
+
+        private String percent(long duration) {
+            double percent = total <= 0 ? 0 : 100.0 * duration / total;
+            return String.format(Locale.ROOT, "%.3f", percent);
+        }
+
+        public String getStartString() {
+            return Util.getTimeSpanString(phase.getStart() - start);
+        }
+
+        public String getDurationString() {
+            return Util.getTimeSpanString(phase.getDuration());
+        }
+
+        /**
+         * @return the CSS class of the phase, after the name of its block, e.g. "unity3d-phase-prepare-build"
+         */
+        public String getCssClass() {
+            return "unity3d-phase-" + phase.getName().toLowerCase(Locale.ROOT).replaceAll("[^a-z0-9]+", "-");
+        }
+    }
+
+    public static final class Total {
+        private final String name;
+        private int count;
+        private long duration;
+
+        Total(String name) {
+            this.name = name;
+        }
+
+        void add(Phase phase) {
+            count++;
+            duration += phase.getDuration();
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public int getCount() {
+            return count;
+        }
+
+        public long getDuration() {
+            return duration;
+        }
+
+        public String getDurationString() {
+            return Util.getTimeSpanString(duration);
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package org.jenkinsci.plugins.unity3d.io;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Coalesces small writes into batches of up to a given size before passing them on.
+ * <p>
+ * Meant to sit in front of a remote stream, where each write becomes a remoting command. A batch is sent when the
+ * buffer is full, and on {@link #flush()} only if its oldest byte has been waiting for at least the configured time
+ * window. Writers are expected to call {@link #flush()} regularly, which is what bounds the latency.
+ * {@link #sync()} and {@link #close()} always send what is left.
+ */
+class BatchingOutputStream extends FilterOutputStream implements Syncable {
+    private final byte[] buf;
+    private final long windowNanos;
+    private int count;
+    private long firstBufferedAt;
+
+    BatchingOutputStream(OutputStream out, int batchSize, long windowMillis) {
+        super(out);
+        this.buf = new byte[batchSize];
+        this.windowNanos = windowMillis * 1_000_000L;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        if (count == buf.length) sendBatch();
+        if (count == 0) firstBufferedAt = System.nanoTime();
+        buf[count++] = (byte) b;
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        if (len >= buf.length) {
+            // too big to be coalesced, send it as its own batch
+            sendBatch();
+            out.write(b, off, len);
+            return;
+        }
+        if (len > buf.length - count) sendBatch();
+        if (count == 0) firstBufferedAt = System.nanoTime();
+        System.arraycopy(b, off, buf, count, len);
+        count += len;
+    }
+
+    /**
+     * Send the pending batch if it has been waiting for longer than the time window.
+     */
+    @Override
+    public void flush() throws IOException {
+        if (count > 0 && System.nanoTime() - firstBufferedAt >= windowNanos) sendBatch();
+    }
+
+    /**
+     * Send the pending batch, however long it has been waiting.
+     */
+    @Override
+    public long sync() throws IOException {
+        sendBatch();
+        return Syncable.sync(out);
+    }
+
+    private void sendBatch() throws IOException {
+        if (count > 0) {
+            out.write(buf, 0, count);
+            count = 0;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            sendBatch();
+        } finally {
+            out.close();
+        }
+    }
+}
@@ -2,6 +2,7 @@ package org.jenkinsci.plugins.unity3d.io;
 
 import java.io.File;
 import java.io.FileNotFoundException;
+import java.nio.file.Paths;
 import java.util.concurrent.Callable;
 
 /**
@@ -9,7 +10,9 @@ import java.util.concurrent.Callable;
  * <p>
  * The task checks for changes in either the last modified timestamp (precise up to the second) or the file size to detect a change.
  * <p>
- * The task cannot currently be stopped, and its time between checks is hardcoded (50 msec).
+ * The task only wakes up when the platform signals a change in the file's directory (see {@link FileChangeWatcher}),
+ * and falls back to checking every 50 msec where this isn't supported. Interrupt the task to cancel it, or request
+ * its {@link DrainSignal} to have it return after a last check.
  *
  * @author Jerome Lacoste
  */
@@ -18,26 +21,39 @@ public class DetectFileModifiedAction implements Callable<File> {
     private long origLastModified;
     private long origSize;
     private boolean origExists;
-    private final int timeoutBetweenChecks;
+    private final DrainSignal drain;
 
     public DetectFileModifiedAction(String path) {
+        this(path, null);
+    }
+
+    /**
+     * @param drain if not null, makes the task stop waiting once requested. It then returns the file if it was
+     *              modified, null otherwise
+     */
+    public DetectFileModifiedAction(String path, DrainSignal drain) {
         this.path = path;
+        this.drain = drain;
         File orig = new File(path);
         origExists = orig.exists();
         origLastModified = origExists ? orig.lastModified() : 0;
         origSize = origExists ? orig.length() : -1;
-        timeoutBetweenChecks = 50;
     }
 
     public File call() throws FileNotFoundException {
-        while (true) {
-            File file = new File(path);
-            if (hasChanged(file)) {
-                return file;
-            }
-            synchronized (this) {
+        try (FileChangeWatcher watcher = new FileChangeWatcher(Paths.get(path))) {
+            if (drain != null) drain.attach(watcher);
+            while (true) {
+                boolean last = drain != null && drain.isRequested();
+                File file = new File(path);
+                if (hasChanged(file)) {
+                    return file;
+                }
+                if (last) {
+                    return null;
+                }
                 try {
-                    wait(timeoutBetweenChecks);
+                    watcher.await();
                 } catch (InterruptedException e) {
                     return null;
                 }
@@ -0,0 +1,69 @@
+package org.jenkinsci.plugins.unity3d.io;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Asks a running {@link PipeFileAfterModificationAction} to copy what is left of its file, close its output and
+ * finish.
+ * <p>
+ * The controller reaches the piping task through a separate remoting call, so signals are looked up by id in a
+ * registry of the JVM running the task. Only the task registers its signal, so that a request arriving once the task
+ * is done leaves nothing behind: a request arriving before the task started has to be repeated.
+ */
+public final class DrainSignal {
+    private static final ConcurrentMap<String, DrainSignal> signals = new ConcurrentHashMap<>();
+
+    private final String id;
+    private volatile boolean requested;
+    private volatile FileChangeWatcher watcher;
+
+    private DrainSignal(String id) {
+        this.id = id;
+    }
+
+    /**
+     * @return the signal of the task with the given id, registered until {@link #release()}. For the task only.
+     */
+    public static DrainSignal forId(String id) {
+        return signals.computeIfAbsent(id, DrainSignal::new);
+    }
+
+    /**
+     * Request the drain of the task identified by the given id.
+     *
+     * @return false if the task isn't running in this JVM, e.g. it didn't start yet or is already done
+     */
+    public static boolean request(String id) {
+        DrainSignal signal = signals.get(id);
+        if (signal == null) return false;
+        signal.request();
+        return true;
+    }
+
+    public void request() {
+        requested = true;
+        FileChangeWatcher w = watcher;
+        if (w != null) w.wakeup();
+    }
+
+    boolean isRequested() {
+        return requested;
+    }
+
+    /**
+     * Wake up the given watcher when the drain is requested.
+     */
+    void attach(FileChangeWatcher watcher) {
+        this.watcher = watcher;
+        if (requested) watcher.wakeup();
+    }
+
+    /**
+     * Forget this signal, once the task it was created for is done.
+     */
+    void release() {
+        watcher = null;
+        signals.remove(id, this);
+    }
+}
@@ -0,0 +1,332 @@
+package org.jenkinsci.plugins.unity3d.io;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * A compressed copy of an Editor.log which can be read from any line without decompressing what comes before.
+ * <p>
+ * The log is cut into blocks of about {@link #BLOCK_SIZE} bytes, at line ends when possible, and each block is
+ * compressed on its own as a gzip member. The blocks are appended to the archive, which as a whole is still a valid
+ * gzip file. An index file next to it, written once the archive is complete, records where each block starts in the
+ * archive and which line it starts in, so that a reader only decompresses the blocks holding the lines it wants.
+ */
+public final class EditorLogArchive {
+    private static final Logger log = Logger.getLogger(EditorLogArchive.class.getName());
+
+    static final int BLOCK_SIZE = 256 * 1024;
+    private static final int MAGIC = 0x55334c47;
+    private static final int VERSION = 1;
+
+    private EditorLogArchive() {}
+
+    /**
+     * @return the index of the given archive
+     */
+    public static Path indexOf(Path archive) {
+        return Paths.get(archive + ".idx");
+    }
+
+    private static final class BlockInfo {
+        private final long offset;
+        private final int compressedLength;
+        private final int length;
+        private final long firstLine;
+        private final boolean startsLine;
+
+        private BlockInfo(long offset, int compressedLength, int length, long firstLine, boolean startsLine) {
+            this.offset = offset;
+            this.compressedLength = compressedLength;
+            this.length = length;
+            this.firstLine = firstLine;
+            this.startsLine = startsLine;
+        }
+
+        /**
+         * @return the order of the block by where it starts: at the beginning of its first line, or in the middle of it
+         */
+        private long key() {
+            return firstLine * 2 + (startsLine ? 0 : 1);
+        }
+    }
+
+    /**
+     * Writes an archive, as the data is written to it.
+     * <p>
+     * Archiving is best-effort: the writer never throws, but stops archiving and deletes what it wrote on the first
+     * failure, so that it can sit next to the build console without ever failing the copy into it.
+     */
+    public static final class Writer extends OutputStream {
+        private final Path archive;
+        private final int blockSize;
+        private final List<BlockInfo> blocks = new ArrayList<>();
+        private OutputStream out;
+        private byte[] buffer;
+        private int count;
+        private long offset;
+        private long lines;
+        private long bytes;
+        private boolean atLineStart = true;
+        private boolean failed;
+        private boolean closed;
+
+        public Writer(Path archive) {
+            this(archive, BLOCK_SIZE);
+        }
+
+        Writer(Path archive, int blockSize) {
+            this.archive = archive;
+            this.blockSize = blockSize;
+            this.buffer = new byte[blockSize * 2];
+        }
+
+        @Override
+        public void write(int b) {
+            write(new byte[] {(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            if (failed || closed) return;
+            while (len > 0) {
+                if (count == buffer.length) {
+                    cut();
+                }
+                int n = Math.min(len, buffer.length - count);
+                System.arraycopy(b, off, buffer, count, n);
+                count += n;
+                off += n;
+                len -= n;
+                if (count >= blockSize) cut();
+            }
+        }
+
+        /**
+         * Compress the buffer up to its last line end, or all of it if the buffer is full of a single line.
+         */
+        private void cut() {
+            int end = count;
+            if (count < buffer.length) {
+                while (end > 0 && buffer[end - 1] != '\n') end--;
+                if (end == 0) return;
+            }
+            writeBlock(end);
+            System.arraycopy(buffer, end, buffer, 0, count - end);
+            count -= end;
+        }
+
+        private void writeBlock(int len) {
+            if (failed) return;
+            try {
+                if (out == null) {
+                    out = new BufferedOutputStream(Files.newOutputStream(archive));
+                }
+                ByteArrayOutputStream compressed = new ByteArrayOutputStream(len / 4);
+                try (GZIPOutputStream gz = new GZIPOutputStream(compressed, 8192)) {
+                    gz.write(buffer, 0, len);
+                }
+                compressed.writeTo(out);
+                blocks.add(new BlockInfo(offset, compressed.size(), len, lines, atLineStart));
+                offset += compressed.size();
+                bytes += len;
+                for (int i = 0; i < len; i++) {
+                    if (buffer[i] == '\n') lines++;
+                }
+                atLineStart = buffer[len - 1] == '\n';
+            } catch (IOException e) {
+                fail(e);
+            }
+        }
+
+        private void fail(IOException e) {
+            log.log(Level.WARNING, "Unable to archive the Editor.log into " + archive, e);
+            failed = true;
+            try {
+                if (out != null) out.close();
+                Files.deleteIfExists(archive);
+                Files.deleteIfExists(indexOf(archive));
+            } catch (IOException ignored) {
+                // nothing more to do
+            }
+        }
+
+        /**
+         * Compresses nothing: a block is only cut once full, however often the copy flushes.
+         */
+        @Override
+        public void flush() {}
+
+        /**
+         * Compress the rest of the data and write the index.
+         */
+        @Override
+        public void close() {
+            if (closed) return;
+            closed = true;
+            if (failed) return;
+            if (count > 0) writeBlock(count);
+            buffer = null;
+            if (failed) return;
+            try {
+                if (out != null) out.close();
+                else Files.write(archive, new byte[0]);
+                try (DataOutputStream index =
+                        new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(indexOf(archive))))) {
+                    index.writeInt(MAGIC);
+                    index.writeInt(VERSION);
+                    index.writeInt(blocks.size());
+                    index.writeLong(atLineStart ? lines : lines + 1);
+                    index.writeLong(bytes);
+                    for (BlockInfo block : blocks) {
+                        index.writeLong(block.offset);
+                        index.writeInt(block.compressedLength);
+                        index.writeInt(block.length);
+                        index.writeLong(block.firstLine);
+                        index.writeBoolean(block.startsLine);
+                    }
+                }
+            } catch (IOException e) {
+                fail(e);
+            }
+        }
+
+        /**
+         * @return false if archiving failed
+         */
+        public boolean isComplete() {
+            return closed && !failed;
+        }
+    }
+
+    /**
+     * Reads the lines of a complete archive.
+     */
+    public static final class Reader implements Closeable {
+        private final FileChannel channel;
+        private final List<BlockInfo> blocks = new ArrayList<>();
+        private final long lines;
+        private final long bytes;
+
+        public Reader(Path archive) throws IOException {
+            try (DataInputStream index =
+                    new DataInputStream(new BufferedInputStream(Files.newInputStream(indexOf(archive))))) {
+                if (index.readInt() != MAGIC || index.readInt() != VERSION) {
+                    throw new IOException("Not an Editor.log archive index: " + indexOf(archive));
+                }
+                int count = index.readInt();
+                lines = index.readLong();
+                bytes = index.readLong();
+                for (int i = 0; i < count; i++) {
+                    blocks.add(new BlockInfo(
+                            index.readLong(), index.readInt(), index.readInt(), index.readLong(), index.readBoolean()));
+                }
+            }
+            channel = FileChannel.open(archive, StandardOpenOption.READ);
+        }
+
+        public long getLines() {
+            return lines;
+        }
+
+        /**
+         * @return the size of the Editor.log, uncompressed
+         */
+        public long getBytes() {
+            return bytes;
+        }
+
+        public long getCompressedBytes() throws IOException {
+            return channel.size();
+        }
+
+        /**
+         * @param from the first line to read, from 0
+         * @param max the maximum number of lines to read
+         * @return the lines, without their line ends, fewer than asked for at the end of the log
+         */
+        public List<String> readLines(long from, int max) throws IOException {
+            if (from < 0) throw new IllegalArgumentException("Negative line: " + from);
+            List<String> result = new ArrayList<>();
+            int b = findBlock(from);
+            if (b < 0 || max <= 0) return result;
+
+            long skip = from - blocks.get(b).firstLine;
+            ByteArrayOutputStream line = new ByteArrayOutputStream();
+            for (; b < blocks.size() && result.size() < max; b++) {
+                byte[] data = readBlock(blocks.get(b));
+                for (int i = 0; i < data.length && result.size() < max; i++) {
+                    if (skip > 0) {
+                        if (data[i] == '\n') skip--;
+                    } else if (data[i] == '\n') {
+                        result.add(toLine(line));
+                        line.reset();
+                    } else {
+                        line.write(data[i]);
+                    }
+                }
+            }
+            // the last line of the log may have no line end
+            if (result.size() < max && line.size() > 0) result.add(toLine(line));
+            return result;
+        }
+
+        /**
+         * @return the last block starting before the given line or at its beginning, or -1 if past the end of the log
+         */
+        private int findBlock(long line) {
+            if (line >= lines) return -1;
+            int low = 0;
+            int high = blocks.size() - 1;
+            while (low < high) {
+                int mid = (low + high + 1) >>> 1;
+                if (blocks.get(mid).key() <= line * 2) low = mid;
+                else high = mid - 1;
+            }
+            return low;
+        }
+
+        private byte[] readBlock(BlockInfo block) throws IOException {
+            ByteBuffer compressed = ByteBuffer.allocate(block.compressedLength);
+            while (compressed.hasRemaining()) {
+                if (channel.read(compressed, block.offset + compressed.position()) < 0) {
+                    throw new IOException("Truncated Editor.log archive");
+                }
+            }
+            try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(compressed.array()))) {
+                return in.readNBytes(block.length);
+            }
+        }
+
+        private static String toLine(ByteArrayOutputStream line) {
+            byte[] b = line.toByteArray();
+            int len = b.length;
+            if (len > 0 && b[len - 1] == '\r') len--;
+            return new String(b, 0, len, StandardCharsets.UTF_8);
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package org.jenkinsci.plugins.unity3d.io;
+
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_DELETE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+import static java.nio.file.StandardWatchEventKinds.OVERFLOW;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Path;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Blocks until a given file might have been created, deleted or modified.
+ * <p>
+ * Uses a {@link WatchService} on the parent directory when the platform provides a native one (inotify on Linux,
+ * ReadDirectoryChangesW on Windows). The JDK polling implementation (used on macOS) only scans every few seconds,
+ * so it is not used and the watcher polls every {@link #POLL_MILLIS} msec instead, as the plugin always did.
+ * <p>
+ * Even when a native watch is active, {@link #await()} returns at least every {@link #MAX_WAIT_MILLIS} msec. Windows
+ * may delay notifications for a file that is kept open by its writer, and a watch is lost if the directory itself
+ * is deleted, so callers should always re-check the file when this method returns.
+ * <p>
+ * {@link #await()} is interruptible, which is how cancelling the task owning the watcher stops it. Another thread can
+ * also end the wait with {@link #wakeup()}.
+ */
+class FileChangeWatcher implements Closeable {
+    private static final Logger log = Logger.getLogger(FileChangeWatcher.class.getName());
+
+    static final long POLL_MILLIS = 50;
+    static final long MAX_WAIT_MILLIS = 500;
+
+    private final Path fileName;
+    private final Object lock = new Object();
+    private volatile WatchService watchService;
+    private volatile boolean woken;
+
+    FileChangeWatcher(Path file) {
+        Path absolute = file.toAbsolutePath();
+        this.fileName = absolute.getFileName();
+        this.watchService = register(absolute.getParent());
+    }
+
+    private static WatchService register(Path dir) {
+        if (dir == null) return null;
+        WatchService ws = null;
+        try {
+            ws = dir.getFileSystem().newWatchService();
+            if (ws.getClass().getName().endsWith("PollingWatchService")) {
+                closeQuietly(ws);
+                return null;
+            }
+            dir.register(ws, ENTRY_CREATE, ENTRY_MODIFY, ENTRY_DELETE);
+            return ws;
+        } catch (IOException | UnsupportedOperationException e) {
+            log.log(Level.FINE, "Unable to watch " + dir + ", reverting to polling", e);
+            closeQuietly(ws);
+            return null;
+        }
+    }
+
+    /**
+     * @return true if changes are signalled by the platform, false if the watcher is polling
+     */
+    boolean isWatching() {
+        return watchService != null;
+    }
+
+    /**
+     * Wait until the file might have changed.
+     *
+     * @return true if the platform signalled a change to the file, false if the wait timed out
+     * @throws InterruptedException if the waiting thread was interrupted
+     */
+    boolean await() throws InterruptedException {
+        if (woken) return true;
+        WatchService ws = watchService;
+        if (ws == null) {
+            synchronized (lock) {
+                if (!woken) lock.wait(POLL_MILLIS);
+            }
+            return woken;
+        }
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(MAX_WAIT_MILLIS);
+        while (true) {
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) return false;
+            WatchKey key;
+            try {
+                key = ws.poll(remaining, TimeUnit.NANOSECONDS);
+            } catch (ClosedWatchServiceException e) {
+                return woken;
+            }
+            if (key == null) return false;
+            boolean changed = false;
+            for (WatchEvent<?> event : key.pollEvents()) {
+                if (event.kind() == OVERFLOW || fileName.equals(event.context())) {
+                    changed = true;
+                }
+            }
+            if (!key.reset()) {
+                // the directory went away, we can't rely on the watch anymore
+                log.fine("Watch on the parent of " + fileName + " was cancelled, reverting to polling");
+                watchService = null;
+                closeQuietly(ws);
+                return true;
+            }
+            if (changed) return true;
+        }
+    }
+
+    /**
+     * Make the current and all future {@link #await()} calls return immediately.
+     */
+    void wakeup() {
+        woken = true;
+        synchronized (lock) {
+            lock.notifyAll();
+        }
+        // a blocked poll() is aborted when its watch service is closed
+        close();
+    }
+
+    @Override
+    public void close() {
+        WatchService ws = watchService;
+        watchService = null;
+        closeQuietly(ws);
+    }
+
+    private static void closeQuietly(Closeable c) {
+        if (c == null) return;
+        try {
+            c.close();
+        } catch (IOException ignore) {
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package org.jenkinsci.plugins.unity3d.io;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+
+/**
+ * Copies what gets appended to a file, keeping a single {@link FileChannel} open between copies.
+ * <p>
+ * The file identity (its {@link BasicFileAttributes#fileKey() file key}, i.e. device and inode on Unix, or its
+ * creation time where the platform has no file key) and its size are checked before each copy:
+ * <ul>
+ *  <li>if the file was recreated (e.g. Unity moving Editor.log to Editor-prev.log), the rest of the old file is copied
+ *  and the tail restarts from the beginning of the new one</li>
+ *  <li>if the file was truncated below the current position, the tail restarts from its beginning</li>
+ * </ul>
+ * The data is read into a single reusable buffer, whose array is written into the output as is: the annotator, the
+ * console or a pipe all need the bytes on the heap anyway. The file is opened through NIO which, unlike
+ * {@link java.io.RandomAccessFile}, lets other processes delete or rename it on Windows while it is open.
+ * <p>
+ * Not thread safe.
+ */
+class FileTail implements Closeable {
+    static final int BUFFER_SIZE = 64 * 1024;
+
+    private final Path path;
+    private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+    private FileChannel channel;
+    private String identity;
+    private long position;
+
+    FileTail(Path path) {
+        this(path, null, 0);
+    }
+
+    /**
+     * Create a tail resuming at the given position, provided the file is still the one with the given identity.
+     */
+    FileTail(Path path, String identity, long position) {
+        this.path = path;
+        this.identity = identity;
+        this.position = position;
+    }
+
+    /**
+     * @return the position in the current file up to which the content was copied
+     */
+    long getPosition() {
+        return position;
+    }
+
+    /**
+     * @return the identity of the file being tailed, or null if it wasn't opened yet
+     */
+    String getIdentity() {
+        return identity;
+    }
+
+    /**
+     * Copy everything appended to the file since the last call.
+     *
+     * @return the number of bytes copied
+     */
+    long copyTo(OutputStream out) throws IOException {
+        BasicFileAttributes attrs;
+        try {
+            attrs = Files.readAttributes(path, BasicFileAttributes.class);
+        } catch (NoSuchFileException e) {
+            // moved away or deleted: what was written before is still reachable through our channel
+            return channel != null ? copyRemaining(out) : 0;
+        }
+
+        long copied = 0;
+        String currentIdentity = identityOf(attrs);
+        if (!currentIdentity.equals(identity)) {
+            if (channel != null) {
+                copied += copyRemaining(out);
+                closeChannel();
+            }
+            if (identity != null) {
+                position = 0;
+            }
+            identity = currentIdentity;
+        }
+        if (channel == null) {
+            channel = FileChannel.open(path, StandardOpenOption.READ);
+        }
+        if (channel.size() < position) {
+            // truncated
+            position = 0;
+        }
+        return copied + copyUpTo(out, channel.size());
+    }
+
+    private long copyRemaining(OutputStream out) throws IOException {
+        return copyUpTo(out, channel.size());
+    }
+
+    private long copyUpTo(OutputStream out, long end) throws IOException {
+        long copied = 0;
+        while (position < end) {
+            buffer.clear();
+            if (end - position < buffer.capacity()) {
+                buffer.limit((int) (end - position));
+            }
+            int len = channel.read(buffer, position);
+            if (len <= 0) break;
+            out.write(buffer.array(), 0, len);
+            position += len;
+            copied += len;
+        }
+        return copied;
+    }
+
+    /**
+     * @return the identity of the file at the given path, or null if it doesn't exist
+     */
+    static String identityOf(Path path) throws IOException {
+        try {
+            return identityOf(Files.readAttributes(path, BasicFileAttributes.class));
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+    }
+
+    private static String identityOf(BasicFileAttributes attrs) {
+        Object key = attrs.fileKey();
+        return String.valueOf(key != null ? key : attrs.creationTime());
+    }
+
+    private void closeChannel() throws IOException {
+        try {
+            channel.close();
+        } finally {
+            channel = null;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (channel != null) closeChannel();
+    }
+}
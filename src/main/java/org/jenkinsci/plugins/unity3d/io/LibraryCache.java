@@ -0,0 +1,485 @@
+package org.jenkinsci.plugins.unity3d.io;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Serial;
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+
+/**
+ * A node-local cache of the Library folders of Unity projects, which Unity otherwise rebuilds by importing every asset
+ * again.
+ * <p>
+ * The cache is content-addressed: each file of a cached Library is stored once under the SHA-256 of its content, in
+ * {@code objects/}, whatever the entries it belongs to. An entry, in {@code entries/}, is the manifest of a Library:
+ * its files with their hash, size and modification time. Entries are named after a key computed from what decides
+ * the content of the Library, see {@link #key}, so a project whose packages changed gets a new entry that shares most
+ * of its objects with the previous one.
+ * <p>
+ * Saving is incremental: the files whose size and modification time match the entry are not read again, and only
+ * new contents are copied into the cache. When the objects take more than the maximum size, the least recently used
+ * entries are evicted along with the objects no other entry uses.
+ * <p>
+ * The builds of a node go through the same cache in its JVM, which serializes the evictions with the restores and
+ * saves. Only one JVM should use a cache directory.
+ */
+public class LibraryCache {
+    private static final Logger log = Logger.getLogger(LibraryCache.class.getName());
+
+    private static final Map<Path, ReadWriteLock> LOCKS = new ConcurrentHashMap<>();
+
+    private final Path root;
+    private final long maxSize;
+    private final ReadWriteLock lock;
+
+    /**
+     * @param root the cache directory
+     * @param maxSize the maximum size of the cached files in bytes
+     */
+    public LibraryCache(Path root, long maxSize) {
+        this.root = root.toAbsolutePath().normalize();
+        this.maxSize = maxSize;
+        this.lock = LOCKS.computeIfAbsent(this.root, r -> new ReentrantReadWriteLock());
+    }
+
+    /**
+     * Compute the key of the Library of a project from the Unity version, the project editor version
+     * ({@code ProjectSettings/ProjectVersion.txt}), its packages ({@code Packages/manifest.json}) and the build target.
+     *
+     * @param unityVersion what identifies the Unity version importing the project, e.g. its installation directory
+     * @param buildTarget the -buildTarget argument, or null
+     */
+    public static String key(Path project, String unityVersion, String buildTarget) throws IOException {
+        MessageDigest digest = sha256();
+        update(digest, "unity", unityVersion);
+        update(digest, "target", buildTarget);
+        for (String file : List.of("ProjectSettings/ProjectVersion.txt", "Packages/manifest.json")) {
+            Path p = project.resolve(file);
+            update(digest, file, Files.isRegularFile(p) ? Files.readString(p, StandardCharsets.UTF_8) : null);
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private static void update(MessageDigest digest, String name, String value) {
+        digest.update((name + "=" + (value == null ? "<none>" : value.length() + ":" + value) + "\n")
+                .getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Restore a Library from the cache, unless the project already has one. A Library that couldn't be fully restored
+     * is deleted, as a partial Library would be worse than none.
+     *
+     * @return what was restored, {@link Stats.Outcome#MISSED} if the cache has no usable entry for the key
+     * @throws IOException if the Library couldn't be written, e.g. when the disk is full
+     */
+    public Stats restore(String key, Path library) throws IOException {
+        library = library.toAbsolutePath().normalize();
+        long start = System.currentTimeMillis();
+        if (isNotEmpty(library)) {
+            return new Stats(key, Stats.Outcome.PRESENT, 0, 0, 0);
+        }
+        lock.readLock().lock();
+        try {
+            Map<String, Entry> manifest = readManifest(key);
+            if (manifest == null) return new Stats(key, Stats.Outcome.MISSED, 0, 0, 0);
+            long bytes = 0;
+            boolean broken = false;
+            try {
+                for (Map.Entry<String, Entry> e : manifest.entrySet()) {
+                    Path file = library.resolve(e.getKey()).normalize();
+                    if (!file.startsWith(library)) throw new BrokenEntryException("Not in the Library: " + e.getKey());
+                    Files.createDirectories(file.getParent());
+                    Files.copy(object(e.getValue().hash), file, StandardCopyOption.REPLACE_EXISTING);
+                    // so that the next save knows the file didn't change
+                    Files.setLastModifiedTime(file, FileTime.fromMillis(e.getValue().modified));
+                    bytes += e.getValue().size;
+                }
+            } catch (NoSuchFileException | BrokenEntryException e) {
+                // a missing object or a file out of the Library
+                log.log(Level.WARNING, "Dropping the broken Library cache entry " + key, e);
+                deleteRecursively(library);
+                broken = true;
+            } catch (IOException e) {
+                try {
+                    deleteRecursively(library);
+                } catch (IOException x) {
+                    e.addSuppressed(x);
+                }
+                throw e;
+            }
+            if (!broken) {
+                touch(entry(key));
+                return new Stats(
+                        key, Stats.Outcome.RESTORED, manifest.size(), bytes, System.currentTimeMillis() - start);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        // dropped under the write lock, as other restores may be reading the entry
+        lock.writeLock().lock();
+        try {
+            Files.deleteIfExists(entry(key));
+        } finally {
+            lock.writeLock().unlock();
+        }
+        return new Stats(key, Stats.Outcome.MISSED, 0, 0, System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Save the changes of a Library into the cache entry, then evict what exceeds the maximum size.
+     *
+     * @return the files that changed since the entry was saved, or null if there is no Library
+     */
+    public Stats save(String key, Path library) throws IOException {
+        long start = System.currentTimeMillis();
+        if (!Files.isDirectory(library)) return null;
+        int changed = 0;
+        long changedBytes = 0;
+        lock.readLock().lock();
+        try {
+            Map<String, Entry> previous = readManifest(key);
+            if (previous == null) previous = Map.of();
+            Map<String, Entry> manifest = new LinkedHashMap<>();
+            List<Path> files;
+            try (Stream<Path> s = Files.walk(library)) {
+                files = s.filter(Files::isRegularFile).sorted().toList();
+            }
+            for (Path file : files) {
+                String path = toPath(library.relativize(file));
+                BasicFileAttributes attrs;
+                try {
+                    attrs = Files.readAttributes(file, BasicFileAttributes.class);
+                } catch (NoSuchFileException e) {
+                    continue;
+                }
+                long modified = attrs.lastModifiedTime().toMillis();
+                Entry entry = previous.get(path);
+                if (entry == null
+                        || entry.size != attrs.size()
+                        || entry.modified != modified
+                        || !Files.exists(object(entry.hash))) {
+                    String hash = store(file);
+                    if (hash == null) continue;
+                    entry = new Entry(hash, attrs.size(), modified);
+                    changed++;
+                    changedBytes += attrs.size();
+                }
+                manifest.put(path, entry);
+            }
+            writeManifest(key, manifest);
+        } finally {
+            lock.readLock().unlock();
+        }
+        evict(key);
+        return new Stats(key, Stats.Outcome.SAVED, changed, changedBytes, System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Store a file in the objects, unless its content already is.
+     *
+     * @return its hash, or null if it disappeared meanwhile
+     */
+    private String store(Path file) throws IOException {
+        Path tmp = Files.createTempFile(createDirectories(root.resolve("tmp")), "object", ".tmp");
+        try {
+            MessageDigest digest = sha256();
+            try (InputStream in = Files.newInputStream(file);
+                    OutputStream out = new DigestOutputStream(Files.newOutputStream(tmp), digest)) {
+                in.transferTo(out);
+            } catch (NoSuchFileException e) {
+                return null;
+            }
+            String hash = HexFormat.of().formatHex(digest.digest());
+            Path object = object(hash);
+            if (!Files.exists(object)) {
+                createDirectories(object.getParent());
+                try {
+                    Files.move(tmp, object, StandardCopyOption.ATOMIC_MOVE);
+                } catch (FileAlreadyExistsException | AtomicMoveNotSupportedException e) {
+                    // stored concurrently, or the move wasn't atomic but there is no reader yet
+                    if (!Files.exists(object)) Files.move(tmp, object);
+                }
+            }
+            return hash;
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    /**
+     * Evict the least recently used entries until the objects fit in the maximum size, and delete the objects no
+     * entry uses anymore. The given entry, just saved, is kept.
+     */
+    void evict(String keep) throws IOException {
+        lock.writeLock().lock();
+        try {
+            List<Path> entries = new ArrayList<>();
+            Path entriesDir = root.resolve("entries");
+            if (Files.isDirectory(entriesDir)) {
+                try (DirectoryStream<Path> s = Files.newDirectoryStream(entriesDir)) {
+                    for (Path entry : s) {
+                        // left by an interrupted save
+                        if (entry.getFileName().toString().endsWith(".tmp")) Files.deleteIfExists(entry);
+                        else entries.add(entry);
+                    }
+                }
+            }
+            // least recently used first
+            entries.sort(Comparator.comparing(LibraryCache::lastModified));
+
+            Map<String, Integer> references = new HashMap<>();
+            Map<String, Long> sizes = new HashMap<>();
+            Map<Path, Map<String, Entry>> manifests = new HashMap<>();
+            long size = 0;
+            for (Path entry : entries) {
+                Map<String, Entry> manifest = readManifest(entry.getFileName().toString());
+                if (manifest == null) continue;
+                manifests.put(entry, manifest);
+                for (Entry e : manifest.values()) {
+                    if (references.merge(e.hash, 1, Integer::sum) == 1) {
+                        sizes.put(e.hash, e.size);
+                        size += e.size;
+                    }
+                }
+            }
+
+            boolean evicted = false;
+            for (Path entry : entries) {
+                if (size <= maxSize) break;
+                if (entry.getFileName().toString().equals(keep) || !manifests.containsKey(entry)) continue;
+                log.fine("Evicting the Library cache entry " + entry);
+                Files.deleteIfExists(entry);
+                evicted = true;
+                for (Entry e : manifests.get(entry).values()) {
+                    if (references.merge(e.hash, -1, Integer::sum) == 0) {
+                        references.remove(e.hash);
+                        size -= sizes.get(e.hash);
+                    }
+                }
+            }
+
+            if (evicted) {
+                // including the objects of interrupted saves
+                Path objects = root.resolve("objects");
+                try (Stream<Path> s = Files.walk(objects)) {
+                    for (Path object : s.filter(Files::isRegularFile).toList()) {
+                        if (!references.containsKey(object.getFileName().toString())) Files.deleteIfExists(object);
+                    }
+                }
+            }
+            deleteRecursively(root.resolve("tmp"));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private Path entry(String key) {
+        return root.resolve("entries").resolve(key);
+    }
+
+    private Path object(String hash) {
+        return root.resolve("objects").resolve(hash.substring(0, 2)).resolve(hash);
+    }
+
+    /**
+     * @return the files of the entry by path, or null if there is no such entry
+     */
+    private Map<String, Entry> readManifest(String key) throws IOException {
+        Map<String, Entry> manifest = new LinkedHashMap<>();
+        try (BufferedReader r = Files.newBufferedReader(entry(key), StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = r.readLine()) != null) {
+                // hash size modified path
+                String[] fields = line.split(" ", 4);
+                if (fields.length < 4) continue;
+                manifest.put(
+                        fields[3], new Entry(fields[0], Long.parseLong(fields[1]), Long.parseLong(fields[2])));
+            }
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (NumberFormatException e) {
+            log.warning("Ignoring the corrupted Library cache entry " + key);
+            return null;
+        }
+        return manifest;
+    }
+
+    /**
+     * Write the entry through a temporary file renamed over it, so that a reader never sees a partial entry.
+     */
+    private void writeManifest(String key, Map<String, Entry> manifest) throws IOException {
+        Path entry = entry(key);
+        Path tmp = Files.createTempFile(createDirectories(entry.getParent()), key, ".tmp");
+        try {
+            try (BufferedWriter w = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+                for (Map.Entry<String, Entry> e : manifest.entrySet()) {
+                    Entry value = e.getValue();
+                    w.write(value.hash + " " + value.size + " " + value.modified + " " + e.getKey());
+                    w.newLine();
+                }
+            }
+            try {
+                Files.move(tmp, entry, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tmp, entry, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    private static boolean isNotEmpty(Path dir) throws IOException {
+        if (!Files.isDirectory(dir)) return false;
+        try (DirectoryStream<Path> s = Files.newDirectoryStream(dir)) {
+            return s.iterator().hasNext();
+        }
+    }
+
+    private static Path createDirectories(Path dir) throws IOException {
+        return Files.createDirectories(dir);
+    }
+
+    private static void touch(Path file) throws IOException {
+        Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+    }
+
+    private static FileTime lastModified(Path file) {
+        try {
+            return Files.getLastModifiedTime(file);
+        } catch (IOException e) {
+            return FileTime.fromMillis(0);
+        }
+    }
+
+    private static String toPath(Path relative) {
+        return relative.toString().replace('\\', '/');
+    }
+
+    private static void deleteRecursively(Path dir) throws IOException {
+        if (!Files.exists(dir)) return;
+        try (Stream<Path> s = Files.walk(dir)) {
+            for (Path p : s.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(p);
+            }
+        }
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static final class BrokenEntryException extends IOException {
+        @Serial
+        private static final long serialVersionUID = 1L;
+
+        private BrokenEntryException(String message) {
+            super(message);
+        }
+    }
+
+    private static final class Entry {
+        private final String hash;
+        private final long size;
+        private final long modified;
+
+        private Entry(String hash, long size, long modified) {
+            this.hash = hash;
+            this.size = size;
+            this.modified = modified;
+        }
+    }
+
+    /**
+     * What a restore or a save did.
+     */
+    public static final class Stats implements Serializable {
+        @Serial
+        private static final long serialVersionUID = 1L;
+
+        public enum Outcome {
+            /** the project already had a Library */
+            PRESENT,
+            /** the cache had no entry for the key */
+            MISSED,
+            RESTORED,
+            SAVED
+        }
+
+        private final String key;
+        private final Outcome outcome;
+        private final int files;
+        private final long bytes;
+        private final long millis;
+
+        Stats(String key, Outcome outcome, int files, long bytes, long millis) {
+            this.key = key;
+            this.outcome = outcome;
+            this.files = files;
+            this.bytes = bytes;
+            this.millis = millis;
+        }
+
+        /**
+         * @return the key of the cache entry
+         */
+        public String getKey() {
+            return key;
+        }
+
+        public Outcome getOutcome() {
+            return outcome;
+        }
+
+        /**
+         * @return how many files were restored, or saved as new contents
+         */
+        public int getFiles() {
+            return files;
+        }
+
+        public long getBytes() {
+            return bytes;
+        }
+
+        public long getMillis() {
+            return millis;
+        }
+
+        @Override
+        public String toString() {
+            return outcome + " " + files + " files, " + bytes + " bytes in " + millis + " ms";
+        }
+    }
+}
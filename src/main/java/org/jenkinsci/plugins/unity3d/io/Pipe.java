@@ -1,8 +1,6 @@
 package org.jenkinsci.plugins.unity3d.io;
 
 import hudson.Launcher;
-import hudson.remoting.FastPipedInputStream;
-import hudson.remoting.FastPipedOutputStream;
 import hudson.remoting.RemoteOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
@@ -13,17 +11,25 @@ import java.io.OutputStream;
  * Jenkins's Pipe doesn't work for non distributed scenarios.
  *
  * Note: that java.io.Piped*Stream are not thread friendly and cause issues like JENKINS-23958.
- * See comments in the issue for details.
+ * See comments in the issue for details. The ends of the pipe share a {@link PipeBuffer} instead.
+ *
+ * Remote pipes encode the data as configured by their {@link PipeTransport}, by default batching small writes.
  *
  * @author Jerome Lacoste
  */
 public class Pipe {
     private InputStream in;
     private OutputStream os;
+    private final PipeStatistics statistics;
 
     public Pipe(InputStream is, OutputStream os) {
+        this(is, os, new PipeStatistics());
+    }
+
+    private Pipe(InputStream is, OutputStream os, PipeStatistics statistics) {
         this.in = is;
         this.os = os;
+        this.statistics = statistics;
     }
 
     public InputStream getIn() {
@@ -34,6 +40,10 @@ public class Pipe {
         return os;
     }
 
+    public PipeStatistics getStatistics() {
+        return statistics;
+    }
+
     /*
     // This breaks our PipeTest
     public static hudson.remoting.Pipe createRemoteToLocal3(Launcher launcher) throws IOException {
@@ -42,11 +52,24 @@ public class Pipe {
     */
 
     public static Pipe createRemoteToLocal(Launcher launcher) throws IOException {
-        FastPipedInputStream is = new FastPipedInputStream();
-        FastPipedOutputStream pos = new FastPipedOutputStream(is);
+        return createRemoteToLocal(launcher, PipeTransport.forRemote());
+    }
+
+    /**
+     * @param transport how to encode the data when the pipe is remote. Local pipes are never encoded.
+     */
+    public static Pipe createRemoteToLocal(Launcher launcher, PipeTransport transport) throws IOException {
+        PipeBuffer buffer = new PipeBuffer();
+        InputStream is = buffer.getIn();
+        OutputStream pos = buffer.getOut();
+        PipeStatistics statistics = new PipeStatistics();
 
         boolean isLocal = launcher instanceof Launcher.LocalLauncher;
-        OutputStream os = isLocal ? pos : new RemoteOutputStream(pos);
-        return new Pipe(is, os);
+        if (isLocal) {
+            return new Pipe(statistics.countDecoded(is), statistics.countTransferred(pos), statistics);
+        }
+        OutputStream os = new PipeTransport.EncodingOutputStream(
+                new RemoteOutputStream(statistics.countTransferred(pos)), transport);
+        return new Pipe(statistics.countDecoded(transport.decode(is)), os, statistics);
     }
 }
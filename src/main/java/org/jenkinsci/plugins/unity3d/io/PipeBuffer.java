@@ -0,0 +1,161 @@
+package org.jenkinsci.plugins.unity3d.io;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.Objects;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * The buffer between the two ends of a {@link Pipe}: writes block while it is full, reads while it is empty.
+ * <p>
+ * Unlike {@link hudson.remoting.FastPipedInputStream}, which waits on a monitor, it waits on a {@link ReentrantLock},
+ * so that a copy blocked on a virtual thread of the {@link PumpExecutor} doesn't pin its carrier thread. Both ends are
+ * thread safe, and a read or write blocked on the buffer can be interrupted.
+ */
+final class PipeBuffer {
+    static final int DEFAULT_CAPACITY = 64 * 1024;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private final Condition notFull = lock.newCondition();
+    private final byte[] buffer;
+    private int readPos;
+    private int count;
+    private boolean outClosed;
+    private boolean inClosed;
+
+    private final InputStream in = new In();
+    private final OutputStream out = new Out();
+
+    PipeBuffer() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    PipeBuffer(int capacity) {
+        this.buffer = new byte[capacity];
+    }
+
+    /**
+     * @return the reading end, at its end once the writing end was closed and everything was read
+     */
+    InputStream getIn() {
+        return in;
+    }
+
+    /**
+     * @return the writing end, failing once the reading end was closed
+     */
+    OutputStream getOut() {
+        return out;
+    }
+
+    private static void await(Condition condition) throws InterruptedIOException {
+        try {
+            condition.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting on the pipe");
+        }
+    }
+
+    private final class In extends InputStream {
+        @Override
+        public int read() throws IOException {
+            byte[] b = new byte[1];
+            return read(b, 0, 1) < 0 ? -1 : b[0] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            Objects.checkFromIndexSize(off, len, b.length);
+            if (len == 0) return 0;
+            lock.lock();
+            try {
+                while (count == 0) {
+                    if (inClosed) throw new IOException("Pipe closed");
+                    if (outClosed) return -1;
+                    await(notEmpty);
+                }
+                if (inClosed) throw new IOException("Pipe closed");
+                int n = Math.min(len, count);
+                int first = Math.min(n, buffer.length - readPos);
+                System.arraycopy(buffer, readPos, b, off, first);
+                System.arraycopy(buffer, 0, b, off + first, n - first);
+                readPos = (readPos + n) % buffer.length;
+                count -= n;
+                notFull.signalAll();
+                return n;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        public int available() {
+            lock.lock();
+            try {
+                return count;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        public void close() {
+            lock.lock();
+            try {
+                inClosed = true;
+                notEmpty.signalAll();
+                notFull.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    private final class Out extends OutputStream {
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[] {(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            Objects.checkFromIndexSize(off, len, b.length);
+            lock.lock();
+            try {
+                while (len > 0) {
+                    if (outClosed) throw new IOException("Pipe closed");
+                    if (inClosed) throw new IOException("Pipe broken: its reading end was closed");
+                    if (count == buffer.length) {
+                        await(notFull);
+                        continue;
+                    }
+                    int writePos = (readPos + count) % buffer.length;
+                    int n = Math.min(len, Math.min(buffer.length - count, buffer.length - writePos));
+                    System.arraycopy(b, off, buffer, writePos, n);
+                    count += n;
+                    off += n;
+                    len -= n;
+                    notEmpty.signalAll();
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        public void close() {
+            lock.lock();
+            try {
+                outClosed = true;
+                notEmpty.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
@@ -4,16 +4,29 @@ import java.io.File;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.io.PrintStream;
-import java.io.RandomAccessFile;
+import java.nio.channels.ClosedByInterruptException;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
 import java.util.concurrent.Callable;
 
 /**
  * A Callable that allows piping the output of a file into.
  * <p>
- * Useful when the file is been modified and one needs to loop.
+ * Useful when the file is been modified and one needs to loop. The copy loop is driven by a {@link FileChangeWatcher},
+ * so it only wakes up when the file changes (or every 50 msec on platforms without native file watching), and reads
+ * through a {@link FileTail} which keeps the file open and follows it when it gets truncated or recreated.
  * <p>
- * Note that you can interrupt this task to cancel it.
+ * The output is flushed after every wake up, which happens at least every {@link FileChangeWatcher#MAX_WAIT_MILLIS}
+ * msec, so that a {@link PipeTransport} batch is sent once its time window passed, even if the file stopped changing.
+ * <p>
+ * When given a {@link TailCheckpoint}, the task records its progress in it: only what the output passed on (see
+ * {@link Syncable}) counts, not what it still holds back. If the checkpoint matches the current file, the task starts
+ * copying from the recorded position instead of waiting for the file to be modified. This lets a task that was lost,
+ * e.g. when an agent disconnected, be restarted without losing or repeating output.
+ * <p>
+ * Once the process writing the file is done, request the task's {@link DrainSignal}: the task then copies the file up
+ * to its final size, closes the output, which marks the end of the stream for the reader, and returns. Note that you
+ * can also interrupt this task to cancel it, at the risk of losing the end of the file.
  *
  * @author Jerome Lacoste
  */
@@ -21,16 +34,27 @@ public class PipeFileAfterModificationAction implements Callable<Long> {
     private final String path;
     private final OutputStream out;
     private final boolean closeOut;
-    private final int waitBetweenCopyLoops;
+    private final TailCheckpoint checkpoint;
+    private final DrainSignal drain;
 
-    public PipeFileAfterModificationAction(String path, OutputStream out, boolean closeOut) {
+    /**
+     * @param checkpoint if not null, where to record the progress of the copy, and resume it from if it matches the file
+     * @param drain if not null, the signal that makes the task copy the rest of the file and finish
+     */
+    public PipeFileAfterModificationAction(
+            String path, OutputStream out, boolean closeOut, TailCheckpoint checkpoint, DrainSignal drain) {
         this.path = path;
         if (out == null) {
             throw new NullPointerException("out is null");
         }
         this.out = out;
         this.closeOut = closeOut;
-        waitBetweenCopyLoops = 50;
+        this.checkpoint = checkpoint;
+        this.drain = drain;
+    }
+
+    public PipeFileAfterModificationAction(String path, OutputStream out, boolean closeOut) {
+        this(path, out, closeOut, null, null);
     }
 
     public PipeFileAfterModificationAction(String path, OutputStream out) {
@@ -43,37 +67,50 @@ public class PipeFileAfterModificationAction implements Callable<Long> {
      * @throws IOException
      */
     public Long call() throws IOException {
-        File file = new DetectFileModifiedAction(path).call();
-        long pos = 0;
+        try {
+            return pipe();
+        } finally {
+            if (drain != null) drain.release();
+        }
+    }
+
+    private long pipe() throws IOException {
+        String resumeIdentity = FileTail.identityOf(Paths.get(path));
+        long resumeAt = checkpoint != null ? checkpoint.load(resumeIdentity) : -1;
+        // when resuming, the file was already modified by the current Unity run
+        File file = resumeAt >= 0 ? new File(path) : new DetectFileModifiedAction(path, drain).call();
+        long copied = 0;
         if (file != null) {
-            RandomAccessFile raf = null;
-            try {
+            FileTail tail = resumeAt >= 0
+                    ? new FileTail(file.toPath(), resumeIdentity, resumeAt)
+                    : new FileTail(file.toPath());
+            try (tail;
+                    FileChangeWatcher watcher = new FileChangeWatcher(file.toPath())) {
+                if (drain != null) drain.attach(watcher);
                 while (true) {
-                    if (file.exists()) {
-                        // I once experienced a FileNotFoundException here, let's see if this happens again
-                        raf = new RandomAccessFile(path, "r");
-                        pos = continueCopyingFrom(raf, pos);
-                        raf.close();
-                    }
-                    synchronized (this) {
-                        try {
-                            wait(waitBetweenCopyLoops);
-                        } catch (InterruptedException e) {
-                            break;
-                        }
+                    // checked before copying, so that the last copy sees everything written before the request
+                    boolean last = drain != null && drain.isRequested();
+                    copied += tail.copyTo(out);
+                    // lets batching outputs send what has waited long enough, even once the file no longer changes
+                    out.flush();
+                    if (checkpoint != null && checkpoint.isDue()) saveCheckpoint(tail);
+                    if (last) break;
+                    try {
+                        watcher.await();
+                    } catch (InterruptedException e) {
+                        break;
                     }
                 }
+            } catch (ClosedByInterruptException e) {
+                // cancelled while reading
             } catch (Throwable t) {
                 forcePrintStacktrace(t);
             } finally {
-                if (raf != null) {
+                if (checkpoint != null) {
                     try {
-                        pos = raf.getFilePointer();
-                    } catch (IOException ignore) {
-                    }
-                    try {
-                        raf.close();
-                    } catch (IOException ignore) {
+                        saveCheckpoint(tail);
+                    } catch (IOException e) {
+                        // the output is gone along with what it held: resume from the last checkpoint
                     }
                 }
                 closeOutIfNecessary();
@@ -85,34 +122,34 @@ public class PipeFileAfterModificationAction implements Callable<Long> {
                     "\tConsider using the -logFile argument to force a known editor.log path or report the issue.");
             closeOutIfNecessary();
         }
-        return pos;
+        return copied;
+    }
+
+    /**
+     * Sync the output, and save the position of what it passed on.
+     */
+    private void saveCheckpoint(FileTail tail) throws IOException {
+        long held = Syncable.sync(out);
+        checkpoint.save(tail.getIdentity(), Math.max(0, tail.getPosition() - held));
     }
 
     private void closeOutIfNecessary() throws IOException {
         if (closeOut) out.close();
     }
 
+    // the output is only closed by closeOutIfNecessary(), as it may be the build console
+
     private void writeMessagesToOutput(String... msgs) {
-        try (PrintStream printStream = new PrintStream(out, false, StandardCharsets.UTF_8)) {
-            for (String msg : msgs) {
-                printStream.println(msg);
-            }
+        PrintStream printStream = new PrintStream(out, false, StandardCharsets.UTF_8);
+        for (String msg : msgs) {
+            printStream.println(msg);
         }
+        printStream.flush();
     }
 
     private void forcePrintStacktrace(Throwable t) {
-        try (PrintStream printStream = new PrintStream(out, false, StandardCharsets.UTF_8)) {
-            t.printStackTrace(printStream);
-        }
-    }
-
-    private long continueCopyingFrom(RandomAccessFile raf, long from) throws IOException {
-        raf.seek(from);
-
-        byte[] buf = new byte[8192];
-        int len;
-        while ((len = raf.read(buf)) > 0) out.write(buf, 0, len);
-
-        return raf.getFilePointer();
+        PrintStream printStream = new PrintStream(out, false, StandardCharsets.UTF_8);
+        t.printStackTrace(printStream);
+        printStream.flush();
     }
 }
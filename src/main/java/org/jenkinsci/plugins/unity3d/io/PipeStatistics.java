@@ -0,0 +1,79 @@
+package org.jenkinsci.plugins.unity3d.io;
+
+import java.io.FilterInputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counters of a {@link Pipe}, all measured on its reading end.
+ */
+public class PipeStatistics {
+    private final AtomicLong bytesIn = new AtomicLong();
+    private final AtomicLong bytesOut = new AtomicLong();
+    private final AtomicLong batches = new AtomicLong();
+
+    /**
+     * @return the number of bytes written into the pipe, once decoded
+     */
+    public long getBytesIn() {
+        return bytesIn.get();
+    }
+
+    /**
+     * @return the number of bytes that went through the pipe, as encoded by its {@link PipeTransport}
+     */
+    public long getBytesOut() {
+        return bytesOut.get();
+    }
+
+    /**
+     * @return the number of writes that went through the pipe, i.e. remoting commands for a remote pipe
+     */
+    public long getBatches() {
+        return batches.get();
+    }
+
+    @Override
+    public String toString() {
+        return getBytesIn() + " bytes piped as " + getBytesOut() + " bytes in " + getBatches() + " batches";
+    }
+
+    OutputStream countTransferred(OutputStream out) {
+        return new FilterOutputStream(out) {
+            @Override
+            public void write(int b) throws IOException {
+                out.write(b);
+                batches.incrementAndGet();
+                bytesOut.incrementAndGet();
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                out.write(b, off, len);
+                batches.incrementAndGet();
+                bytesOut.addAndGet(len);
+            }
+        };
+    }
+
+    InputStream countDecoded(InputStream in) {
+        return new FilterInputStream(in) {
+            @Override
+            public int read() throws IOException {
+                int b = in.read();
+                if (b >= 0) bytesIn.incrementAndGet();
+                return b;
+            }
+
+            @Override
+            public int read(byte[] b, int off, int len) throws IOException {
+                int read = in.read(b, off, len);
+                if (read > 0) bytesIn.addAndGet(read);
+                return read;
+            }
+        };
+    }
+}
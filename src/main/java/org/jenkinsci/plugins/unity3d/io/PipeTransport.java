@@ -0,0 +1,153 @@
+package org.jenkinsci.plugins.unity3d.io;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.OutputStream;
+import java.io.Serial;
+import java.io.Serializable;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+import jenkins.util.SystemProperties;
+
+/**
+ * How the bytes written into a remote {@link Pipe} are encoded before crossing the remoting channel.
+ * <p>
+ * Writes are coalesced into batches (see {@link BatchingOutputStream}) and optionally deflated. The writing end
+ * ({@link #encode(OutputStream)}) runs on the agent, the reading end ({@link #decode(InputStream)}) on the controller.
+ * <p>
+ * The defaults can be changed through system properties on the controller, e.g.
+ * {@code -Dorg.jenkinsci.plugins.unity3d.io.PipeTransport.compress=true}.
+ */
+public class PipeTransport implements Serializable {
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    private static final String PREFIX = PipeTransport.class.getName() + ".";
+
+    /**
+     * Sends every write as is, which is what a local pipe does.
+     */
+    public static final PipeTransport DIRECT = new PipeTransport(0, 0, false);
+
+    private final int batchSize;
+    private final long windowMillis;
+    private final boolean compress;
+
+    /**
+     * @param batchSize the maximum size of a batch in bytes, 0 to not batch writes
+     * @param windowMillis how long a write may wait for others to be batched with
+     * @param compress whether to deflate the stream
+     */
+    public PipeTransport(int batchSize, long windowMillis, boolean compress) {
+        this.batchSize = batchSize;
+        this.windowMillis = windowMillis;
+        this.compress = compress;
+    }
+
+    /**
+     * The transport for remote pipes, as configured by the system properties.
+     */
+    public static PipeTransport forRemote() {
+        return new PipeTransport(
+                SystemProperties.getInteger(PREFIX + "batchSize", 32 * 1024),
+                SystemProperties.getLong(PREFIX + "windowMillis", 200L),
+                SystemProperties.getBoolean(PREFIX + "compress"));
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public long getWindowMillis() {
+        return windowMillis;
+    }
+
+    public boolean isCompress() {
+        return compress;
+    }
+
+    /**
+     * Wrap the writing end of the pipe.
+     */
+    public OutputStream encode(OutputStream out) {
+        OutputStream os = batchSize > 0 ? new BatchingOutputStream(out, batchSize, windowMillis) : out;
+        if (compress) {
+            // sync flush, so that whatever was written is readable on the other side after a flush
+            os = new SyncingDeflaterOutputStream(os);
+        }
+        return os;
+    }
+
+    /**
+     * Wrap the reading end of the pipe.
+     */
+    public InputStream decode(InputStream in) {
+        return compress ? new InflaterInputStream(in) : in;
+    }
+
+    private static class SyncingDeflaterOutputStream extends DeflaterOutputStream implements Syncable {
+        SyncingDeflaterOutputStream(OutputStream out) {
+            super(out, new Deflater(Deflater.BEST_SPEED), 8192, true);
+        }
+
+        @Override
+        public long sync() throws IOException {
+            // the sync flush hands everything deflated so far to the batch, which is then sent
+            flush();
+            return Syncable.sync(out);
+        }
+    }
+
+    /**
+     * The writing end of a pipe, which applies the transport on the side it is used on.
+     * <p>
+     * It is serialized along with the remote stream it wraps, so the encoding happens on the agent.
+     */
+    static class EncodingOutputStream extends OutputStream implements Serializable, Syncable {
+        @Serial
+        private static final long serialVersionUID = 1L;
+
+        private final OutputStream out;
+        private final PipeTransport transport;
+        private transient OutputStream encoded;
+
+        EncodingOutputStream(OutputStream out, PipeTransport transport) {
+            this.out = out;
+            this.transport = transport;
+            this.encoded = transport.encode(out);
+        }
+
+        @Serial
+        private void readObject(ObjectInputStream ois) throws IOException, ClassNotFoundException {
+            ois.defaultReadObject();
+            encoded = transport.encode(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            encoded.write(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            encoded.write(b, off, len);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            encoded.flush();
+        }
+
+        @Override
+        public long sync() throws IOException {
+            return Syncable.sync(encoded);
+        }
+
+        @Override
+        public void close() throws IOException {
+            encoded.close();
+        }
+    }
+}
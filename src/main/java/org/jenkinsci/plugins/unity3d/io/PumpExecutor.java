@@ -0,0 +1,70 @@
+package org.jenkinsci.plugins.unity3d.io;
+
+import hudson.util.DaemonThreadFactory;
+import hudson.util.NamingThreadFactory;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * The executor shared by all the builds to pump Editor.log pipes into their consoles.
+ * <p>
+ * On Java 21 and later, each copy runs on a virtual thread: a copy waiting for its {@link Pipe} waits on a lock, not a
+ * monitor, so it doesn't pin a carrier thread.
+ * <p>
+ * On Java 17, this is only a cached thread pool: each running copy blocks a platform thread of its own for as long as
+ * its build pipes the Editor.log, and the number of threads is not bounded, the idle ones time out after a minute. The
+ * copies block, so a bounded pool would have to queue them, and a queued copy would leave its pipe full, blocking the
+ * remoting thread writing into it, and with it every other stream of the channel.
+ * <p>
+ * The copy buffers are pooled, so the memory used stays proportional to the number of running copies.
+ */
+public final class PumpExecutor {
+    private static final Logger log = Logger.getLogger(PumpExecutor.class.getName());
+
+    static final int BUFFER_SIZE = 8192;
+
+    private static final ConcurrentLinkedQueue<byte[]> buffers = new ConcurrentLinkedQueue<>();
+
+    private static final class Holder {
+        private static final ExecutorService EXECUTOR = create();
+    }
+
+    private PumpExecutor() {}
+
+    public static ExecutorService get() {
+        return Holder.EXECUTOR;
+    }
+
+    private static ExecutorService create() {
+        try {
+            // Java 21+
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (NoSuchMethodException e) {
+            // Java 17
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            log.log(Level.FINE, "Unable to create a virtual thread executor", e);
+        }
+        return new ThreadPoolExecutor(
+                0,
+                Integer.MAX_VALUE,
+                60L,
+                TimeUnit.SECONDS,
+                new SynchronousQueue<>(),
+                new NamingThreadFactory(new DaemonThreadFactory(), "Unity3d Editor.log pump"));
+    }
+
+    static byte[] takeBuffer() {
+        byte[] buf = buffers.poll();
+        return buf != null ? buf : new byte[BUFFER_SIZE];
+    }
+
+    static void returnBuffer(byte[] buf) {
+        buffers.offer(buf);
+    }
+}
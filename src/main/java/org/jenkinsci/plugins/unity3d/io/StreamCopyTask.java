@@ -27,23 +27,25 @@ import java.io.Closeable;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
 
 /**
- * {@link Thread} that copies {@link java.io.InputStream} to {@link java.io.OutputStream}.
+ * Task that copies {@link java.io.InputStream} to {@link java.io.OutputStream}.
  * <p>
  * A variation on the Jenkins StreamCopyThread to handle error handling differently and catch errors for reporting.
+ * Instead of running on a thread of its own, it is {@link #start() started} on the shared {@link PumpExecutor},
+ * using one of its pooled buffers.
  *
  * @author Kohsuke Kawaguchi
  * @author Jerome Lacoste
  */
-public class StreamCopyThread extends Thread {
+public class StreamCopyTask implements Callable<Long> {
     private final InputStream in;
     private final OutputStream out;
     private final boolean closeOut;
-    private Exception failure;
 
-    public StreamCopyThread(String threadName, InputStream in, OutputStream out, boolean closeOut) {
-        super(threadName);
+    public StreamCopyTask(InputStream in, OutputStream out, boolean closeOut) {
         this.in = in;
         if (out == null) {
             throw new NullPointerException("out is null");
@@ -52,20 +54,33 @@ public class StreamCopyThread extends Thread {
         this.closeOut = closeOut;
     }
 
-    public StreamCopyThread(String threadName, InputStream in, OutputStream out) {
-        this(threadName, in, out, false);
+    public StreamCopyTask(InputStream in, OutputStream out) {
+        this(in, out, false);
+    }
+
+    /**
+     * Start copying on the {@link PumpExecutor}.
+     *
+     * @return the number of bytes copied. Copy failures are reported as the cause of the
+     * {@link java.util.concurrent.ExecutionException}
+     */
+    public Future<Long> start() {
+        return PumpExecutor.get().submit(this);
     }
 
     @Override
-    public void run() {
+    public Long call() throws IOException {
+        byte[] buf = PumpExecutor.takeBuffer();
+        long copied = 0;
         try {
-            byte[] buf = new byte[8192];
             int len;
-            while ((len = in.read(buf)) > 0) out.write(buf, 0, len);
-        } catch (IOException e) {
-            e.printStackTrace();
-            failure = e;
+            while ((len = in.read(buf)) > 0) {
+                out.write(buf, 0, len);
+                copied += len;
+            }
+            return copied;
         } finally {
+            PumpExecutor.returnBuffer(buf);
             // it doesn't make sense not to close InputStream that's already EOF-ed,
             // so there's no 'closeIn' flag.
             forceClose(in);
@@ -80,8 +95,4 @@ public class StreamCopyThread extends Thread {
             e.printStackTrace();
         }
     }
-
-    public Exception getFailure() {
-        return failure;
-    }
 }
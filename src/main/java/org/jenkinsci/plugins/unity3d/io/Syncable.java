@@ -0,0 +1,31 @@
+package org.jenkinsci.plugins.unity3d.io;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * An output stream that holds back some of what is written into it, e.g. to send it in batches, or until its line is
+ * complete. Unlike {@link OutputStream#flush()}, which such a stream may only honour once it is worth it,
+ * {@link #sync()} passes on whatever can be right away.
+ * <p>
+ * This is what tells a {@link TailCheckpoint} how far the output actually got.
+ */
+public interface Syncable {
+    /**
+     * Pass on everything that can be, so that it reaches the end of the stream, e.g. the other side of a pipe.
+     *
+     * @return how many of the bytes written are still held back, e.g. the beginning of an incomplete line
+     */
+    long sync() throws IOException;
+
+    /**
+     * {@link #sync()} the given stream if it can be, flush it otherwise.
+     *
+     * @return how many of the bytes written are still held back
+     */
+    static long sync(OutputStream out) throws IOException {
+        if (out instanceof Syncable) return ((Syncable) out).sync();
+        out.flush();
+        return 0;
+    }
+}
@@ -0,0 +1,98 @@
+package org.jenkinsci.plugins.unity3d.io;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Properties;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Records how far a {@link FileTail} got into a file, so that a new tail can resume from there.
+ * <p>
+ * The checkpoint is a small properties file kept next to the build (on the machine the tailed file lives on). It
+ * stores the tailed file identity along with the position, and is only honoured if the file is still the same one.
+ * Writers are expected to save at most once every {@link #SAVE_INTERVAL_MILLIS} msec (see {@link #isDue()}), and only
+ * the position of what actually got through their output (see {@link Syncable}). Writes go through a temporary file
+ * renamed over the checkpoint, so a reader never sees a partial checkpoint.
+ */
+public class TailCheckpoint {
+    private static final Logger log = Logger.getLogger(TailCheckpoint.class.getName());
+
+    static final long SAVE_INTERVAL_MILLIS = 1000;
+
+    private final Path file;
+    private long lastSaved;
+    private String savedIdentity;
+    private long savedPosition = -1;
+
+    public TailCheckpoint(Path file) {
+        this.file = file;
+    }
+
+    /**
+     * @return the position recorded for the given file identity, or -1 if there is no usable checkpoint
+     */
+    long load(String identity) {
+        Properties p = new Properties();
+        try (Reader r = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            p.load(r);
+        } catch (NoSuchFileException e) {
+            return -1;
+        } catch (IOException e) {
+            log.log(Level.WARNING, "Unable to read tail checkpoint " + file, e);
+            return -1;
+        }
+        if (identity == null || !identity.equals(p.getProperty("identity"))) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(p.getProperty("position", "-1"));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * @return whether the last save is old enough for the position to be saved again
+     */
+    boolean isDue() {
+        return System.currentTimeMillis() - lastSaved >= SAVE_INTERVAL_MILLIS;
+    }
+
+    /**
+     * Save the position now, if it changed.
+     */
+    void save(String identity, long position) {
+        if (identity == null || (identity.equals(savedIdentity) && position == savedPosition)) return;
+        Properties p = new Properties();
+        p.setProperty("identity", identity);
+        p.setProperty("position", Long.toString(position));
+        try {
+            Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+            try (Writer w = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+                p.store(w, null);
+            }
+            try {
+                Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+            savedIdentity = identity;
+            savedPosition = position;
+        } catch (IOException e) {
+            log.log(Level.WARNING, "Unable to write tail checkpoint " + file, e);
+        }
+        lastSaved = System.currentTimeMillis();
+    }
+
+    public void delete() throws IOException {
+        Files.deleteIfExists(file);
+    }
+}
@@ -0,0 +1,264 @@
+package org.jenkinsci.plugins.unity3d.logs;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import jenkins.util.SystemProperties;
+import org.jenkinsci.plugins.unity3d.logs.block.MatchedBlock;
+import org.jenkinsci.plugins.unity3d.logs.block.UpdateBlock;
+import org.jenkinsci.plugins.unity3d.logs.line.Line;
+
+/**
+ * Indexes the asset imports of the Editor.log (its {@link UpdateBlock}s) as it streams: the slowest imports, and the
+ * number of imports and the time spent per file extension and per folder.
+ * <p>
+ * The duration of an import is the one Unity reports at its end ("done. [Time: 18.12 ms]"), or else the time between
+ * its beginning and end as stamped by the parser. Only the {@link #getSize() slowest} imports are kept, so the memory
+ * used doesn't grow with the log.
+ */
+public final class AssetImportIndex implements EditorLogParserImpl.LogListener, Serializable {
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    /** How many of the slowest imports to keep */
+    static final int DEFAULT_SIZE = SystemProperties.getInteger(AssetImportIndex.class.getName() + ".size", 25);
+
+    private static final Pattern DONE_TIME = Pattern.compile("\\s*done\\. \\[Time: ([0-9.]+) ms\\]");
+
+    private final int size;
+    /** the fastest of the slowest imports first */
+    private final PriorityQueue<AssetImport> slowest;
+
+    private final Map<String, Aggregate> extensions = new HashMap<>();
+    private final Map<String, Aggregate> folders = new HashMap<>();
+    private int count;
+    private double millis;
+
+    // the import in progress
+    private transient Matcher doneTime;
+    private transient MatchedBlock importing;
+    private transient double reportedMillis = -1;
+
+    public AssetImportIndex() {
+        this(DEFAULT_SIZE);
+    }
+
+    public AssetImportIndex(int size) {
+        this.size = size;
+        this.slowest = new PriorityQueue<>(size + 1);
+    }
+
+    public void activityStarted(MatchedBlock block) {
+        if (block.block instanceof UpdateBlock) {
+            importing = block;
+            reportedMillis = -1;
+        }
+    }
+
+    public void activityFinished(MatchedBlock block) {
+        if (block != importing) return;
+        double duration = reportedMillis >= 0 ? reportedMillis : block.getFinishedAt() - block.getStartedAt();
+        add(new AssetImport(block.getDetail(), duration));
+        importing = null;
+    }
+
+    public void logMessage(CharSequence line, Line.Type type) {
+        // the end of the import is logged before the block finishes
+        if (importing == null) return;
+        if (doneTime == null) doneTime = DONE_TIME.matcher("");
+        if (doneTime.reset(line).matches()) {
+            try {
+                reportedMillis = Double.parseDouble(doneTime.group(1));
+            } catch (NumberFormatException e) {
+                reportedMillis = -1;
+            }
+        }
+    }
+
+    void add(AssetImport asset) {
+        count++;
+        millis += asset.getMillis();
+        extensions.computeIfAbsent(asset.getExtension(), Aggregate::new).add(asset.getMillis());
+        folders.computeIfAbsent(asset.getFolder(), Aggregate::new).add(asset.getMillis());
+        keepIfSlow(asset);
+    }
+
+    private void keepIfSlow(AssetImport asset) {
+        if (slowest.size() < size) {
+            slowest.add(asset);
+        } else if (size > 0 && asset.compareTo(slowest.peek()) > 0) {
+            slowest.poll();
+            slowest.add(asset);
+        }
+    }
+
+    /**
+     * Add the imports of another index, e.g. of another Unity3d step of the same build.
+     */
+    public void addAll(AssetImportIndex other) {
+        count += other.count;
+        millis += other.millis;
+        merge(extensions, other.extensions);
+        merge(folders, other.folders);
+        for (AssetImport asset : other.slowest) keepIfSlow(asset);
+    }
+
+    private static void merge(Map<String, Aggregate> into, Map<String, Aggregate> from) {
+        for (Aggregate aggregate : from.values()) {
+            Aggregate a = into.computeIfAbsent(aggregate.getName(), Aggregate::new);
+            a.count += aggregate.count;
+            a.millis += aggregate.millis;
+        }
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * @return the number of imports
+     */
+    public int getCount() {
+        return count;
+    }
+
+    /**
+     * @return the time spent importing, in milliseconds
+     */
+    public double getMillis() {
+        return millis;
+    }
+
+    /**
+     * @return the slowest imports, the slowest first
+     */
+    public List<AssetImport> getSlowest() {
+        List<AssetImport> sorted = new ArrayList<>(slowest);
+        sorted.sort(Comparator.reverseOrder());
+        return sorted;
+    }
+
+    /**
+     * @return the imports per file extension, the longest total first
+     */
+    public List<Aggregate> getExtensions() {
+        return sorted(extensions);
+    }
+
+    /**
+     * @return the imports per folder, the longest total first
+     */
+    public List<Aggregate> getFolders() {
+        return sorted(folders);
+    }
+
+    private static List<Aggregate> sorted(Map<String, Aggregate> aggregates) {
+        List<Aggregate> sorted = new ArrayList<>(aggregates.values());
+        sorted.sort(Comparator.comparingDouble(Aggregate::getMillis).reversed());
+        return sorted;
+    }
+
+    public static final class AssetImport implements Comparable<AssetImport>, Serializable {
+        @Serial
+        private static final long serialVersionUID = 1L;
+
+        private final String path;
+        private final double millis;
+
+        public AssetImport(String path, double millis) {
+            this.path = path;
+            this.millis = millis;
+        }
+
+        public String getPath() {
+            return path;
+        }
+
+        public double getMillis() {
+            return millis;
+        }
+
+        /**
+         * @return the lower case extension of the file, e.g. "png", or "" if it has none
+         */
+        public String getExtension() {
+            int slash = path.lastIndexOf('/');
+            int dot = path.lastIndexOf('.');
+            return dot > slash + 1 ? path.substring(dot + 1).toLowerCase(Locale.ROOT) : "";
+        }
+
+        /**
+         * @return the folder of the file, e.g. "Assets/Textures", or "" if it has none
+         */
+        public String getFolder() {
+            int slash = path.lastIndexOf('/');
+            return slash < 0 ? "" : path.substring(0, slash);
+        }
+
+        public int compareTo(AssetImport o) {
+            int c = Double.compare(millis, o.millis);
+            return c != 0 ? c : path.compareTo(o.path);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof AssetImport && compareTo((AssetImport) o) == 0;
+        }
+
+        @Override
+        public int hashCode() {
+            return path.hashCode() * 31 + Double.hashCode(millis);
+        }
+
+        @Override
+        public String toString() {
+            return path + " " + millis + " ms";
+        }
+    }
+
+    /**
+     * The imports of the files with the same extension, or in the same folder.
+     */
+    public static final class Aggregate implements Serializable {
+        @Serial
+        private static final long serialVersionUID = 1L;
+
+        private final String name;
+        private int count;
+        private double millis;
+
+        Aggregate(String name) {
+            this.name = name;
+        }
+
+        void add(double millis) {
+            count++;
+            this.millis += millis;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public int getCount() {
+            return count;
+        }
+
+        public double getMillis() {
+            return millis;
+        }
+
+        @Override
+        public String toString() {
+            return name + " " + count + " " + millis + " ms";
+        }
+    }
+}
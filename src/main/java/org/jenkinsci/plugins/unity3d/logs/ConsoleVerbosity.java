@@ -0,0 +1,44 @@
+package org.jenkinsci.plugins.unity3d.logs;
+
+import org.jenkinsci.plugins.unity3d.Messages;
+import org.jenkinsci.plugins.unity3d.logs.line.Line;
+
+/**
+ * How much of the Editor.log the {@link Unity3dEditorLogAnnotator} copies into the build console.
+ * <p>
+ * Whatever the verbosity, the whole log is parsed, so the phases, asset imports and player size of the build are the
+ * same.
+ */
+public enum ConsoleVerbosity {
+    /** Every line, the blocks becoming collapsible sections */
+    FULL,
+    /** The warnings and errors only */
+    WARNINGS,
+    /** A line per top-level block once it finished, with its duration, and the errors */
+    PHASES;
+
+    /**
+     * @return true if the lines of the given type are copied into the console
+     */
+    boolean shows(Line.Type type) {
+        switch (this) {
+            case FULL:
+                return true;
+            case WARNINGS:
+                return type != Line.Type.Normal;
+            default:
+                return type == Line.Type.Error || type == Line.Type.Failure;
+        }
+    }
+
+    public String getDisplayName() {
+        switch (this) {
+            case WARNINGS:
+                return Messages.Unity3d_ConsoleVerbosity_Warnings();
+            case PHASES:
+                return Messages.Unity3d_ConsoleVerbosity_Phases();
+            default:
+                return Messages.Unity3d_ConsoleVerbosity_Full();
+        }
+    }
+}
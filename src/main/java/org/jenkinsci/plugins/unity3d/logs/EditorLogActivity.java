@@ -0,0 +1,134 @@
+package org.jenkinsci.plugins.unity3d.logs;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.jenkinsci.plugins.unity3d.logs.block.MatchedBlock;
+import org.jenkinsci.plugins.unity3d.logs.line.Line;
+
+/**
+ * When an Editor.log last had a line, and which of its blocks are open, so that a watchdog can tell that Unity3d hangs.
+ * Also the first line matching one of the fatal signatures, after which Unity3d doesn't need to go on.
+ * <p>
+ * The log is parsed wherever it is piped from, the build node or the controller, and the watchdog asks through a
+ * separate remoting call, so activities are looked up by id in a registry of the JVM parsing the log, like
+ * {@link org.jenkinsci.plugins.unity3d.io.DrainSignal}s.
+ */
+public final class EditorLogActivity implements EditorLogParserImpl.LogListener {
+    private static final ConcurrentMap<String, EditorLogActivity> activities = new ConcurrentHashMap<>();
+
+    // innermost first
+    private final Deque<MatchedBlock> open = new ArrayDeque<>();
+    private volatile long lastLine = System.currentTimeMillis();
+    // used by the parsing thread only
+    private final List<Matcher> fatalSignatures = new ArrayList<>();
+    private volatile String fatalLine;
+
+    public EditorLogActivity() {
+        this(List.of());
+    }
+
+    /**
+     * @param fatalSignatures regular expressions, found anywhere in a line
+     */
+    public EditorLogActivity(List<String> fatalSignatures) {
+        for (String signature : fatalSignatures) this.fatalSignatures.add(Pattern.compile(signature).matcher(""));
+    }
+
+    /**
+     * Make the activity of a log visible to {@link #snapshot(String)} under the given id, once its parsing starts.
+     */
+    public static void register(String id, EditorLogActivity activity) {
+        // the log can't have had a line before
+        activity.lastLine = System.currentTimeMillis();
+        activities.put(id, activity);
+    }
+
+    /**
+     * Forget the activity of a log, once it was piped.
+     */
+    public static void release(String id, EditorLogActivity activity) {
+        activities.remove(id, activity);
+    }
+
+    /**
+     * @return the activity registered under the given id, or null if the log isn't being parsed in this JVM
+     */
+    public static Snapshot snapshot(String id) {
+        EditorLogActivity activity = activities.get(id);
+        return activity != null ? activity.snapshot() : null;
+    }
+
+    public synchronized void activityStarted(MatchedBlock block) {
+        open.push(block);
+    }
+
+    public synchronized void activityFinished(MatchedBlock block) {
+        open.remove(block);
+    }
+
+    public void logMessage(CharSequence line, Line.Type type) {
+        lastLine = System.currentTimeMillis();
+        if (fatalLine == null) {
+            for (Matcher signature : fatalSignatures) {
+                if (signature.reset(line).find()) {
+                    fatalLine = line.toString();
+                    break;
+                }
+            }
+        }
+    }
+
+    public synchronized Snapshot snapshot() {
+        List<String> blocks = new ArrayList<>(open.size());
+        for (MatchedBlock block : open) blocks.add(block.block.getName());
+        return new Snapshot(blocks, Math.max(0, System.currentTimeMillis() - lastLine), fatalLine);
+    }
+
+    /**
+     * The activity of a log at some point.
+     */
+    public static final class Snapshot implements Serializable {
+        @Serial
+        private static final long serialVersionUID = 1L;
+
+        private final List<String> blocks;
+        private final long idleMillis;
+        private final String fatalLine;
+
+        Snapshot(List<String> blocks, long idleMillis, String fatalLine) {
+            this.blocks = blocks;
+            this.idleMillis = idleMillis;
+            this.fatalLine = fatalLine;
+        }
+
+        /**
+         * @return the names of the open blocks, e.g. "Compile", the innermost first
+         */
+        public List<String> getBlocks() {
+            return Collections.unmodifiableList(blocks);
+        }
+
+        /**
+         * @return how long ago the log had its last line, or since it started being parsed if it has none yet
+         */
+        public long getIdleMillis() {
+            return idleMillis;
+        }
+
+        /**
+         * @return the first line matching a fatal signature, or null
+         */
+        public String getFatalLine() {
+            return fatalLine;
+        }
+    }
+}
@@ -2,4 +2,11 @@ package org.jenkinsci.plugins.unity3d.logs;
 
 public interface EditorLogParser {
     void log(String line);
+
+    /**
+     * Parse a line held in a buffer that may be reused once the call returns.
+     */
+    default void log(CharSequence line) {
+        log(line.toString());
+    }
 }
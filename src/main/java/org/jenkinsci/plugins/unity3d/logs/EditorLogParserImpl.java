@@ -3,48 +3,113 @@ package org.jenkinsci.plugins.unity3d.logs;
 import java.io.PrintWriter;
 import java.io.StringWriter;
 import java.io.Writer;
-import java.util.Stack;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.function.LongSupplier;
+import java.util.regex.Matcher;
 import org.jenkinsci.plugins.unity3d.logs.block.Block;
 import org.jenkinsci.plugins.unity3d.logs.block.MatchedBlock;
-import org.jenkinsci.plugins.unity3d.logs.block.UnityBlockList;
 import org.jenkinsci.plugins.unity3d.logs.line.Line;
-import org.jenkinsci.plugins.unity3d.logs.line.UnityLineList;
 
 /**
  * Created by IntelliJ IDEA.
  * User: clement.dagneau
  * Date: 15/12/2011
  * Time: 16:02
+ * <p>
+ * A parser keeps the state of a single log and is not thread safe. The rules it uses are immutable and shared, so any
+ * number of parsers can run concurrently.
+ * <p>
+ * The blocks are timestamped with the parser clock when they start and finish, before the listeners are told.
  */
 public class EditorLogParserImpl implements EditorLogParser {
-    private final Stack<MatchedBlock> blockStack = new Stack<>();
-    private LogListener listener;
-
-    interface LogListener {
+    /** Blocks nested deeper than this are ended, the outermost first (e.g. blocks whose end isn't recognized) */
+    static final int MAX_DEPTH = 32;
+
+    private final Deque<MatchedBlock> blockStack = new ArrayDeque<>(MAX_DEPTH);
+    private final EditorLogRules rules;
+    // matchers are not thread safe, so each parser has its own
+    private final Matcher[] lineMatchers;
+    private final Matcher[] beginMatchers;
+    private final Matcher[] endMatchers;
+    private final List<LogListener> listeners = new ArrayList<>();
+    private LongSupplier clock = System::currentTimeMillis;
+
+    /**
+     * Implement one of the {@code logMessage} methods, preferably the one taking a {@link CharSequence}.
+     */
+    public interface LogListener {
         void activityStarted(MatchedBlock block);
 
         void activityFinished(MatchedBlock block);
 
-        void logMessage(String line, Line.Type type);
+        /**
+         * @deprecated implement {@link #logMessage(CharSequence, Line.Type)}, which is called without creating a
+         *     String for each line
+         */
+        @Deprecated
+        default void logMessage(String line, Line.Type type) {
+            logMessage((CharSequence) line, type);
+        }
+
+        /**
+         * @param line the line, only valid during the call as it may be a reused buffer
+         */
+        default void logMessage(CharSequence line, Line.Type type) {
+            logMessage(line.toString(), type);
+        }
     }
 
     public void setListener(LogListener listener) {
-        this.listener = listener;
+        listeners.clear();
+        addListener(listener);
+    }
+
+    public void addListener(LogListener listener) {
+        if (listener != null) listeners.add(listener);
+    }
+
+    /**
+     * @param clock the time in milliseconds since the epoch, when the blocks start and finish
+     */
+    void setClock(LongSupplier clock) {
+        this.clock = clock;
     }
 
     EditorLogParserImpl() {
-        for (Block block : UnityBlockList.editorLogBlocks) block.init();
+        this(EditorLogRules.UNITY);
+    }
+
+    EditorLogParserImpl(EditorLogRules rules) {
+        this.rules = rules;
+        List<Line> lines = rules.getLines();
+        lineMatchers = new Matcher[lines.size()];
+        for (int i = 0; i < lineMatchers.length; i++) lineMatchers[i] = lines.get(i).matcher();
+        List<Block> blocks = rules.getBlocks();
+        beginMatchers = new Matcher[blocks.size()];
+        endMatchers = new Matcher[blocks.size()];
+        for (int i = 0; i < beginMatchers.length; i++) {
+            beginMatchers[i] = blocks.get(i).beginMatcher();
+            endMatchers[i] = blocks.get(i).endMatcher();
+        }
     }
 
     public void logActivityStart(MatchedBlock block) {
-        if (listener != null) listener.activityStarted(block);
+        block.setStartedAt(clock.getAsLong());
+        for (int i = 0; i < listeners.size(); i++) listeners.get(i).activityStarted(block);
     }
 
     public void logActivityEnd(MatchedBlock block) {
-        if (listener != null) listener.activityFinished(block);
+        block.setFinishedAt(clock.getAsLong());
+        for (int i = 0; i < listeners.size(); i++) listeners.get(i).activityFinished(block);
     }
 
     private void logBlockStart(MatchedBlock block) {
+        if (blockStack.size() == MAX_DEPTH) {
+            logActivityEnd(blockStack.removeLast());
+        }
         logActivityStart(block);
         blockStack.push(block);
     }
@@ -54,13 +119,27 @@ public class EditorLogParserImpl implements EditorLogParser {
     }
 
     public void log(String message) {
+        log((CharSequence) message);
+    }
+
+    /**
+     * Parse a line, without copying it.
+     */
+    public void log(CharSequence message) {
+        // Find out once which rules might apply to the message
+        long candidates = rules.candidates(message);
+
         // Check if new message is the end of the current block (if it exists).
-        if (!blockStack.empty()) {
-            Block.MatchType match = blockStack.peek().matchesEnd(message);
+        if (!blockStack.isEmpty()) {
+            Block block = blockStack.peek().block;
+            int index = rules.indexOf(block);
+            Block.MatchType match = rules.mayEnd(index, candidates)
+                    ? block.matchesEnd(endMatchers[index], message)
+                    : Block.MatchType.None;
 
             if (match == Block.MatchType.Inclusive) {
                 // include this line in the block
-                logLine(message);
+                logLine(message, candidates);
                 logBlockEnd();
                 return;
 
@@ -70,9 +149,11 @@ public class EditorLogParserImpl implements EditorLogParser {
         }
 
         // Check if line is the beginning of a new block.
-        for (Block block : UnityBlockList.editorLogBlocks) {
+        List<Block> blocks = rules.getBlocks();
+        for (int i = 0; i < blocks.size(); i++) {
+            if (!rules.mayBegin(i, candidates)) continue;
 
-            MatchedBlock matchedBlock = block.matchesBeginning(message);
+            MatchedBlock matchedBlock = blocks.get(i).matchesBeginning(beginMatchers[i], message);
             if (null != matchedBlock) {
 
                 if (matchedBlock.matchType == Block.MatchType.Inclusive) {
@@ -83,7 +164,7 @@ public class EditorLogParserImpl implements EditorLogParser {
                 } else if (matchedBlock.matchType == Block.MatchType.Exclusive) {
 
                     // exclude the line from the block, so log it out now
-                    logLine(message);
+                    logLine(message, candidates);
                     logBlockStart(matchedBlock);
                     return;
                 }
@@ -91,14 +172,15 @@ public class EditorLogParserImpl implements EditorLogParser {
         }
 
         // no blocks starting/ending so just log out!
-        logLine(message);
+        logLine(message, candidates);
     }
 
-    private void logLine(String message) {
+    private void logLine(CharSequence message, long candidates) {
         // Now check message
-        for (Line line : UnityLineList.lines) {
-            if (line.matches(message)) {
-                log(message, line.getType());
+        List<Line> lines = rules.getLines();
+        for (int i = 0; i < lines.size(); i++) {
+            if (rules.mayMatch(i, candidates) && lines.get(i).matches(lineMatchers[i], message)) {
+                log(message, lines.get(i).getType());
                 return;
             }
         }
@@ -107,8 +189,8 @@ public class EditorLogParserImpl implements EditorLogParser {
         log(message, Line.Type.Normal);
     }
 
-    private void log(String message, Line.Type type) {
-        if (listener != null) listener.logMessage(message, type);
+    private void log(CharSequence message, Line.Type type) {
+        for (int i = 0; i < listeners.size(); i++) listeners.get(i).logMessage(message, type);
     }
 
     public void logException(Exception e) {
@@ -0,0 +1,179 @@
+package org.jenkinsci.plugins.unity3d.logs;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import org.jenkinsci.plugins.unity3d.logs.block.MatchedBlock;
+import org.jenkinsci.plugins.unity3d.logs.line.Line;
+
+/**
+ * Records the Editor.log blocks (script compilation, asset updates, lightmapping...) as {@link Phase phases}, in the
+ * order they started, using the times the parser stamped them with.
+ * <p>
+ * A block starting while another one is open is nested in it, with a depth one more than its parent. Each phase
+ * also records the line of the Editor.log it starts at, to find it in an {@code EditorLogArchive}.
+ * <p>
+ * Unity logs an Update block per imported asset, thousands when importing a project: the Update blocks following each
+ * other make a single phase, the {@link AssetImportIndex} reporting the assets themselves.
+ */
+public final class EditorLogPhases implements EditorLogParserImpl.LogListener, Serializable {
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    private static final String UPDATE = "Update";
+
+    private final List<Phase> phases = new ArrayList<>();
+    // the parser may end an outer block first when the nesting gets too deep
+    private transient Map<MatchedBlock, Phase> open = new IdentityHashMap<>();
+    // the phase of the last Update blocks, until another block starts
+    private transient Phase updates;
+    private transient int updateCount;
+    private long lines;
+
+    public void activityStarted(MatchedBlock block) {
+        String name = block.block.getName();
+        int depth = open.size();
+        if (name.equals(UPDATE) && updates != null && updates.getDepth() == depth) {
+            updateCount++;
+            updates.label = UPDATE + ": " + updateCount + " assets";
+            open.put(block, updates);
+            return;
+        }
+        // an inclusive block starts at the line being parsed, an exclusive one at the next line, once it was logged
+        Phase phase = new Phase(name, block.getName(), depth, block.getStartedAt(), lines);
+        phases.add(phase);
+        open.put(block, phase);
+        updates = name.equals(UPDATE) ? phase : null;
+        updateCount = 1;
+    }
+
+    public void activityFinished(MatchedBlock block) {
+        Phase phase = open.remove(block);
+        if (phase != null) phase.finish(block.getFinishedAt(), true);
+    }
+
+    public void logMessage(CharSequence line, Line.Type type) {
+        lines++;
+    }
+
+    /**
+     * End the phases whose block end was never seen, e.g. when Unity exited in the middle of a block.
+     */
+    public void finish(long time) {
+        for (Phase phase : open.values()) phase.finish(time, false);
+        open.clear();
+    }
+
+    /**
+     * Add a phase that isn't a block of the Editor.log, e.g. the wait before Unity was started.
+     */
+    public void add(String name, long start, long end) {
+        Phase phase = new Phase(name, name, 0, start);
+        phase.finish(end, true);
+        phases.add(phase);
+    }
+
+    /**
+     * Add the phases of another log, e.g. parsed on the build node.
+     */
+    public void addAll(EditorLogPhases other) {
+        phases.addAll(other.phases);
+    }
+
+    public List<Phase> getPhases() {
+        return Collections.unmodifiableList(phases);
+    }
+
+    @Serial
+    private Object readResolve() {
+        open = new IdentityHashMap<>();
+        return this;
+    }
+
+    /**
+     * A block of the Editor.log, with the times it started and finished in milliseconds since the epoch.
+     */
+    public static final class Phase implements Serializable {
+        @Serial
+        private static final long serialVersionUID = 1L;
+
+        private final String name;
+        private String label;
+        private final int depth;
+        private final long start;
+        private final long line;
+        private long end;
+        private boolean complete;
+
+        public Phase(String name, String label, int depth, long start) {
+            this(name, label, depth, start, -1);
+        }
+
+        public Phase(String name, String label, int depth, long start, long line) {
+            this.name = name;
+            this.label = label;
+            this.depth = depth;
+            this.start = start;
+            this.line = line;
+            this.end = start;
+        }
+
+        void finish(long end, boolean complete) {
+            this.end = Math.max(start, end);
+            this.complete = complete;
+        }
+
+        /**
+         * @return the name of the block, e.g. "Compile"
+         */
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * @return the name of the block with what its beginning captured, e.g. "Lightmap: Assets/Main.unity"
+         */
+        public String getLabel() {
+            return label;
+        }
+
+        public int getDepth() {
+            return depth;
+        }
+
+        public long getStart() {
+            return start;
+        }
+
+        /**
+         * @return the line of the Editor.log the block starts at, from 0, or -1 if the phase isn't a block of the log
+         */
+        public long getLine() {
+            return line;
+        }
+
+        public long getEnd() {
+            return end;
+        }
+
+        public long getDuration() {
+            return end - start;
+        }
+
+        /**
+         * @return false if the end of the block wasn't found in the log
+         */
+        public boolean isComplete() {
+            return complete;
+        }
+
+        @Override
+        public String toString() {
+            return label + " [" + depth + "] " + start + "-" + end + (complete ? "" : " (incomplete)");
+        }
+    }
+}
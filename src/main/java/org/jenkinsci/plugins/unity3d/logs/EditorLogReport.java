@@ -0,0 +1,94 @@
+package org.jenkinsci.plugins.unity3d.logs;
+
+import java.io.Serial;
+import java.io.Serializable;
+import org.jenkinsci.plugins.unity3d.logs.block.MatchedBlock;
+import org.jenkinsci.plugins.unity3d.logs.line.Line;
+
+/**
+ * What was found in an Editor.log as it was parsed: its phases, asset imports and player size statistics, and how many
+ * lines, warnings and errors it has.
+ * <p>
+ * When the Editor.log is parsed on the build node, the report is sent back to the controller once the log was piped,
+ * and {@link #merge(EditorLogReport) merged} into the one of the launch.
+ */
+public final class EditorLogReport implements EditorLogParserImpl.LogListener, Serializable {
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    private final EditorLogPhases phases = new EditorLogPhases();
+    private final AssetImportIndex imports = new AssetImportIndex();
+    private PlayerSizeStatistics playerSize = new PlayerSizeStatistics();
+    private long lines;
+    private long warnings;
+    private long errors;
+
+    /**
+     * @param others also told about the log
+     * @return the listeners to parse the log with, this report included
+     */
+    public EditorLogParserImpl.LogListener[] getListeners(EditorLogParserImpl.LogListener... others) {
+        EditorLogParserImpl.LogListener[] listeners = new EditorLogParserImpl.LogListener[4 + others.length];
+        listeners[0] = this;
+        listeners[1] = phases;
+        listeners[2] = imports;
+        listeners[3] = playerSize;
+        System.arraycopy(others, 0, listeners, 4, others.length);
+        return listeners;
+    }
+
+    public void activityStarted(MatchedBlock block) {}
+
+    public void activityFinished(MatchedBlock block) {}
+
+    public void logMessage(CharSequence line, Line.Type type) {
+        lines++;
+        switch (type) {
+            case Normal:
+                break;
+            case Warning:
+                warnings++;
+                break;
+            case Failure:
+            case Error:
+                errors++;
+                break;
+        }
+    }
+
+    /**
+     * Add what was found in the log parsed elsewhere.
+     */
+    public void merge(EditorLogReport other) {
+        phases.addAll(other.phases);
+        imports.addAll(other.imports);
+        if (other.playerSize.isFound()) playerSize = other.playerSize;
+        lines += other.lines;
+        warnings += other.warnings;
+        errors += other.errors;
+    }
+
+    public EditorLogPhases getPhases() {
+        return phases;
+    }
+
+    public AssetImportIndex getImports() {
+        return imports;
+    }
+
+    public PlayerSizeStatistics getPlayerSize() {
+        return playerSize;
+    }
+
+    public long getLines() {
+        return lines;
+    }
+
+    public long getWarnings() {
+        return warnings;
+    }
+
+    public long getErrors() {
+        return errors;
+    }
+}
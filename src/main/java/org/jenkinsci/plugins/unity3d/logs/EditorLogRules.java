@@ -0,0 +1,98 @@
+package org.jenkinsci.plugins.unity3d.logs;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.jenkinsci.plugins.unity3d.logs.block.Block;
+import org.jenkinsci.plugins.unity3d.logs.block.UnityBlockList;
+import org.jenkinsci.plugins.unity3d.logs.line.Line;
+import org.jenkinsci.plugins.unity3d.logs.line.UnityLineList;
+
+/**
+ * The {@link Line} and {@link Block} rules used to classify the Editor.log, compiled once.
+ * <p>
+ * Each rule regular expression is analysed for a literal that any matching line must contain (e.g. "warning CS" for
+ * <code>.*?warning CS\d+.*?</code>). All those literals are searched at once with a {@link LiteralMatcher}, in a
+ * single pass over the line, and a rule regular expression is only run if its literal was found. Most log lines
+ * contain none of the literals, so their cost doesn't depend on the number of rules. Rules without such a literal
+ * are always run.
+ * <p>
+ * Immutable, and shared by all the parsers: each parser keeps its own {@link java.util.regex.Matcher}s.
+ */
+final class EditorLogRules {
+    static final EditorLogRules UNITY = new EditorLogRules(UnityLineList.lines, UnityBlockList.editorLogBlocks);
+
+    private final List<Line> lines;
+    private final List<Block> blocks;
+    private final LiteralMatcher prefilter;
+    /** the rules that have no literal, and must always be run */
+    private final long always;
+
+    /*
+     * Rules are numbered: the lines first, then the block beginnings, then the block ends. The candidate mask of a
+     * message has the bit of a rule set if the rule might match it.
+     */
+    EditorLogRules(List<Line> lines, List<Block> blocks) {
+        this.lines = List.copyOf(lines);
+        this.blocks = List.copyOf(blocks);
+        List<String> literals = new ArrayList<>();
+        for (Line line : lines) literals.add(LiteralMatcher.requiredLiteral(line.getRegex()));
+        for (Block block : blocks) literals.add(LiteralMatcher.requiredLiteral(block.getBeginning()));
+        for (Block block : blocks) literals.add(LiteralMatcher.requiredLiteral(block.getEnd()));
+        long noLiteral = 0;
+        for (int i = 0; i < literals.size(); i++) {
+            if (literals.get(i) == null) noLiteral |= 1L << i;
+        }
+        this.prefilter = new LiteralMatcher(literals);
+        this.always = noLiteral;
+    }
+
+    List<Line> getLines() {
+        return lines;
+    }
+
+    List<Block> getBlocks() {
+        return blocks;
+    }
+
+    /**
+     * @return the index of the block in {@link #getBlocks()}, or -1
+     */
+    int indexOf(Block block) {
+        for (int i = 0; i < blocks.size(); i++) {
+            if (blocks.get(i) == block) return i;
+        }
+        return -1;
+    }
+
+    /**
+     * @return the mask of the rules that might match the message
+     */
+    long candidates(CharSequence message) {
+        return prefilter.scan(message) | always;
+    }
+
+    /**
+     * @return false if the line at the given index surely doesn't match the message
+     */
+    boolean mayMatch(int lineIndex, long candidates) {
+        return isSet(candidates, lineIndex);
+    }
+
+    /**
+     * @return false if the block at the given index surely doesn't begin with the message
+     */
+    boolean mayBegin(int blockIndex, long candidates) {
+        return isSet(candidates, lines.size() + blockIndex);
+    }
+
+    /**
+     * @return false if the block at the given index surely doesn't end with the message
+     */
+    boolean mayEnd(int blockIndex, long candidates) {
+        return isSet(candidates, lines.size() + blocks.size() + blockIndex);
+    }
+
+    private static boolean isSet(long mask, int bit) {
+        return (mask & (1L << bit)) != 0;
+    }
+}
@@ -0,0 +1,219 @@
+package org.jenkinsci.plugins.unity3d.logs;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Queue;
+
+/**
+ * Finds which of a set of literals occur in a text, in a single pass over the text (Aho-Corasick).
+ * <p>
+ * The automaton is compiled into a transition table over ASCII characters. Literals containing other characters are
+ * not supported, and any other character in the scanned text simply restarts the matching. At most 64 literals are
+ * supported, so that the result of a scan fits in a bit mask.
+ * <p>
+ * Immutable and thread safe once built.
+ */
+final class LiteralMatcher {
+    static final int MAX_LITERALS = 64;
+    private static final int ALPHABET = 128;
+
+    /** state * ALPHABET + char -> next state */
+    private final int[] transitions;
+    /** state -> bit mask of the literals ending in this state */
+    private final long[] outputs;
+
+    /**
+     * @param literals the literals to find, indexed by their position in the mask returned by {@link #scan}. Null
+     *                 entries are allowed and never match.
+     */
+    LiteralMatcher(List<String> literals) {
+        if (literals.size() > MAX_LITERALS) {
+            throw new IllegalArgumentException("At most " + MAX_LITERALS + " literals are supported");
+        }
+        // build the trie
+        List<int[]> gotos = new ArrayList<>();
+        List<Long> outs = new ArrayList<>();
+        gotos.add(newRow());
+        outs.add(0L);
+        for (int i = 0; i < literals.size(); i++) {
+            String literal = literals.get(i);
+            if (literal == null || literal.isEmpty()) continue;
+            int state = 0;
+            for (int j = 0; j < literal.length(); j++) {
+                char c = literal.charAt(j);
+                if (c >= ALPHABET) {
+                    throw new IllegalArgumentException("Non ASCII literal: " + literal);
+                }
+                int next = gotos.get(state)[c];
+                if (next < 0) {
+                    next = gotos.size();
+                    gotos.add(newRow());
+                    outs.add(0L);
+                    gotos.get(state)[c] = next;
+                }
+                state = next;
+            }
+            outs.set(state, outs.get(state) | (1L << i));
+        }
+
+        // turn it into a automaton, computing the failure transitions breadth first
+        int states = gotos.size();
+        transitions = new int[states * ALPHABET];
+        outputs = new long[states];
+        int[] failure = new int[states];
+        Queue<Integer> queue = new ArrayDeque<>();
+        for (int c = 0; c < ALPHABET; c++) {
+            int next = gotos.get(0)[c];
+            transitions[c] = next < 0 ? 0 : next;
+            if (next > 0) queue.add(next);
+        }
+        outputs[0] = outs.get(0);
+        while (!queue.isEmpty()) {
+            int state = queue.remove();
+            outputs[state] = outs.get(state) | outputs[failure[state]];
+            for (int c = 0; c < ALPHABET; c++) {
+                int next = gotos.get(state)[c];
+                if (next < 0) {
+                    transitions[state * ALPHABET + c] = transitions[failure[state] * ALPHABET + c];
+                } else {
+                    failure[next] = transitions[failure[state] * ALPHABET + c];
+                    transitions[state * ALPHABET + c] = next;
+                    queue.add(next);
+                }
+            }
+        }
+    }
+
+    private static int[] newRow() {
+        int[] row = new int[ALPHABET];
+        Arrays.fill(row, -1);
+        return row;
+    }
+
+    /**
+     * @return the bit mask of the literals found in the text
+     */
+    long scan(CharSequence text) {
+        long found = 0;
+        int state = 0;
+        for (int i = 0, len = text.length(); i < len; i++) {
+            char c = text.charAt(i);
+            state = c < ALPHABET ? transitions[state * ALPHABET + c] : 0;
+            found |= outputs[state];
+        }
+        return found;
+    }
+
+    /**
+     * Find a literal that any string matching the regular expression must contain.
+     * <p>
+     * The analysis is conservative: it only considers runs of plain ASCII characters outside of groups and character
+     * classes, dropping characters made optional by a quantifier, and gives up on alternations, inline flags and the
+     * escapes taking arguments.
+     *
+     * @return the longest such literal, which {@link LiteralMatcher} supports, or null if none was found
+     */
+    static String requiredLiteral(String regex) {
+        if (regex.contains("(?") || regex.contains("\\Q")) return null;
+        String best = "";
+        StringBuilder run = new StringBuilder();
+        int i = 0;
+        while (i < regex.length()) {
+            char c = regex.charAt(i);
+            switch (c) {
+                case '\\':
+                    if (i + 1 >= regex.length()) return null;
+                    char escaped = regex.charAt(i + 1);
+                    if (Character.isDigit(escaped) || "xuckpPN".indexOf(escaped) >= 0) {
+                        // \x41, \0101, \cA, \k<name>, \p{Lu}, \N{name}, the unicode escapes, or a back reference
+                        // taking more digits: what follows isn't literal
+                        return null;
+                    }
+                    if (Character.isLetter(escaped) || escaped >= ALPHABET) {
+                        // \d, \s, \b...
+                        best = longest(best, run);
+                    } else {
+                        run.append(escaped);
+                    }
+                    i += 2;
+                    continue;
+                case '[':
+                    best = longest(best, run);
+                    i = skipClass(regex, i);
+                    continue;
+                case '(':
+                    best = longest(best, run);
+                    i = skipGroup(regex, i);
+                    continue;
+                case '|':
+                    return null;
+                case '*':
+                case '?':
+                case '{':
+                    // the previous character is optional
+                    if (run.length() > 0) run.setLength(run.length() - 1);
+                    best = longest(best, run);
+                    if (c == '{') {
+                        int close = regex.indexOf('}', i);
+                        if (close < 0) return null;
+                        i = close + 1;
+                        continue;
+                    }
+                    break;
+                case '+':
+                case '.':
+                case '^':
+                case '$':
+                    best = longest(best, run);
+                    break;
+                default:
+                    if (c >= ALPHABET) best = longest(best, run);
+                    else run.append(c);
+            }
+            i++;
+        }
+        best = longest(best, run);
+        return best.isEmpty() ? null : best;
+    }
+
+    private static String longest(String best, StringBuilder run) {
+        String s = run.toString();
+        run.setLength(0);
+        return s.length() > best.length() ? s : best;
+    }
+
+    /** @return the index following the character class starting at i */
+    private static int skipClass(String regex, int i) {
+        int j = i + 1;
+        if (j < regex.length() && regex.charAt(j) == '^') j++;
+        if (j < regex.length() && regex.charAt(j) == ']') j++;
+        int depth = 1;
+        while (j < regex.length() && depth > 0) {
+            char c = regex.charAt(j);
+            if (c == '\\') j++;
+            else if (c == '[') depth++;
+            else if (c == ']') depth--;
+            j++;
+        }
+        return j;
+    }
+
+    /** @return the index following the group starting at i */
+    private static int skipGroup(String regex, int i) {
+        int j = i + 1;
+        int depth = 1;
+        while (j < regex.length() && depth > 0) {
+            char c = regex.charAt(j);
+            if (c == '\\') j++;
+            else if (c == '[') {
+                j = skipClass(regex, j);
+                continue;
+            } else if (c == '(') depth++;
+            else if (c == ')') depth--;
+            j++;
+        }
+        return j;
+    }
+}
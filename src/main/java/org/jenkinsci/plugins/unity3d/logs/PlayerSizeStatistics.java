@@ -0,0 +1,203 @@
+package org.jenkinsci.plugins.unity3d.logs;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import jenkins.util.SystemProperties;
+import org.jenkinsci.plugins.unity3d.logs.block.MatchedBlock;
+import org.jenkinsci.plugins.unity3d.logs.block.PlayerStatisticsBlock;
+import org.jenkinsci.plugins.unity3d.logs.line.Line;
+
+/**
+ * Parses the player size statistics of the Editor.log (its {@link PlayerStatisticsBlock}) as it streams:
+ * <pre>
+ * ***Player size statistics***
+ * Total compressed size 13.3 mb. Total uncompressed size 34.5 mb.
+ * Textures      3.3 mb     24.8%
+ * Scripts       1.1 mb     8.4%
+ * ...
+ * Used Assets, sorted by uncompressed size:
+ *  2.7 mb     20.5% Assets/Textures/Splash.png
+ * </pre>
+ * If the log has several statistics, e.g. when a step builds several players, the last ones are kept.
+ */
+public final class PlayerSizeStatistics implements EditorLogParserImpl.LogListener, Serializable {
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    /** How many of the largest assets to keep */
+    static final int DEFAULT_SIZE = SystemProperties.getInteger(PlayerSizeStatistics.class.getName() + ".size", 25);
+
+    /** The budget name of the total compressed size */
+    public static final String COMPRESSED = "compressed";
+    /** The budget name of the total uncompressed size */
+    public static final String UNCOMPRESSED = "uncompressed";
+
+    private static final String SIZE = "([0-9.]+ ?[kmgKMG]?[bB])";
+    private static final Pattern TOTAL =
+            Pattern.compile("Total compressed size " + SIZE + "\\. Total uncompressed size " + SIZE + "\\.\\s*");
+    private static final Pattern CATEGORY = Pattern.compile("([A-Za-z][A-Za-z ]*?)\\s+" + SIZE + "\\s+[0-9.]+%\\s*");
+    private static final Pattern ASSET = Pattern.compile("\\s*" + SIZE + "\\s+[0-9.]+%\\s+(.+)");
+    private static final Pattern SIZE_VALUE = Pattern.compile("\\s*([0-9]+(?:\\.[0-9]*)?)\\s*([kmg]?b)?\\s*");
+
+    private final int size;
+    private long compressed = -1;
+    private long uncompressed = -1;
+    private final Map<String, Long> categories = new LinkedHashMap<>();
+    private final List<Asset> largest = new ArrayList<>();
+
+    private transient boolean inStatistics;
+    private transient Matcher total;
+    private transient Matcher category;
+    private transient Matcher asset;
+
+    public PlayerSizeStatistics() {
+        this(DEFAULT_SIZE);
+    }
+
+    public PlayerSizeStatistics(int size) {
+        this.size = size;
+    }
+
+    public void activityStarted(MatchedBlock block) {
+        if (block.block instanceof PlayerStatisticsBlock) {
+            inStatistics = true;
+            compressed = uncompressed = -1;
+            categories.clear();
+            largest.clear();
+        }
+    }
+
+    public void activityFinished(MatchedBlock block) {
+        if (block.block instanceof PlayerStatisticsBlock) inStatistics = false;
+    }
+
+    public void logMessage(CharSequence line, Line.Type type) {
+        if (!inStatistics) return;
+        if (total == null) {
+            total = TOTAL.matcher("");
+            category = CATEGORY.matcher("");
+            asset = ASSET.matcher("");
+        }
+        if (total.reset(line).matches()) {
+            compressed = parseSize(total.group(1));
+            uncompressed = parseSize(total.group(2));
+        } else if (category.reset(line).matches()) {
+            categories.put(category.group(1), parseSize(category.group(2)));
+        } else if (largest.size() < size && asset.reset(line).matches()) {
+            // Unity lists them the largest first
+            largest.add(new Asset(asset.group(2).trim(), parseSize(asset.group(1))));
+        }
+    }
+
+    /**
+     * @return true if the statistics were found in the log
+     */
+    public boolean isFound() {
+        return compressed >= 0 || !categories.isEmpty();
+    }
+
+    /**
+     * @return the total compressed size in bytes, or -1 if unknown
+     */
+    public long getCompressed() {
+        return compressed;
+    }
+
+    /**
+     * @return the total uncompressed size in bytes, or -1 if unknown
+     */
+    public long getUncompressed() {
+        return uncompressed;
+    }
+
+    /**
+     * @return the size in bytes of each category, e.g. "Textures" or "Included DLLs", in the log order
+     */
+    public Map<String, Long> getCategories() {
+        return Collections.unmodifiableMap(categories);
+    }
+
+    /**
+     * @return the largest assets, the largest first
+     */
+    public List<Asset> getLargest() {
+        return Collections.unmodifiableList(largest);
+    }
+
+    /**
+     * @param name {@link #COMPRESSED}, {@link #UNCOMPRESSED} or a category name, ignoring case
+     * @return the size in bytes, or -1 if unknown
+     */
+    public long getSize(String name) {
+        if (COMPRESSED.equalsIgnoreCase(name)) return compressed;
+        if (UNCOMPRESSED.equalsIgnoreCase(name)) return uncompressed;
+        for (Map.Entry<String, Long> e : categories.entrySet()) {
+            if (e.getKey().equalsIgnoreCase(name)) return e.getValue();
+        }
+        return -1;
+    }
+
+    /**
+     * Parse a size as Unity logs it, e.g. "13.3 mb", or as configured, e.g. "20MB" or "1024" (bytes).
+     *
+     * @return the size in bytes
+     * @throws IllegalArgumentException if the size can't be parsed
+     */
+    public static long parseSize(String s) {
+        Matcher m = SIZE_VALUE.matcher(s.toLowerCase(Locale.ROOT));
+        if (!m.matches()) throw new IllegalArgumentException("Not a size: " + s);
+        double value = Double.parseDouble(m.group(1));
+        String unit = m.group(2) == null ? "b" : m.group(2);
+        switch (unit) {
+            case "kb":
+                value *= 1024;
+                break;
+            case "mb":
+                value *= 1024 * 1024;
+                break;
+            case "gb":
+                value *= 1024 * 1024 * 1024;
+                break;
+            default:
+                break;
+        }
+        return Math.round(value);
+    }
+
+    public static final class Asset implements Serializable {
+        @Serial
+        private static final long serialVersionUID = 1L;
+
+        private final String path;
+        private final long size;
+
+        public Asset(String path, long size) {
+            this.path = path;
+            this.size = size;
+        }
+
+        public String getPath() {
+            return path;
+        }
+
+        /**
+         * @return the uncompressed size in bytes
+         */
+        public long getSize() {
+            return size;
+        }
+
+        @Override
+        public String toString() {
+            return path + " " + size;
+        }
+    }
+}
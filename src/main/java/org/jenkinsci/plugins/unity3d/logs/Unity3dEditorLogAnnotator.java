@@ -23,71 +23,249 @@
  */
 package org.jenkinsci.plugins.unity3d.logs;
 
-import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import hudson.Util;
 import hudson.console.LineTransformationOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
 import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.LongSupplier;
+import org.jenkinsci.plugins.unity3d.io.Syncable;
+import org.jenkinsci.plugins.unity3d.logs.Unity3dEditorLogNote.Kind;
 import org.jenkinsci.plugins.unity3d.logs.block.MatchedBlock;
+import org.jenkinsci.plugins.unity3d.logs.block.UpdateBlock;
 import org.jenkinsci.plugins.unity3d.logs.line.Line;
 
 /**
- * Filter {@link java.io.OutputStream} that places an annotation that marks Ant target execution.
+ * Filter {@link java.io.OutputStream} that places annotations marking the Unity3d Editor.log blocks, warnings and
+ * errors. See {@link Unity3dEditorLogNote}.
+ * <p>
+ * {@link #close()} also closes the underlying stream: use {@link #forceEol()} to flush a last incomplete line when the
+ * stream is the build console.
+ * <p>
+ * The annotator can run on the build node, next to the Editor.log, so that the controller only receives the console
+ * output: the lines the {@link ConsoleVerbosity} keeps, with their notes encoded beforehand on the controller.
  *
  * @author Jerome Lacoste
  */
 public class Unity3dEditorLogAnnotator extends LineTransformationOutputStream
-        implements EditorLogParserImpl.LogListener {
+        implements EditorLogParserImpl.LogListener, Syncable {
     private final OutputStream out;
     private final Charset charset;
+    private final ConsoleVerbosity verbosity;
+    /** the notes encoded on the controller, or null to encode them here */
+    private final byte[][] notes;
+    private final CharsetDecoder decoder;
+    /** true if the charset encodes ASCII characters as single bytes, like UTF-8 and most others do */
+    private final boolean asciiCompatible;
+    // reused between lines
+    private CharBuffer chars = CharBuffer.allocate(256);
+    private ByteBuffer bytes;
+    // the length of the incomplete line held until its end
+    private long held;
+
+    // the notes for the current line
+    private final List<Kind> pending = new ArrayList<>();
+    private boolean lineLogged;
+    private Line.Type lineType;
+    private int depth;
+    // the blocks finished by the current line, when summarizing them
+    private final StringBuilder summaries = new StringBuilder();
 
     private EditorLogParser logParser;
 
-    public Unity3dEditorLogAnnotator(OutputStream out, Charset charset) {
+    /**
+     * @param listeners also told about the blocks and lines of the log, e.g. to record them
+     */
+    public Unity3dEditorLogAnnotator(OutputStream out, Charset charset, EditorLogParserImpl.LogListener... listeners) {
+        this(out, charset, ConsoleVerbosity.FULL, null, null, listeners);
+    }
+
+    /**
+     * @param verbosity how much of the log to copy into the output
+     * @param notes the notes from {@link Unity3dEditorLogNote#encodeAll()}, as encoding them needs Jenkins, or null to
+     *     encode them when first written
+     * @param clock when the blocks start and finish, in milliseconds since the epoch, or null for the current time
+     * @param listeners also told about the blocks and lines of the log, e.g. to record them
+     */
+    public Unity3dEditorLogAnnotator(
+            OutputStream out,
+            Charset charset,
+            ConsoleVerbosity verbosity,
+            byte[][] notes,
+            LongSupplier clock,
+            EditorLogParserImpl.LogListener... listeners) {
         this.out = out;
         this.charset = charset;
-        this.logParser = new EditorLogParserImpl();
+        this.verbosity = verbosity;
+        this.notes = notes;
+        this.decoder = charset.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        this.asciiCompatible = isAsciiCompatible(charset);
+        EditorLogParserImpl parser = new EditorLogParserImpl();
+        parser.setListener(this);
+        for (EditorLogParserImpl.LogListener listener : listeners) parser.addListener(listener);
+        if (clock != null) parser.setClock(clock);
+        this.logParser = parser;
     }
 
-    public void activityStarted(MatchedBlock block) {}
+    private static boolean isAsciiCompatible(Charset charset) {
+        byte[] ascii = new byte[128];
+        for (int i = 0; i < ascii.length; i++) ascii[i] = (byte) i;
+        return charset.canEncode()
+                && Arrays.equals(ascii, new String(ascii, StandardCharsets.US_ASCII).getBytes(charset));
+    }
 
-    public void activityFinished(MatchedBlock block) {}
+    public void activityStarted(MatchedBlock block) {
+        depth++;
+        pending.add(Kind.BLOCK_START);
+    }
 
-    @SuppressFBWarnings(value = "UC_USELESS_VOID_METHOD", justification = "Legacy code")
-    public void logMessage(String line, Line.Type type) {
+    public void activityFinished(MatchedBlock block) {
+        depth--;
+        // a block ending after its last line is reported once the line was logged
+        pending.add(lineLogged ? Kind.BLOCK_END_AFTER : Kind.BLOCK_END_BEFORE);
+        // the asset imports are too many to summarize, and have their own report
+        if (verbosity == ConsoleVerbosity.PHASES && depth == 0 && !(block.block instanceof UpdateBlock)) {
+            summarize(block);
+        }
+    }
+
+    private void summarize(MatchedBlock block) {
+        summaries
+                .append("[Unity3d] ")
+                .append(block.getName())
+                .append(": ")
+                .append(Util.getTimeSpanString(block.getFinishedAt() - block.getStartedAt()))
+                .append('\n');
+    }
+
+    public void logMessage(CharSequence line, Line.Type type) {
+        lineLogged = true;
+        lineType = type;
         switch (type) {
             case Normal:
-                // out.write();
                 break;
             case Warning:
+                pending.add(Kind.WARNING);
                 break;
             case Failure:
-                break;
             case Error:
+                pending.add(Kind.ERROR);
                 break;
         }
     }
 
     @Override
-    protected void eol(byte[] b, int len) throws IOException {
-        String line = charset.decode(ByteBuffer.wrap(b, 0, len)).toString();
+    public void write(int b) throws IOException {
+        // the array writes of LineTransformationOutputStream also come through here
+        held++;
+        super.write(b);
+    }
 
+    @Override
+    protected void eol(byte[] b, int len) throws IOException {
+        held = 0;
         // trim off CR/LF from the end
-        line = trimEOL(line);
+        int end = len;
+        while (end > 0 && (b[end - 1] == '\n' || b[end - 1] == '\r')) end--;
 
-        handle(line);
+        lineLogged = false;
+        lineType = Line.Type.Normal;
+        handle(decode(b, end));
+
+        if (summaries.length() > 0) {
+            out.write(summaries.toString().getBytes(charset));
+            summaries.setLength(0);
+        }
 
-        out.write(b, 0, len);
+        if (verbosity.shows(lineType)) {
+            // the notes apply to the line following them
+            for (int i = 0; i < pending.size(); i++) {
+                Kind kind = pending.get(i);
+                // without all their lines, the blocks can't be sections
+                if (verbosity == ConsoleVerbosity.FULL || kind == Kind.WARNING || kind == Kind.ERROR) {
+                    writeNote(kind);
+                }
+            }
+            out.write(b, 0, len);
+        }
+        pending.clear();
+    }
+
+    private void writeNote(Kind kind) throws IOException {
+        if (notes != null) out.write(notes[kind.ordinal()]);
+        else Unity3dEditorLogNote.encodeTo(kind, out);
+    }
+
+    /**
+     * Decode the line into a reused buffer, copying ASCII lines without going through the decoder.
+     */
+    private CharSequence decode(byte[] b, int len) {
+        if (asciiCompatible && decodeAscii(b, len)) {
+            return chars;
+        }
+        int capacity = (int) Math.ceil(len * (double) decoder.maxCharsPerByte());
+        if (chars.capacity() < capacity) {
+            chars = CharBuffer.allocate(capacity);
+        }
+        if (bytes == null || bytes.array() != b) {
+            bytes = ByteBuffer.wrap(b);
+        }
+        bytes.limit(len).position(0);
+        chars.clear();
+        decoder.reset();
+        decoder.decode(bytes, chars, true);
+        decoder.flush(chars);
+        chars.flip();
+        return chars;
     }
 
-    private void handle(String line) {
+    private boolean decodeAscii(byte[] b, int len) {
+        if (chars.capacity() < len) {
+            chars = CharBuffer.allocate(Integer.highestOneBit(len) << 1);
+        }
+        char[] a = chars.array();
+        for (int i = 0; i < len; i++) {
+            byte c = b[i];
+            if (c < 0) return false;
+            a[i] = (char) c;
+        }
+        chars.clear().limit(len);
+        return true;
+    }
+
+    private void handle(CharSequence line) {
         logParser.log(line);
     }
 
-    private boolean endsWith(String line, char c) {
-        int len = line.length();
-        return len > 0 && line.charAt(len - 1) == c;
+    /**
+     * Flush the underlying stream, e.g. so that a batching pipe sends what it has. An incomplete line is kept until its
+     * end.
+     */
+    @Override
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    /**
+     * Sync the underlying stream, e.g. a batching pipe. An incomplete line is still kept until its end.
+     *
+     * @return the length of the incomplete line
+     */
+    @Override
+    public long sync() throws IOException {
+        // the pipes under the annotator hold nothing back once synced
+        Syncable.sync(out);
+        return held;
     }
 
     @Override
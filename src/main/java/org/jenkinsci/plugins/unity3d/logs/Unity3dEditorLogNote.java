@@ -0,0 +1,109 @@
+package org.jenkinsci.plugins.unity3d.logs;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import hudson.Extension;
+import hudson.MarkupText;
+import hudson.console.ConsoleAnnotationDescriptor;
+import hudson.console.ConsoleAnnotator;
+import hudson.console.ConsoleNote;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Serial;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Marks the Editor.log lines in the console: the blocks (Compile, Prepare Build, Lightmap, Update, Player statistics)
+ * become collapsible sections, and warnings and errors are highlighted.
+ * <p>
+ * A block is delimited by a marker at its beginning, wrapping the line that starts it, and a marker at its end. The
+ * sections are built by script.js once both markers are displayed, so that blocks still being written stay expanded.
+ * <p>
+ * The notes carry no data besides their kind, so each kind is encoded once and the bytes are reused.
+ */
+public class Unity3dEditorLogNote extends ConsoleNote<Object> {
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    public enum Kind {
+        /** the line starts a block */
+        BLOCK_START,
+        /** the block ends after the line */
+        BLOCK_END_AFTER,
+        /** the block ends before the line */
+        BLOCK_END_BEFORE,
+        WARNING,
+        ERROR
+    }
+
+    // encoded lazily, as encoding needs Jenkins to be running
+    private static final AtomicReferenceArray<byte[]> ENCODED = new AtomicReferenceArray<>(Kind.values().length);
+
+    private final Kind kind;
+
+    public Unity3dEditorLogNote(Kind kind) {
+        this.kind = kind;
+    }
+
+    public Kind getKind() {
+        return kind;
+    }
+
+    /**
+     * Write the note of the given kind, encoded once for all.
+     */
+    static void encodeTo(Kind kind, OutputStream out) throws IOException {
+        byte[] encoded = ENCODED.get(kind.ordinal());
+        if (encoded == null) {
+            ByteArrayOutputStream b = new ByteArrayOutputStream();
+            new Unity3dEditorLogNote(kind).encodeTo(b);
+            encoded = b.toByteArray();
+            ENCODED.set(kind.ordinal(), encoded);
+        }
+        out.write(encoded);
+    }
+
+    /**
+     * @return the encoded notes of all kinds, by {@link Kind#ordinal()}, e.g. for a build node to write them
+     */
+    public static byte[][] encodeAll() throws IOException {
+        byte[][] all = new byte[Kind.values().length][];
+        for (Kind kind : Kind.values()) {
+            ByteArrayOutputStream b = new ByteArrayOutputStream();
+            encodeTo(kind, b);
+            all[kind.ordinal()] = b.toByteArray();
+        }
+        return all;
+    }
+
+    @Override
+    public ConsoleAnnotator<Object> annotate(Object context, MarkupText text, int charPos) {
+        switch (kind) {
+            case BLOCK_START:
+                text.addMarkup(0, text.length(), "<span class=\"unity3d-block-start\">", "</span>");
+                break;
+            case BLOCK_END_AFTER:
+                text.addMarkup(text.length(), "<span class=\"unity3d-block-end\"></span>");
+                break;
+            case BLOCK_END_BEFORE:
+                text.addMarkup(0, "<span class=\"unity3d-block-end\"></span>");
+                break;
+            case WARNING:
+                text.addMarkup(0, text.length(), "<span class=\"unity3d-warning\">", "</span>");
+                break;
+            case ERROR:
+                text.addMarkup(0, text.length(), "<span class=\"unity3d-error\">", "</span>");
+                break;
+        }
+        return null;
+    }
+
+    @Extension
+    public static final class DescriptorImpl extends ConsoleAnnotationDescriptor {
+        @Override
+        @NonNull
+        public String getDisplayName() {
+            return "Unity3d Editor.log";
+        }
+    }
+}
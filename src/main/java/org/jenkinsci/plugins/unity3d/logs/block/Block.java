@@ -5,6 +5,9 @@ import java.util.regex.Pattern;
 
 /**
  * A matchable block of text
+ * <p>
+ * Blocks are not modified once created and can be shared between threads. The methods taking a {@link Matcher} let
+ * each parser reuse its own matchers, obtained from {@link #beginMatcher()} and {@link #endMatcher()}.
  */
 public class Block {
     protected String beginning;
@@ -15,10 +18,45 @@ public class Block {
 
     protected Pattern beginPattern;
     protected Pattern endPattern;
+    /**
+     * @deprecated shared by the threads using the block, use {@link #beginMatcher()}
+     */
+    @Deprecated
     protected Matcher beginMatcher;
+    /**
+     * @deprecated shared by the threads using the block, use {@link #endMatcher()}
+     */
+    @Deprecated
     protected Matcher endMatcher;
 
-    public void init() {
+    /**
+     * @deprecated for the blocks setting their fields themselves, the patterns are then compiled when first used. Use
+     *     the other constructors.
+     */
+    @Deprecated
+    protected Block() {}
+
+    protected Block(String name, String beginning, String end) {
+        this(name, beginning, MatchType.Inclusive, end, MatchType.Inclusive);
+    }
+
+    protected Block(String name, String beginning, MatchType beginMatchType, String end, MatchType endMatchType) {
+        this.name = name;
+        this.beginning = beginning;
+        this.beginMatchType = beginMatchType;
+        this.end = end;
+        this.endMatchType = endMatchType;
+        this.beginPattern = Pattern.compile(beginning);
+        this.endPattern = Pattern.compile(end);
+    }
+
+    /**
+     * Compile the patterns, once the fields are set.
+     *
+     * @deprecated the patterns are compiled when the block is created, or first used
+     */
+    @Deprecated
+    public synchronized void init() {
         beginPattern = Pattern.compile(beginning);
         endPattern = Pattern.compile(end);
         beginMatcher = beginPattern.matcher("");
@@ -31,15 +69,40 @@ public class Block {
         Exclusive
     }
 
-    protected MatchedBlock newMatchBlock(Matcher matcher, String message) {
-        String blockName = name;
+    protected MatchedBlock newMatchBlock(Matcher matcher, CharSequence message) {
+        String detail = null;
         if (matcher.groupCount() > 0) {
-            blockName = name + ": " + matcher.group(1);
+            // copied, as the message may be a reused buffer
+            detail = matcher.group(1);
         }
-        return new MatchedBlock(this, blockName, beginMatchType);
+        return new MatchedBlock(this, beginMatchType, detail);
+    }
+
+    /**
+     * @return a new matcher for the beginning of this block, to be used by a single thread
+     */
+    public synchronized Matcher beginMatcher() {
+        // not compiled yet if the block was created with Block()
+        if (beginPattern == null) init();
+        return beginPattern.matcher("");
+    }
+
+    /**
+     * @return a new matcher for the end of this block, to be used by a single thread
+     */
+    public synchronized Matcher endMatcher() {
+        if (endPattern == null) init();
+        return endPattern.matcher("");
     }
 
     public MatchedBlock matchesBeginning(String message) {
+        return matchesBeginning(beginMatcher(), message);
+    }
+
+    /**
+     * @param beginMatcher a matcher obtained from {@link #beginMatcher()}
+     */
+    public MatchedBlock matchesBeginning(Matcher beginMatcher, CharSequence message) {
         beginMatcher.reset(message);
         if (beginMatcher.matches()) {
             return newMatchBlock(beginMatcher, message);
@@ -49,6 +112,13 @@ public class Block {
     }
 
     public MatchType matchesEnd(String message) {
+        return matchesEnd(endMatcher(), message);
+    }
+
+    /**
+     * @param endMatcher a matcher obtained from {@link #endMatcher()}
+     */
+    public MatchType matchesEnd(Matcher endMatcher, CharSequence message) {
         endMatcher.reset(message);
         if (endMatcher.matches()) return endMatchType;
         else return MatchType.None;
@@ -57,4 +127,12 @@ public class Block {
     public String getName() {
         return name;
     }
+
+    public String getBeginning() {
+        return beginning;
+    }
+
+    public String getEnd() {
+        return end;
+    }
 }
@@ -9,9 +9,6 @@ package org.jenkinsci.plugins.unity3d.logs.block;
  */
 public class CompileBlock extends Block {
     public CompileBlock() {
-        beginning = "-----Compiler Commandline Arguments:";
-        end = "-----EndCompilerOutput---------------";
-
-        name = "Compile";
+        super("Compile", "-----Compiler Commandline Arguments:", "-----EndCompilerOutput---------------");
     }
 }
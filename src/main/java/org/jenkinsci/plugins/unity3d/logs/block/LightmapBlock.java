@@ -8,8 +8,6 @@ package org.jenkinsci.plugins.unity3d.logs.block;
  */
 public class LightmapBlock extends Block {
     public LightmapBlock() {
-        name = "Lightmap";
-        beginning = "---- Lightmapping Start for (.*) ----";
-        end = "---- Lightmapping End for (.*) ----";
+        super("Lightmap", "---- Lightmapping Start for (.*) ----", "---- Lightmapping End for (.*) ----");
     }
 }
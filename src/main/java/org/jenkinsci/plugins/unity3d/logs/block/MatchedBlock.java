@@ -2,23 +2,67 @@ package org.jenkinsci.plugins.unity3d.logs.block;
 
 /**
  * store a matched block + some state
+ * <p>
+ * The parser records when the block started and finished, in milliseconds since the epoch (0 until then).
  */
 public class MatchedBlock {
 
     public final Block block;
+    /**
+     * @deprecated use {@link #getName()}
+     */
+    @Deprecated
     public final String name;
+
     public final Block.MatchType matchType;
+    private final String detail;
+    private long startedAt;
+    private long finishedAt;
 
     public MatchedBlock(Block block, String name, Block.MatchType matchType) {
         this.block = block;
         this.name = name;
         this.matchType = matchType;
+        this.detail = null;
+    }
+
+    MatchedBlock(Block block, Block.MatchType matchType, String detail) {
+        this.block = block;
+        this.name = detail == null ? block.getName() : block.getName() + ": " + detail;
+        this.matchType = matchType;
+        this.detail = detail;
     }
 
+    /**
+     * @return the name of the block with the text captured by its beginning, e.g. "Lightmap: Assets/Main.unity"
+     */
     public String getName() {
         return name;
     }
 
+    /**
+     * @return the text captured by the beginning of the block, or null
+     */
+    public String getDetail() {
+        return detail;
+    }
+
+    public long getStartedAt() {
+        return startedAt;
+    }
+
+    public void setStartedAt(long startedAt) {
+        this.startedAt = startedAt;
+    }
+
+    public long getFinishedAt() {
+        return finishedAt;
+    }
+
+    public void setFinishedAt(long finishedAt) {
+        this.finishedAt = finishedAt;
+    }
+
     public Block.MatchType matchesEnd(String message) {
         return block.matchesEnd(message);
     }
@@ -9,10 +9,11 @@ package org.jenkinsci.plugins.unity3d.logs.block;
  */
 public class PlayerStatisticsBlock extends Block {
     public PlayerStatisticsBlock() {
-        beginning = "\\*\\*\\*Player size statistics\\*\\*\\*";
-        end = "Unloading.*";
-        endMatchType = MatchType.Exclusive;
-
-        name = "Player statistics";
+        super(
+                "Player statistics",
+                "\\*\\*\\*Player size statistics\\*\\*\\*",
+                MatchType.Inclusive,
+                "Unloading.*",
+                MatchType.Exclusive);
     }
 }
@@ -9,8 +9,6 @@ package org.jenkinsci.plugins.unity3d.logs.block;
 public class PrepareBlock extends Block {
 
     public PrepareBlock() {
-        name = "Prepare Build";
-        beginning = "---- PrepareBuild Start ----";
-        end = "---- PrepareBuild End ----";
+        super("Prepare Build", "---- PrepareBuild Start ----", "---- PrepareBuild End ----");
     }
 }
@@ -2,9 +2,6 @@ package org.jenkinsci.plugins.unity3d.logs.block;
 
 public class UpdateBlock extends Block {
     public UpdateBlock() {
-        beginning = "Updating (.+) - GUID: .*";
-        end = "\\s*done: hash - .+";
-
-        name = "Update";
+        super("Update", "Updating (.+) - GUID: .*", "\\s*done(: hash - .+|\\. \\[Time: .+ ms\\])");
     }
 }
@@ -1,5 +1,8 @@
 package org.jenkinsci.plugins.unity3d.logs.line;
 
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
 /**
  * Created by IntelliJ IDEA.
  * User: clement.dagneau
@@ -17,14 +20,34 @@ public class Line {
 
     protected String regex;
     protected Type type;
+    private final Pattern pattern;
 
     public Line(String regex, Type type) {
         this.regex = regex;
         this.type = type;
+        this.pattern = Pattern.compile(regex);
+    }
+
+    public boolean matches(CharSequence message) {
+        return pattern.matcher(message).matches();
+    }
+
+    /**
+     * @return a new matcher for this line, to be used by a single thread
+     */
+    public Matcher matcher() {
+        return pattern.matcher("");
+    }
+
+    /**
+     * @param matcher a matcher obtained from {@link #matcher()}
+     */
+    public boolean matches(Matcher matcher, CharSequence message) {
+        return matcher.reset(message).matches();
     }
 
-    public boolean matches(String message) {
-        return message.matches(regex);
+    public String getRegex() {
+        return regex;
     }
 
     public Type getType() {
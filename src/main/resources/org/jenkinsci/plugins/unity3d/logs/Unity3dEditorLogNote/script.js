@@ -0,0 +1,39 @@
+// Turns the Unity3d Editor.log blocks into collapsible sections, once their end is displayed.
+Behaviour.specify("span.unity3d-block-end", "unity3d-block-end", 0, function (end) {
+  // blocks are nested, so the block ending here is the last one started before and not closed yet
+  var starts = document.querySelectorAll("span.unity3d-block-start:not(.unity3d-block-closed)");
+  var start = null;
+  for (var i = starts.length - 1; i >= 0; i--) {
+    if (starts[i].compareDocumentPosition(end) & Node.DOCUMENT_POSITION_FOLLOWING) {
+      start = starts[i];
+      break;
+    }
+  }
+  if (start == null) {
+    return;
+  }
+  start.classList.add("unity3d-block-closed");
+
+  // move everything between the markers into the body of the section
+  var range = document.createRange();
+  range.setStartAfter(start);
+  range.setEndBefore(end);
+  var body = document.createElement("span");
+  body.className = "unity3d-block-body";
+  body.appendChild(range.extractContents());
+  range.insertNode(body);
+
+  var toggle = document.createElement("a");
+  toggle.className = "unity3d-block-toggle";
+  toggle.href = "#";
+  start.insertBefore(toggle, start.firstChild);
+  var setCollapsed = function (collapsed) {
+    body.style.display = collapsed ? "none" : "";
+    toggle.textContent = collapsed ? "[+] " : "[-] ";
+  };
+  toggle.addEventListener("click", function (e) {
+    e.preventDefault();
+    setCollapsed(body.style.display !== "none");
+  });
+  setCollapsed(true);
+});
@@ -0,0 +1,42 @@
+package org.jenkinsci.plugins.unity3d;
+
+import jenkins.benchmark.jmh.BenchmarkFinder;
+import org.junit.Test;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+
+/**
+ * Runs the JMH benchmarks annotated with {@link jenkins.benchmark.jmh.JmhBenchmark}.
+ * <p>
+ * Not a regular test: run it with <code>mvn -Pbenchmark test</code>. Set the <code>benchmark.include</code> system
+ * property to a regular expression to only run some of the benchmarks. The results are written to
+ * target/jmh-report.json.
+ */
+public class BenchmarkRunner {
+    @Test
+    public void runJmhBenchmarks() throws Exception {
+        ChainedOptionsBuilder options = new OptionsBuilder()
+                .warmupIterations(3)
+                .warmupTime(TimeValue.seconds(2))
+                .measurementIterations(5)
+                .measurementTime(TimeValue.seconds(2))
+                .forks(1)
+                .threads(1)
+                .shouldFailOnError(true)
+                .addProfiler(GCProfiler.class)
+                .resultFormat(ResultFormatType.JSON)
+                .result("target/jmh-report.json");
+
+        String include = System.getProperty("benchmark.include");
+        if (include != null) {
+            options.include(include);
+        } else {
+            new BenchmarkFinder(getClass()).findBenchmarks(options);
+        }
+        new Runner(options.build()).run();
+    }
+}
@@ -2,9 +2,13 @@ package org.jenkinsci.plugins.unity3d;
 
 import static java.util.Arrays.asList;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assume.assumeFalse;
 
 import hudson.EnvVars;
+import hudson.FilePath;
+import hudson.Functions;
 import hudson.util.ArgumentListBuilder;
+import java.io.File;
 import java.util.HashSet;
 import java.util.Hashtable;
 import java.util.List;
@@ -138,4 +142,71 @@ public class Unity3dBuilderTest {
             //
         }
     }
+
+    @Test
+    public void projectKeyIsTheResolvedProjectDirectory() {
+        assumeFalse(Functions.isWindows());
+        FilePath workspace = new FilePath(new File(moduleRootRemote));
+        assertEquals(moduleRootRemote, Unity3dBuilder.toProjectKey(workspace, moduleRootRemote));
+        assertEquals(moduleRootRemote + "/Game", Unity3dBuilder.toProjectKey(workspace, "Game"));
+        assertEquals(moduleRootRemote + "/Game", Unity3dBuilder.toProjectKey(workspace, "./Game/"));
+        assertEquals(moduleRootRemote + "/Game", Unity3dBuilder.toProjectKey(workspace, "Tools/../Game"));
+        assertEquals("/Projects/Game", Unity3dBuilder.toProjectKey(workspace, "/Projects/Game"));
+    }
+
+    @Test
+    public void playerSizeBudgetsParsing() {
+        assertEquals(Map.of(), Unity3dBuilder.toPlayerSizeBudgets(""));
+        assertEquals(
+                Map.of("compressed", 20L * 1024 * 1024, "Included DLLs", 1536L),
+                Unity3dBuilder.toPlayerSizeBudgets("compressed=20mb, Included DLLs = 1.5 KB"));
+        assertEquals(Map.of("Textures", 1000L), Unity3dBuilder.toPlayerSizeBudgets("Textures=1000"));
+        ensurePlayerSizeBudgetsParsingFails("compressed");
+        ensurePlayerSizeBudgetsParsingFails("compressed=20 parsecs");
+        ensurePlayerSizeBudgetsParsingFails("=20mb");
+    }
+
+    @Test
+    public void inactivityTimeoutsParsing() {
+        assertEquals(Map.of(), Unity3dBuilder.toInactivityTimeouts(""));
+        Map<String, Long> timeouts = Unity3dBuilder.toInactivityTimeouts("30m, Compile=90s, Lightmap = 1.5h");
+        assertEquals(Map.of("", 1800000L, "Compile", 90000L, "Lightmap", 5400000L), timeouts);
+        assertEquals(Long.valueOf(90000L), timeouts.get("compile"));
+        assertEquals(Map.of("", 500L), Unity3dBuilder.toInactivityTimeouts("500ms"));
+        ensureInactivityTimeoutsParsingFails("30");
+        ensureInactivityTimeoutsParsingFails("Compile=10 parsecs");
+        ensureInactivityTimeoutsParsingFails("=10m");
+    }
+
+    @Test
+    public void fatalSignaturesParsing() {
+        assertEquals(List.of(), Unity3dBuilder.toFatalSignatures(" \n"));
+        assertEquals(
+                List.of("Compilation failed:", "Scripts have compiler errors\\."),
+                Unity3dBuilder.toFatalSignatures("Compilation failed:\r\n\n  Scripts have compiler errors\\.  "));
+        try {
+            Unity3dBuilder.toFatalSignatures("Compilation failed: (");
+            Assert.fail("Expected failure");
+        } catch (IllegalArgumentException expected) {
+            //
+        }
+    }
+
+    private void ensureInactivityTimeoutsParsingFails(String timeouts) {
+        try {
+            Unity3dBuilder.toInactivityTimeouts(timeouts);
+            Assert.fail("Expected failure");
+        } catch (Exception expected) {
+            //
+        }
+    }
+
+    private void ensurePlayerSizeBudgetsParsingFails(String budgets) {
+        try {
+            Unity3dBuilder.toPlayerSizeBudgets(budgets);
+            Assert.fail("Expected failure");
+        } catch (Exception expected) {
+            //
+        }
+    }
 }
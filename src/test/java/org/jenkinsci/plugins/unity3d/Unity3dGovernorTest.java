@@ -0,0 +1,121 @@
+package org.jenkinsci.plugins.unity3d;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.CompletableFuture;
+import org.jenkinsci.plugins.unity3d.Unity3dGovernor.Permit;
+import org.jenkinsci.plugins.unity3d.Unity3dGovernor.Statistics;
+import org.junit.Test;
+
+public class Unity3dGovernorTest {
+    private static final long GB = 1024L * 1024 * 1024;
+
+    private long now = 1000;
+    private final Unity3dGovernor governor = new Unity3dGovernor(() -> now);
+
+    @Test
+    public void limitsTheEditorsPerNode() {
+        CompletableFuture<Permit> a = governor.acquire("agent", 2, 0, 0, "/ws/a");
+        CompletableFuture<Permit> b = governor.acquire("agent", 2, 0, 0, "/ws/b");
+        CompletableFuture<Permit> c = governor.acquire("agent", 2, 0, 0, "/ws/c");
+        CompletableFuture<Permit> other = governor.acquire("other", 2, 0, 0, "/ws/c");
+        assertTrue(a.isDone());
+        assertTrue(b.isDone());
+        assertFalse(c.isDone());
+        assertTrue(other.isDone());
+
+        now += 5000;
+        a.join().release();
+        assertTrue(c.isDone());
+        assertEquals(5000, c.join().getWaitMillis());
+
+        // released once only
+        a.join().release();
+        assertFalse(governor.acquire("agent", 2, 0, 0, "/ws/d").isDone());
+    }
+
+    @Test
+    public void reservesMemory() {
+        CompletableFuture<Permit> a = governor.acquire("agent", 0, 32 * GB, 12 * GB, "/ws/a");
+        CompletableFuture<Permit> b = governor.acquire("agent", 0, 32 * GB, 12 * GB, "/ws/b");
+        CompletableFuture<Permit> c = governor.acquire("agent", 0, 32 * GB, 12 * GB, "/ws/c");
+        assertTrue(a.isDone());
+        assertTrue(b.isDone());
+        assertFalse(c.isDone());
+        assertEquals(24 * GB, governor.getStatistics("agent").getReservedMemory());
+
+        b.join().release();
+        assertTrue(c.isDone());
+    }
+
+    @Test
+    public void alwaysAdmitsAnEditorAlone() {
+        assertTrue(governor.acquire("agent", 0, 8 * GB, 16 * GB, "/ws/a").isDone());
+    }
+
+    @Test
+    public void waitsForTheProjectOnly() {
+        CompletableFuture<Permit> a = governor.acquire("agent", 2, 0, 0, "/ws/a");
+        CompletableFuture<Permit> sameProject = governor.acquire("agent", 2, 0, 0, "/ws/a");
+        CompletableFuture<Permit> b = governor.acquire("agent", 2, 0, 0, "/ws/b");
+        assertFalse(sameProject.isDone());
+        assertTrue(b.isDone());
+
+        a.join().release();
+        assertTrue(sameProject.isDone());
+    }
+
+    @Test
+    public void admitsInOrder() {
+        CompletableFuture<Permit> a = governor.acquire("agent", 0, 32 * GB, 20 * GB, "/ws/a");
+        CompletableFuture<Permit> big = governor.acquire("agent", 0, 32 * GB, 20 * GB, "/ws/big");
+        // would fit, but mustn't overtake the bigger one forever
+        CompletableFuture<Permit> small = governor.acquire("agent", 0, 32 * GB, 4 * GB, "/ws/small");
+        assertFalse(big.isDone());
+        assertFalse(small.isDone());
+
+        a.join().release();
+        assertTrue(big.isDone());
+        assertTrue(small.isDone());
+    }
+
+    @Test
+    public void withdrawsCancelledRequests() {
+        CompletableFuture<Permit> a = governor.acquire("agent", 1, 0, 0, "/ws/a");
+        CompletableFuture<Permit> b = governor.acquire("agent", 1, 0, 0, "/ws/b");
+        CompletableFuture<Permit> c = governor.acquire("agent", 1, 0, 0, "/ws/c");
+        assertEquals(2, governor.getStatistics("agent").getQueued());
+
+        assertTrue(b.cancel(false));
+        assertEquals(1, governor.getStatistics("agent").getQueued());
+
+        a.join().release();
+        assertTrue(c.isDone());
+        assertEquals(1, governor.getStatistics("agent").getRunning());
+    }
+
+    @Test
+    public void measuresTheQueueWait() {
+        assertNull(governor.getStatistics("agent"));
+
+        CompletableFuture<Permit> a = governor.acquire("agent", 1, 0, 0, "/ws/a");
+        CompletableFuture<Permit> b = governor.acquire("agent", 1, 0, 0, "/ws/b");
+        CompletableFuture<Permit> c = governor.acquire("agent", 1, 0, 0, "/ws/c");
+        now += 3000;
+        assertEquals(3000, governor.getStatistics("agent").getOldestQueuedMillis());
+        a.join().release();
+        now += 6000;
+        b.join().release();
+
+        Statistics statistics = governor.getStatistics("agent");
+        assertEquals(3, statistics.getAdmitted());
+        assertEquals(1, statistics.getRunning());
+        assertEquals(0, statistics.getQueued());
+        assertEquals((0 + 3000 + 9000) / 3, statistics.getMeanWaitMillis());
+        assertEquals(9000, statistics.getMaxWaitMillis());
+        assertEquals(9000, c.join().getWaitMillis());
+    }
+}
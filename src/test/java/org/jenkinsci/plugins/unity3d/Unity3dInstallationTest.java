@@ -0,0 +1,74 @@
+package org.jenkinsci.plugins.unity3d;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import hudson.Functions;
+import hudson.Launcher;
+import hudson.model.TaskListener;
+import hudson.slaves.DumbSlave;
+import java.io.File;
+import java.util.List;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.jvnet.hudson.test.JenkinsRule;
+
+public class Unity3dInstallationTest {
+    @Rule
+    public JenkinsRule rule = new JenkinsRule();
+
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    @Test
+    public void probesOncePerNodeAndHome() throws Exception {
+        Unity3dInstallation unity = new Unity3dInstallation("Unity", fakeUnityHome().getPath(), List.of());
+        Launcher local = rule.createLocalLauncher();
+
+        Unity3dInstallation.AgentProbe probe = unity.probe(local);
+        assertTrue(probe.isExecutableFound());
+        assertTrue(new File(probe.getExecutable()).isFile());
+        assertNotNull(probe.getEditorLogPath());
+        assertEquals(System.getProperty("os.name"), probe.getOs());
+        assertSame(probe, unity.probe(local));
+
+        // another node
+        DumbSlave agent = rule.createOnlineSlave();
+        Launcher remote = agent.createLauncher(TaskListener.NULL);
+        Unity3dInstallation.AgentProbe agentProbe = unity.probe(remote);
+        assertNotSame(probe, agentProbe);
+        assertSame(agentProbe, unity.probe(remote));
+
+        // another home
+        Unity3dInstallation moved = new Unity3dInstallation("Unity", fakeUnityHome().getPath(), List.of());
+        assertNotSame(probe, moved.probe(local));
+    }
+
+    @Test
+    public void missingExecutablesAreProbedAgain() throws Exception {
+        File home = tmp.newFolder("NotUnity");
+        Unity3dInstallation unity = new Unity3dInstallation("Unity", home.getPath(), List.of());
+        Launcher local = rule.createLocalLauncher();
+
+        Unity3dInstallation.AgentProbe probe = unity.probe(local);
+        assertFalse(probe.isExecutableFound());
+        assertTrue(probe.getInvalidInstallMessage().contains(probe.getExecutable()));
+        assertNotSame(probe, unity.probe(local));
+    }
+
+    private File fakeUnityHome() throws Exception {
+        File home = tmp.newFolder();
+        String exe = Functions.isWindows()
+                ? "Editor/Unity.exe"
+                : Functions2.isMac() ? "Contents/MacOS/Unity" : "Editor/Unity";
+        File file = new File(home, exe);
+        assertTrue(file.getParentFile().mkdirs());
+        assertTrue(file.createNewFile());
+        return home;
+    }
+}
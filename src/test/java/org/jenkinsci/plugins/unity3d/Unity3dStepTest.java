@@ -0,0 +1,197 @@
+package org.jenkinsci.plugins.unity3d;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeFalse;
+
+import hudson.Functions;
+import hudson.model.Result;
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.jenkinsci.plugins.unity3d.io.EditorLogArchive;
+import org.jenkinsci.plugins.workflow.cps.CpsFlowDefinition;
+import org.jenkinsci.plugins.workflow.job.WorkflowJob;
+import org.jenkinsci.plugins.workflow.job.WorkflowRun;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.jvnet.hudson.test.JenkinsRule;
+
+public class Unity3dStepTest {
+    @Rule
+    public JenkinsRule rule = new JenkinsRule();
+
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    @Before
+    public void installFakeUnity() throws Exception {
+        assumeFalse(Functions.isWindows());
+        // writes to its -logFile, with player size statistics if -stats, then exits with its -exitCode, or hangs with
+        // -hang
+        File home = tmp.newFolder();
+        File unity = new File(home, Functions2.isMac() ? "Contents/MacOS/Unity" : "Editor/Unity");
+        assertTrue(unity.getParentFile().mkdirs());
+        Files.writeString(
+                unity.toPath(),
+                String.join(
+                        "\n",
+                        "#!/bin/sh",
+                        "code=0",
+                        "while [ $# -gt 0 ]; do",
+                        "  case \"$1\" in",
+                        "    -logFile) log=\"$2\"; shift;;",
+                        "    -exitCode) code=\"$2\"; shift;;",
+                        "    -hang) hang=1;;",
+                        "    -stats) stats=1;;",
+                        "  esac",
+                        "  shift",
+                        "done",
+                        "sleep 1",
+                        "echo \"Editor.log of $log\" >> \"$log\"",
+                        "if [ -n \"$stats\" ]; then",
+                        "  echo '***Player size statistics***' >> \"$log\"",
+                        "  echo 'Total compressed size 13.5 mb. Total uncompressed size 34.0 mb.' >> \"$log\"",
+                        "fi",
+                        "if [ -n \"$hang\" ]; then sleep 600; fi",
+                        "exit $code",
+                        ""),
+                StandardCharsets.UTF_8);
+        assertTrue(unity.setExecutable(true));
+        rule.jenkins
+                .getDescriptorByType(Unity3dBuilder.DescriptorImpl.class)
+                .setInstallations(new Unity3dInstallation("Unity", home.getPath(), List.of()));
+        rule.jenkins.setNumExecutors(2);
+    }
+
+    @Test
+    public void runsParallelBranches() throws Exception {
+        WorkflowRun run = run(
+                "parallel android: {\n"
+                        + "  node { unity3d unity3dName: 'Unity', argLine: '-batchmode -logFile android.log' }\n"
+                        + "}, ios: {\n"
+                        + "  node { unity3d unity3dName: 'Unity', argLine: '-batchmode -logFile ios.log' }\n"
+                        + "}",
+                Result.SUCCESS);
+        rule.assertLogContains("Editor.log of android.log", run);
+        rule.assertLogContains("Editor.log of ios.log", run);
+    }
+
+    @Test
+    public void writesAnEditorLogPerLaunch() throws Exception {
+        WorkflowRun run = run(
+                "parallel android: {\n"
+                        + "  node { unity3d unity3dName: 'Unity', argLine: '-batchmode' }\n"
+                        + "}, ios: {\n"
+                        + "  node { unity3d unity3dName: 'Unity', argLine: '-batchmode' }\n"
+                        + "}",
+                Result.SUCCESS);
+        Set<String> logs = new HashSet<>();
+        Matcher m = Pattern.compile("Editor\\.log of (.*unity3d-editor-.*\\.log)").matcher(JenkinsRule.getLog(run));
+        while (m.find()) logs.add(m.group(1));
+        assertEquals(2, logs.size());
+        for (String log : logs) {
+            assertFalse(log + " is deleted", new File(log).exists());
+        }
+    }
+
+    @Test
+    public void archivesTheEditorLog() throws Exception {
+        WorkflowRun run = run(
+                "node { unity3d unity3dName: 'Unity', argLine: '-logFile a.log', archiveEditorLog: true }",
+                Result.SUCCESS);
+        Unity3dEditorLogAction action = run.getAction(Unity3dEditorLogAction.class);
+        assertEquals(1, action.getArchives().size());
+        Unity3dEditorLogAction.Archive archive = action.getArchives().get(0);
+        assertEquals(1, archive.getLines());
+        File file = Unity3dEditorLogAction.getFile(run, archive.getId());
+        try (EditorLogArchive.Reader reader = new EditorLogArchive.Reader(file.toPath())) {
+            assertTrue(reader.readLines(0, 1).get(0).startsWith("Editor.log of "));
+        }
+        assertTrue(rule.createWebClient()
+                .goTo(run.getUrl() + "unity3d-editor-log/lines?archive=0&line=1", "text/plain")
+                .getWebResponse()
+                .getContentAsString()
+                .startsWith("Editor.log of "));
+    }
+
+    @Test
+    public void unstableReturnCodes() throws Exception {
+        WorkflowRun run = run(
+                "node { unity3d unity3dName: 'Unity', argLine: '-logFile a.log -exitCode 3', "
+                        + "unstableReturnCodes: '2,3' }",
+                Result.UNSTABLE);
+        rule.assertLogContains("Editor.log of a.log", run);
+    }
+
+    @Test
+    public void failsOnOtherReturnCodes() throws Exception {
+        WorkflowRun run = run(
+                "node { unity3d unity3dName: 'Unity', argLine: '-logFile a.log -exitCode 4', "
+                        + "unstableReturnCodes: '3' }",
+                Result.FAILURE);
+        rule.assertLogContains(Messages.Unity3d_UnityExecFailed(4), run);
+        rule.assertLogContains("Editor.log of a.log", run);
+    }
+
+    @Test
+    public void checksThePlayerSizeBudgets() throws Exception {
+        WorkflowRun run = run(
+                "node { unity3d unity3dName: 'Unity', argLine: '-logFile a.log -stats', "
+                        + "playerSizeBudgets: 'compressed=1mb, Sprites=1kb' }",
+                Result.UNSTABLE);
+        rule.assertLogContains(Messages.Unity3d_PlayerSizeUnknownBudget("Sprites"), run);
+        rule.assertLogContains("The player compressed size is", run);
+    }
+
+    @Test
+    public void ignoresInvalidPlayerSizeBudgets() throws Exception {
+        WorkflowRun run = run(
+                "node { unity3d unity3dName: 'Unity', argLine: '-logFile a.log -stats', "
+                        + "playerSizeBudgets: 'compressed' }",
+                Result.SUCCESS);
+        rule.assertLogContains(Messages.Unity3d_InvalidParamPlayerSizeBudgets("compressed"), run);
+        assertEquals(1, run.getActions(Unity3dPlayerSizeAction.class).size());
+    }
+
+    @Test
+    public void killsUnity3dWhenTheEditorLogIsSilent() throws Exception {
+        WorkflowRun run = run(
+                "node { unity3d unity3dName: 'Unity', argLine: '-logFile a.log -hang', inactivityTimeouts: '1s' }",
+                Result.FAILURE);
+        rule.assertLogContains("over the inactivity timeout of 1 sec", run);
+        rule.assertLogContains(Messages.Unity3d_ProcessTree(), run);
+        rule.assertLogContains("Editor.log of a.log", run);
+        assertTrue(run.getDuration() < 60000);
+    }
+
+    @Test
+    public void killsUnity3dOnAFatalLine() throws Exception {
+        WorkflowRun run = run(
+                "node { unity3d unity3dName: 'Unity', argLine: '-logFile a.log -hang', "
+                        + "fatalSignatures: 'Editor\\\\.log of' }",
+                Result.FAILURE);
+        rule.assertLogContains(Messages.Unity3d_Fatal("Editor.log of a.log"), run);
+        assertTrue(run.getDuration() < 60000);
+    }
+
+    @Test
+    public void failsWithoutInstallation() throws Exception {
+        WorkflowRun run = run("node { unity3d unity3dName: 'Missing' }", Result.FAILURE);
+        rule.assertLogContains(Messages.Unity3d_NoUnity3dInstallation(), run);
+    }
+
+    private WorkflowRun run(String script, Result expected) throws Exception {
+        WorkflowJob job = rule.createProject(WorkflowJob.class, "unity");
+        job.setDefinition(new CpsFlowDefinition(script, true));
+        return rule.assertBuildStatus(expected, job.scheduleBuild2(0));
+    }
+}
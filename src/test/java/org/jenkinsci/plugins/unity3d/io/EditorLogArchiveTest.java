@@ -0,0 +1,96 @@
+package org.jenkinsci.plugins.unity3d.io;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class EditorLogArchiveTest {
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    @Test
+    public void readsFromAnyLine() throws Exception {
+        Path archive = tmp.getRoot().toPath().resolve("Editor.log.gz");
+        StringBuilder log = new StringBuilder();
+        try (EditorLogArchive.Writer writer = new EditorLogArchive.Writer(archive, 1024)) {
+            for (int i = 0; i < 10000; i++) {
+                String line = "line " + i + "\r\n";
+                log.append(line);
+                // in odd chunks, as the tail copies them
+                writer.write(line.getBytes(StandardCharsets.UTF_8));
+                if (i % 7 == 0) writer.flush();
+            }
+        }
+
+        try (EditorLogArchive.Reader reader = new EditorLogArchive.Reader(archive)) {
+            assertEquals(10000, reader.getLines());
+            assertEquals(log.length(), reader.getBytes());
+            assertTrue(reader.getCompressedBytes() < reader.getBytes());
+            assertEquals(List.of("line 0", "line 1"), reader.readLines(0, 2));
+            assertEquals(List.of("line 4321", "line 4322", "line 4323"), reader.readLines(4321, 3));
+            assertEquals(List.of("line 9999"), reader.readLines(9999, 5));
+            assertTrue(reader.readLines(10000, 5).isEmpty());
+        }
+
+        // the blocks make up a plain gzip file
+        assertEquals(log.toString(), gunzip(archive));
+    }
+
+    @Test
+    public void readsLinesLongerThanBlocks() throws Exception {
+        Path archive = tmp.getRoot().toPath().resolve("Editor.log.gz");
+        String longLine = "x".repeat(5000);
+        try (EditorLogArchive.Writer writer = new EditorLogArchive.Writer(archive, 1024)) {
+            writer.write(("first\n" + longLine + "\nlast").getBytes(StandardCharsets.UTF_8));
+        }
+
+        try (EditorLogArchive.Reader reader = new EditorLogArchive.Reader(archive)) {
+            assertEquals(3, reader.getLines());
+            assertEquals(List.of(longLine), reader.readLines(1, 1));
+            assertEquals(List.of(longLine, "last"), reader.readLines(1, 10));
+            assertEquals(List.of("last"), reader.readLines(2, 10));
+        }
+    }
+
+    @Test
+    public void archivesAnEmptyLog() throws Exception {
+        Path archive = tmp.getRoot().toPath().resolve("Editor.log.gz");
+        EditorLogArchive.Writer writer = new EditorLogArchive.Writer(archive);
+        writer.close();
+        assertTrue(writer.isComplete());
+
+        try (EditorLogArchive.Reader reader = new EditorLogArchive.Reader(archive)) {
+            assertEquals(0, reader.getLines());
+            assertTrue(reader.readLines(0, 10).isEmpty());
+        }
+    }
+
+    @Test
+    public void stopsArchivingOnFailure() throws Exception {
+        Path archive = tmp.getRoot().toPath().resolve("missing/Editor.log.gz");
+        EditorLogArchive.Writer writer = new EditorLogArchive.Writer(archive, 16);
+        writer.write("a line longer than a block\n".getBytes(StandardCharsets.UTF_8));
+        writer.close();
+        assertFalse(writer.isComplete());
+        assertFalse(Files.exists(EditorLogArchive.indexOf(archive)));
+    }
+
+    private static String gunzip(Path archive) throws Exception {
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(archive))) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            in.transferTo(out);
+            return out.toString(StandardCharsets.UTF_8);
+        }
+    }
+}
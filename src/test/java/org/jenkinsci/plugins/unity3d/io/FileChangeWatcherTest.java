@@ -0,0 +1,74 @@
+package org.jenkinsci.plugins.unity3d.io;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class FileChangeWatcherTest {
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    @Test
+    public void seesAChange() throws Exception {
+        Path log = tmp.newFile("Editor.log").toPath();
+        try (FileChangeWatcher watcher = new FileChangeWatcher(log)) {
+            // e.g. macOS, where the watcher polls
+            assumeTrue(watcher.isWatching());
+            Files.writeString(log, "line\n", StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+            assertTrue(watcher.await());
+        }
+    }
+
+    @Test
+    public void seesAFileCreatedAfterWatchingStarted() throws Exception {
+        Path log = tmp.getRoot().toPath().resolve("Editor.log");
+        try (FileChangeWatcher watcher = new FileChangeWatcher(log)) {
+            assumeTrue(watcher.isWatching());
+            Files.writeString(log, "line\n", StandardCharsets.UTF_8);
+            assertTrue(watcher.await());
+        }
+    }
+
+    @Test
+    public void ignoresTheOtherFilesOfTheDirectory() throws Exception {
+        Path log = tmp.newFile("Editor.log").toPath();
+        try (FileChangeWatcher watcher = new FileChangeWatcher(log)) {
+            assumeTrue(watcher.isWatching());
+            Files.writeString(tmp.getRoot().toPath().resolve("Player.log"), "line\n", StandardCharsets.UTF_8);
+            // times out
+            assertFalse(watcher.await());
+        }
+    }
+
+    @Test
+    public void pollsWhenTheDirectoryCantBeWatched() throws Exception {
+        Path log = tmp.getRoot().toPath().resolve("missing").resolve("Editor.log");
+        try (FileChangeWatcher watcher = new FileChangeWatcher(log)) {
+            assertFalse(watcher.isWatching());
+            long start = System.nanoTime();
+            assertFalse(watcher.await());
+            assertTrue(System.nanoTime() - start < 10 * FileChangeWatcher.POLL_MILLIS * 1_000_000);
+
+            watcher.wakeup();
+            assertTrue(watcher.await());
+        }
+    }
+
+    @Test
+    public void wakeupEndsAWatch() throws Exception {
+        Path log = tmp.newFile("Editor.log").toPath();
+        try (FileChangeWatcher watcher = new FileChangeWatcher(log)) {
+            watcher.wakeup();
+            assertTrue(watcher.await());
+            assertFalse(watcher.isWatching());
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package org.jenkinsci.plugins.unity3d.io;
+
+import static org.junit.Assert.assertEquals;
+
+import hudson.console.LineTransformationOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class FileTailTest {
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    private final ByteArrayOutputStream collected = new ByteArrayOutputStream();
+
+    @Test
+    public void copiesOnlyAppendedContent() throws Exception {
+        Path log = tmp.newFile("Editor.log").toPath();
+        try (FileTail tail = new FileTail(log)) {
+            append(log, "first\n");
+            assertEquals(6, tail.copyTo(collected));
+            assertEquals(0, tail.copyTo(collected));
+            append(log, "second\n");
+            assertEquals(7, tail.copyTo(collected));
+        }
+        assertEquals("first\nsecond\n", collected.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void rewindsWhenTruncated() throws Exception {
+        Path log = tmp.newFile("Editor.log").toPath();
+        try (FileTail tail = new FileTail(log)) {
+            append(log, "a long first run\n");
+            tail.copyTo(collected);
+            Files.writeString(log, "new\n", StandardCharsets.UTF_8, StandardOpenOption.TRUNCATE_EXISTING);
+            assertEquals(4, tail.copyTo(collected));
+        }
+        assertEquals("a long first run\nnew\n", collected.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void finishesOldFileAndFollowsRecreatedOne() throws Exception {
+        Path log = tmp.newFile("Editor.log").toPath();
+        File prev = new File(tmp.getRoot(), "Editor-prev.log");
+        try (FileTail tail = new FileTail(log)) {
+            append(log, "old 1\n");
+            tail.copyTo(collected);
+            append(log, "old 2\n");
+            Files.move(log, prev.toPath());
+            append(log, "new 1\n");
+            assertEquals(12, tail.copyTo(collected));
+        }
+        assertEquals("old 1\nold 2\nnew 1\n", collected.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void copiesContentLargerThanTheBuffer() throws Exception {
+        Path log = tmp.newFile("Editor.log").toPath();
+        byte[] content = new byte[FileTail.BUFFER_SIZE * 3 + 17];
+        Arrays.fill(content, (byte) 'x');
+        Files.write(log, content);
+        try (FileTail tail = new FileTail(log)) {
+            assertEquals(content.length, tail.copyTo(collected));
+        }
+        assertEquals(content.length, collected.size());
+    }
+
+    @Test
+    public void copiesIntoALineParser() throws Exception {
+        // as a local build does, straight into the console annotator
+        Path log = tmp.newFile("Editor.log").toPath();
+        List<String> lines = new ArrayList<>();
+        LineTransformationOutputStream parser = new LineTransformationOutputStream() {
+            @Override
+            protected void eol(byte[] b, int len) {
+                lines.add(new String(b, 0, len, StandardCharsets.UTF_8));
+            }
+        };
+        byte[] content = new byte[FileTail.BUFFER_SIZE + 5];
+        Arrays.fill(content, (byte) 'z');
+        content[content.length - 1] = '\n';
+        try (FileTail tail = new FileTail(log)) {
+            Files.write(log, content);
+            append(log, "half a ");
+            assertEquals(content.length + 7, tail.copyTo(parser));
+            assertEquals(1, lines.size());
+            append(log, "line\n");
+            assertEquals(5, tail.copyTo(parser));
+        }
+        assertEquals(List.of(new String(content, StandardCharsets.UTF_8), "half a line\n"), lines);
+    }
+
+    private static void append(Path log, String s) throws Exception {
+        Files.writeString(log, s, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+}
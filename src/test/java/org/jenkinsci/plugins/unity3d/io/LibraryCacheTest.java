@@ -0,0 +1,197 @@
+package org.jenkinsci.plugins.unity3d.io;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.stream.Stream;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class LibraryCacheTest {
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    @Test
+    public void restoresWhatWasSaved() throws Exception {
+        LibraryCache cache = new LibraryCache(tmp.newFolder("cache").toPath(), Long.MAX_VALUE);
+        Path library = tmp.newFolder("a", "Library").toPath();
+        write(library.resolve("ArtifactDB"), "artifacts");
+        write(library.resolve("Artifacts/0a/0a1b"), "texture");
+        write(library.resolve("Artifacts/0b/0b1c"), "texture");
+
+        LibraryCache.Stats saved = cache.save("key", library);
+        assertEquals(LibraryCache.Stats.Outcome.SAVED, saved.getOutcome());
+        assertEquals(3, saved.getFiles());
+        // the same content is stored once
+        assertEquals(2, countFiles(tmp.getRoot().toPath().resolve("cache/objects")));
+
+        Path restored = tmp.getRoot().toPath().resolve("b/Library");
+        LibraryCache.Stats stats = cache.restore("key", restored);
+        assertEquals(LibraryCache.Stats.Outcome.RESTORED, stats.getOutcome());
+        assertEquals(3, stats.getFiles());
+        assertEquals("texture", read(restored.resolve("Artifacts/0b/0b1c")));
+        assertEquals(
+                Files.getLastModifiedTime(library.resolve("ArtifactDB")).toMillis(),
+                Files.getLastModifiedTime(restored.resolve("ArtifactDB")).toMillis());
+
+        assertEquals(
+                LibraryCache.Stats.Outcome.MISSED,
+                cache.restore("other", tmp.getRoot().toPath().resolve("c/Library")).getOutcome());
+    }
+
+    @Test
+    public void dropsABrokenEntry() throws Exception {
+        Path root = tmp.newFolder("cache").toPath();
+        LibraryCache cache = new LibraryCache(root, Long.MAX_VALUE);
+        Path library = tmp.newFolder("a", "Library").toPath();
+        write(library.resolve("ArtifactDB"), "artifacts");
+        write(library.resolve("Artifacts/0a/0a1b"), "texture");
+        cache.save("key", library);
+        try (Stream<Path> s = Files.walk(root.resolve("objects"))) {
+            Files.delete(s.filter(Files::isRegularFile).findFirst().orElseThrow());
+        }
+
+        Path restored = tmp.getRoot().toPath().resolve("b/Library");
+        assertEquals(LibraryCache.Stats.Outcome.MISSED, cache.restore("key", restored).getOutcome());
+        assertFalse(Files.exists(restored));
+        assertFalse(Files.exists(root.resolve("entries/key")));
+    }
+
+    @Test
+    public void dropsAnEntryWithFilesOutOfTheLibrary() throws Exception {
+        Path root = tmp.newFolder("cache").toPath();
+        LibraryCache cache = new LibraryCache(root, Long.MAX_VALUE);
+        Path library = tmp.newFolder("a", "Library").toPath();
+        write(library.resolve("ArtifactDB"), "artifacts");
+        cache.save("key", library);
+        String manifest = read(root.resolve("entries/key"));
+        write(root.resolve("entries/key"), manifest + manifest.replace("ArtifactDB", "../outside"));
+
+        Path restored = tmp.getRoot().toPath().resolve("b/Library");
+        assertEquals(LibraryCache.Stats.Outcome.MISSED, cache.restore("key", restored).getOutcome());
+        assertFalse(Files.exists(restored));
+        assertFalse(Files.exists(restored.resolveSibling("outside")));
+        assertFalse(Files.exists(root.resolve("entries/key")));
+    }
+
+    @Test
+    public void deletesTheLibraryIfTheRestoreFails() throws Exception {
+        Path root = tmp.newFolder("cache").toPath();
+        LibraryCache cache = new LibraryCache(root, Long.MAX_VALUE);
+        Path library = tmp.newFolder("a", "Library").toPath();
+        write(library.resolve("ArtifactDB"), "artifacts");
+        cache.save("key", library);
+        // a file where the restore needs a directory
+        String manifest = read(root.resolve("entries/key"));
+        write(root.resolve("entries/key"), manifest + manifest.replace("ArtifactDB", "ArtifactDB/file"));
+
+        Path restored = tmp.getRoot().toPath().resolve("b/Library");
+        try {
+            cache.restore("key", restored);
+            fail("Expected failure");
+        } catch (IOException expected) {
+            //
+        }
+        assertFalse(Files.exists(restored));
+        // the Library couldn't be written, the entry may be fine
+        assertTrue(Files.exists(root.resolve("entries/key")));
+    }
+
+    @Test
+    public void keepsAnExistingLibrary() throws Exception {
+        LibraryCache cache = new LibraryCache(tmp.newFolder("cache").toPath(), Long.MAX_VALUE);
+        Path library = tmp.newFolder("a", "Library").toPath();
+        write(library.resolve("ArtifactDB"), "artifacts");
+        cache.save("key", library);
+
+        write(library.resolve("ArtifactDB"), "local");
+        assertEquals(LibraryCache.Stats.Outcome.PRESENT, cache.restore("key", library).getOutcome());
+        assertEquals("local", read(library.resolve("ArtifactDB")));
+    }
+
+    @Test
+    public void savesIncrementally() throws Exception {
+        LibraryCache cache = new LibraryCache(tmp.newFolder("cache").toPath(), Long.MAX_VALUE);
+        Path library = tmp.newFolder("a", "Library").toPath();
+        write(library.resolve("ArtifactDB"), "artifacts");
+        write(library.resolve("Artifacts/0a/0a1b"), "texture");
+        cache.save("key", library);
+
+        write(library.resolve("ArtifactDB"), "more artifacts");
+        Files.delete(library.resolve("Artifacts/0a/0a1b"));
+        write(library.resolve("Artifacts/0c/0c1d"), "mesh");
+        LibraryCache.Stats saved = cache.save("key", library);
+        assertEquals(2, saved.getFiles());
+
+        Path restored = tmp.getRoot().toPath().resolve("b/Library");
+        cache.restore("key", restored);
+        assertEquals("more artifacts", read(restored.resolve("ArtifactDB")));
+        assertEquals("mesh", read(restored.resolve("Artifacts/0c/0c1d")));
+        assertFalse(Files.exists(restored.resolve("Artifacts/0a/0a1b")));
+    }
+
+    @Test
+    public void evictsTheLeastRecentlyUsedEntries() throws Exception {
+        Path root = tmp.newFolder("cache").toPath();
+        LibraryCache cache = new LibraryCache(root, 20);
+        Path library = tmp.newFolder("a", "Library").toPath();
+        write(library.resolve("shared"), "shared");
+        write(library.resolve("own"), "first key");
+        cache.save("first", library);
+        // used a minute ago
+        Files.setLastModifiedTime(
+                root.resolve("entries/first"), FileTime.fromMillis(System.currentTimeMillis() - 60000));
+
+        write(library.resolve("own"), "second key");
+        cache.save("second", library);
+
+        assertEquals(
+                LibraryCache.Stats.Outcome.MISSED,
+                cache.restore("first", tmp.getRoot().toPath().resolve("b/Library")).getOutcome());
+        Path restored = tmp.getRoot().toPath().resolve("c/Library");
+        cache.restore("second", restored);
+        assertEquals("shared", read(restored.resolve("shared")));
+        assertEquals("second key", read(restored.resolve("own")));
+        // the objects of the first key only are gone
+        assertEquals(2, countFiles(root.resolve("objects")));
+    }
+
+    @Test
+    public void keysOnTheProjectVersionPackagesAndTarget() throws Exception {
+        Path project = tmp.newFolder("project").toPath();
+        write(project.resolve("ProjectSettings/ProjectVersion.txt"), "m_EditorVersion: 2022.3.10f1");
+        write(project.resolve("Packages/manifest.json"), "{}");
+        String key = LibraryCache.key(project, "/opt/unity/2022.3.10f1", "Android");
+
+        assertEquals(key, LibraryCache.key(project, "/opt/unity/2022.3.10f1", "Android"));
+        assertNotEquals(key, LibraryCache.key(project, "/opt/unity/2022.3.10f1", "iOS"));
+        assertNotEquals(key, LibraryCache.key(project, "/opt/unity/2022.3.11f1", "Android"));
+        write(project.resolve("Packages/manifest.json"), "{\"dependencies\": {}}");
+        assertNotEquals(key, LibraryCache.key(project, "/opt/unity/2022.3.10f1", "Android"));
+        assertTrue(key.matches("[0-9a-f]{64}"));
+    }
+
+    private static void write(Path file, String content) throws Exception {
+        Files.createDirectories(file.getParent());
+        Files.writeString(file, content, StandardCharsets.UTF_8);
+    }
+
+    private static String read(Path file) throws Exception {
+        return Files.readString(file, StandardCharsets.UTF_8);
+    }
+
+    private static long countFiles(Path dir) throws Exception {
+        try (Stream<Path> s = Files.walk(dir)) {
+            return s.filter(Files::isRegularFile).count();
+        }
+    }
+}
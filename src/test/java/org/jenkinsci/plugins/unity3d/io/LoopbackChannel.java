@@ -0,0 +1,63 @@
+package org.jenkinsci.plugins.unity3d.io;
+
+import hudson.Launcher;
+import hudson.model.TaskListener;
+import hudson.remoting.Channel;
+import hudson.remoting.ChannelBuilder;
+import hudson.remoting.FastPipedInputStream;
+import hudson.remoting.FastPipedOutputStream;
+import hudson.util.DaemonThreadFactory;
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * A pair of remoting channels connected in memory, simulating an agent without starting one.
+ * <p>
+ * Everything sent to the "agent" goes through the remoting serialization and streams, as with a real agent, but both
+ * ends live in the current JVM.
+ */
+final class LoopbackChannel implements Closeable {
+    private final ExecutorService executor;
+    private final Channel master;
+    private final Channel agent;
+
+    private LoopbackChannel(ExecutorService executor, Channel master, Channel agent) {
+        this.executor = executor;
+        this.master = master;
+        this.agent = agent;
+    }
+
+    static LoopbackChannel open() throws Exception {
+        ExecutorService executor = Executors.newCachedThreadPool(new DaemonThreadFactory());
+        FastPipedInputStream toMaster = new FastPipedInputStream();
+        FastPipedInputStream toAgent = new FastPipedInputStream();
+        FastPipedOutputStream fromAgent = new FastPipedOutputStream(toMaster);
+        FastPipedOutputStream fromMaster = new FastPipedOutputStream(toAgent);
+        // the handshake needs both ends
+        Future<Channel> master =
+                executor.submit(() -> new ChannelBuilder("master", executor).build(toMaster, fromMaster));
+        Future<Channel> agent =
+                executor.submit(() -> new ChannelBuilder("agent", executor).build(toAgent, fromAgent));
+        return new LoopbackChannel(executor, master.get(), agent.get());
+    }
+
+    /**
+     * @return a launcher running its callables on the simulated agent
+     */
+    Launcher launcher() {
+        return new Launcher.RemoteLauncher(TaskListener.NULL, master, true);
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            master.close();
+            agent.close();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package org.jenkinsci.plugins.unity3d.io;
+
+import hudson.Launcher;
+import hudson.model.TaskListener;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import jenkins.benchmark.jmh.JmhBenchmark;
+import jenkins.security.MasterToSlaveCallable;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Measures the throughput of a {@link Pipe} drained by a {@link StreamCopyTask}, writing chunks of a given size into
+ * it.
+ * <p>
+ * With the remote launcher, the chunks are written on a simulated agent (see {@link LoopbackChannel}), so they go
+ * through the {@link PipeTransport} encoding and the remoting channel, compressed or not. Local pipes are never
+ * encoded, so the compress parameter doesn't matter for them. The "bytes" counter gives the throughput in bytes per
+ * second.
+ */
+@JmhBenchmark
+public class PipeBenchmark {
+
+    /** Where the simulated agent keeps the pipe output it received, as both ends share the JVM */
+    static final AtomicReference<OutputStream> AGENT_OUT = new AtomicReference<>();
+
+    @State(Scope.Benchmark)
+    public static class PipeState {
+        @Param({"local", "remote"})
+        public String launcher;
+
+        @Param({"256", "8192"})
+        public int chunkSize;
+
+        @Param({"false", "true"})
+        public boolean compress;
+
+        LoopbackChannel channel;
+        Pipe pipe;
+        OutputStream out;
+        Future<Long> copier;
+        byte[] chunk;
+
+        @Setup(Level.Trial)
+        public void setup() throws Exception {
+            Launcher l;
+            if (launcher.equals("remote")) {
+                channel = LoopbackChannel.open();
+                l = channel.launcher();
+            } else {
+                l = new Launcher.LocalLauncher(TaskListener.NULL);
+            }
+            pipe = Pipe.createRemoteToLocal(l, new PipeTransport(32 * 1024, 200, compress));
+            copier = new StreamCopyTask(pipe.getIn(), OutputStream.nullOutputStream()).start();
+            if (channel != null) {
+                l.getChannel().call(new KeepOnAgent(pipe.getOut()));
+                out = AGENT_OUT.get();
+            } else {
+                out = pipe.getOut();
+            }
+            chunk = new byte[chunkSize];
+            // log like content, which compresses like the Editor.log does
+            Arrays.fill(chunk, (byte) 'a');
+            for (int i = 79; i < chunk.length; i += 80) chunk[i] = '\n';
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws Exception {
+            out.close();
+            copier.get(1, TimeUnit.MINUTES);
+            if (channel != null) channel.close();
+        }
+    }
+
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class Counters {
+        public long bytes;
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    public void write(PipeState state, Counters counters) throws IOException {
+        state.out.write(state.chunk);
+        counters.bytes += state.chunk.length;
+    }
+
+    private static class KeepOnAgent extends MasterToSlaveCallable<Void, IOException> {
+        private final OutputStream out;
+
+        KeepOnAgent(OutputStream out) {
+            this.out = out;
+        }
+
+        public Void call() {
+            AGENT_OUT.set(out);
+            return null;
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package org.jenkinsci.plugins.unity3d.io;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.Test;
+
+public class PipeBufferTest {
+
+    @Test
+    public void blocksTheWriterWhileFullAndReadsEverythingBeforeTheEnd() throws Exception {
+        PipeBuffer pipe = new PipeBuffer(7);
+        byte[] content = new byte[1000];
+        for (int i = 0; i < content.length; i++) content[i] = (byte) i;
+        Thread writer = new Thread(() -> {
+            try {
+                // wraps around the buffer with writes of various sizes
+                for (int off = 0, len = 1; off < content.length; off += len, len = len % 11 + 1) {
+                    pipe.getOut().write(content, off, Math.min(len, content.length - off));
+                }
+                pipe.getOut().close();
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        });
+        writer.start();
+
+        assertArrayEquals(content, readAll(pipe.getIn()));
+        writer.join();
+        assertEquals(-1, pipe.getIn().read());
+    }
+
+    @Test
+    public void failsTheWriterOnceTheReaderIsClosed() throws Exception {
+        PipeBuffer pipe = new PipeBuffer(4);
+        pipe.getOut().write(new byte[4]);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        Thread writer = new Thread(() -> {
+            try {
+                pipe.getOut().write(1);
+            } catch (IOException e) {
+                failure.set(e);
+            }
+        });
+        writer.start();
+        pipe.getIn().close();
+        writer.join();
+        assertEquals("Pipe broken: its reading end was closed", failure.get().getMessage());
+    }
+
+    @Test
+    public void blockedReadsCanBeInterrupted() throws Exception {
+        PipeBuffer pipe = new PipeBuffer();
+        Thread.currentThread().interrupt();
+        try {
+            pipe.getIn().read();
+            fail("Expected an interruption");
+        } catch (InterruptedIOException e) {
+            // the interruption is kept for the caller
+            assertEquals(true, Thread.interrupted());
+        }
+    }
+
+    private static byte[] readAll(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buf = new byte[5];
+        int n;
+        while ((n = in.read(buf)) >= 0) out.write(buf, 0, n);
+        return out.toByteArray();
+    }
+}
@@ -1,14 +1,19 @@
 package org.jenkinsci.plugins.unity3d.io;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 
 import hudson.util.ByteArrayOutputStream2;
 import java.io.File;
+import java.io.FilterOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.StandardOpenOption;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
 import org.junit.Test;
 
@@ -86,4 +91,193 @@ public class PipeFileAfterModificationActionTest {
         Long read = (long) expectedContent.length();
         assertEquals(read, (Long) nbBytesRead.get());
     }
+
+    @Test
+    public void resumeFromCheckpoint() throws Exception {
+        File fakeEditorLog = File.createTempFile("fake_editor", "log");
+        Files.writeString(fakeEditorLog.toPath(), originalContent, StandardCharsets.UTF_8);
+        File checkpointFile = File.createTempFile("fake_editor", "checkpoint");
+
+        // a previous task already copied the first line
+        int alreadyCopied = originalContent.indexOf('\n') + 1;
+        TailCheckpoint previous = new TailCheckpoint(checkpointFile.toPath());
+        previous.save(FileTail.identityOf(fakeEditorLog.toPath()), alreadyCopied);
+
+        ByteArrayOutputStream2 collectedContent = new ByteArrayOutputStream2();
+        final PipeFileAfterModificationAction task = new PipeFileAfterModificationAction(
+                fakeEditorLog.getAbsolutePath(),
+                collectedContent,
+                true,
+                new TailCheckpoint(checkpointFile.toPath()),
+                null);
+        final AtomicLong nbBytesRead = new AtomicLong();
+        Thread t = new Thread(() -> {
+            try {
+                nbBytesRead.set(task.call());
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        });
+        t.start();
+
+        Thread.sleep(50);
+        Files.writeString(fakeEditorLog.toPath(), newContent2, StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+        Thread.sleep(80);
+        t.interrupt();
+        t.join();
+
+        String expectedContent = originalContent.substring(alreadyCopied) + newContent2;
+        assertEquals(expectedContent, new String(collectedContent.getBuffer(), 0, collectedContent.size(), UTF_8));
+        assertEquals(expectedContent.length(), nbBytesRead.get());
+        assertEquals(
+                originalContent.length() + newContent2.length(),
+                new TailCheckpoint(checkpointFile.toPath()).load(FileTail.identityOf(fakeEditorLog.toPath())));
+    }
+
+    @Test
+    public void sendsTheLastBatchOnceTheFileStoppedChanging() throws Exception {
+        File fakeEditorLog = File.createTempFile("fake_editor", "log");
+        ByteArrayOutputStream2 collectedContent = new ByteArrayOutputStream2();
+        OutputStream out = new PipeTransport(4096, 100, false).encode(collectedContent);
+        final PipeFileAfterModificationAction task =
+                new PipeFileAfterModificationAction(fakeEditorLog.getAbsolutePath(), out, true);
+        Thread t = new Thread(() -> {
+            try {
+                task.call();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        });
+        t.start();
+
+        Thread.sleep(50);
+        Files.writeString(fakeEditorLog.toPath(), newContent, StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+        // no more writes: the batch is sent on a wake up once its window passed
+        Thread.sleep(100 + 2 * FileChangeWatcher.MAX_WAIT_MILLIS);
+        String collected = new String(collectedContent.getBuffer(), 0, collectedContent.size(), UTF_8);
+        t.interrupt();
+        t.join();
+
+        assertEquals(newContent, collected);
+    }
+
+    @Test
+    public void checkpointLeavesOutWhatTheOutputHolds() throws Exception {
+        File fakeEditorLog = File.createTempFile("fake_editor", "log");
+        File checkpointFile = File.createTempFile("fake_editor", "checkpoint");
+        ByteArrayOutputStream2 collectedContent = new ByteArrayOutputStream2();
+        // e.g. the annotator, which keeps an incomplete line until its end
+        class HoldingOutputStream extends FilterOutputStream implements Syncable {
+            HoldingOutputStream() {
+                super(collectedContent);
+            }
+
+            @Override
+            public long sync() {
+                return newContent2.length();
+            }
+        }
+        final PipeFileAfterModificationAction task = new PipeFileAfterModificationAction(
+                fakeEditorLog.getAbsolutePath(),
+                new HoldingOutputStream(),
+                true,
+                new TailCheckpoint(checkpointFile.toPath()),
+                null);
+        Thread t = new Thread(() -> {
+            try {
+                task.call();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        });
+        t.start();
+
+        Thread.sleep(50);
+        Files.writeString(fakeEditorLog.toPath(), newContent + newContent2, StandardCharsets.UTF_8);
+        Thread.sleep(80);
+        t.interrupt();
+        t.join();
+
+        assertEquals(
+                newContent.length(),
+                new TailCheckpoint(checkpointFile.toPath()).load(FileTail.identityOf(fakeEditorLog.toPath())));
+    }
+
+    @Test
+    public void drainCopiesTheRestOfTheFileAndClosesTheOutput() throws Exception {
+        File fakeEditorLog = File.createTempFile("fake_editor", "log");
+        ByteArrayOutputStream2 collectedContent = new ByteArrayOutputStream2();
+        AtomicBoolean closed = new AtomicBoolean();
+        OutputStream out = new FilterOutputStream(collectedContent) {
+            @Override
+            public void close() {
+                closed.set(true);
+            }
+        };
+        DrainSignal drain = DrainSignal.forId("drainCopiesTheRestOfTheFileAndClosesTheOutput");
+        final PipeFileAfterModificationAction task =
+                new PipeFileAfterModificationAction(fakeEditorLog.getAbsolutePath(), out, true, null, drain);
+        final AtomicLong nbBytesRead = new AtomicLong();
+        Thread t = new Thread(() -> {
+            try {
+                nbBytesRead.set(task.call());
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        });
+        t.start();
+
+        Files.writeString(fakeEditorLog.toPath(), newContent, StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+        Thread.sleep(20);
+        Files.writeString(fakeEditorLog.toPath(), newContent2, StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+        // simulate Unity exiting right after its last write
+        drain.request();
+        t.join(5000);
+
+        String expectedContent = newContent + newContent2;
+        assertFalse(t.isAlive());
+        assertTrue(closed.get());
+        assertEquals(expectedContent, new String(collectedContent.getBuffer(), 0, collectedContent.size(), UTF_8));
+        assertEquals(expectedContent.length(), nbBytesRead.get());
+    }
+
+    @Test
+    public void drainWithoutModificationStopsWaiting() throws Exception {
+        File fakeEditorLog = File.createTempFile("fake_editor", "log");
+        ByteArrayOutputStream2 collectedContent = new ByteArrayOutputStream2();
+        DrainSignal drain = DrainSignal.forId("drainWithoutModificationStopsWaiting");
+        drain.request();
+        final PipeFileAfterModificationAction task = new PipeFileAfterModificationAction(
+                fakeEditorLog.getAbsolutePath(), collectedContent, true, null, drain);
+
+        assertEquals(0L, (long) task.call());
+        assertTrue(new String(collectedContent.getBuffer(), 0, collectedContent.size(), UTF_8)
+                .contains("No change detected to Editor.log"));
+        // a late request doesn't register the signal again
+        assertFalse(DrainSignal.request("drainWithoutModificationStopsWaiting"));
+        assertFalse(DrainSignal.request("drainWithoutModificationStopsWaiting"));
+    }
+
+    @Test
+    public void leavesTheOutputOpenIfAsked() throws Exception {
+        File fakeEditorLog = File.createTempFile("fake_editor", "log");
+        ByteArrayOutputStream2 collectedContent = new ByteArrayOutputStream2();
+        AtomicBoolean closed = new AtomicBoolean();
+        // e.g. the build console, when piping a local Editor.log straight into it
+        OutputStream out = new FilterOutputStream(collectedContent) {
+            @Override
+            public void close() {
+                closed.set(true);
+            }
+        };
+        DrainSignal drain = DrainSignal.forId("leavesTheOutputOpenIfAsked");
+        drain.request();
+        final PipeFileAfterModificationAction task = new PipeFileAfterModificationAction(
+                fakeEditorLog.getAbsolutePath(), out, false, null, drain);
+
+        assertEquals(0L, (long) task.call());
+        assertFalse(closed.get());
+        assertTrue(new String(collectedContent.getBuffer(), 0, collectedContent.size(), UTF_8)
+                .contains("No change detected to Editor.log"));
+    }
 }
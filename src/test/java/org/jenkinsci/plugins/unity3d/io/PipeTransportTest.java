@@ -0,0 +1,81 @@
+package org.jenkinsci.plugins.unity3d.io;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import org.junit.Test;
+
+public class PipeTransportTest {
+    private static final String LINE = "Updating Assets/Textures/some_texture.png - GUID: 0123456789abcdef...\n";
+
+    @Test
+    public void batchesSmallWrites() throws Exception {
+        assertRoundTrip(new PipeTransport(4096, 60_000, false));
+    }
+
+    @Test
+    public void batchesAndCompresses() throws Exception {
+        PipeStatistics statistics = assertRoundTrip(new PipeTransport(4096, 60_000, true));
+        assertTrue(statistics.toString(), statistics.getBytesOut() < statistics.getBytesIn() / 4);
+    }
+
+    @Test
+    public void sendsPendingBatchOnceTheWindowElapsed() throws Exception {
+        ByteArrayOutputStream wire = new ByteArrayOutputStream();
+        OutputStream out = new PipeTransport(4096, 10, false).encode(wire);
+        out.write(LINE.getBytes(StandardCharsets.UTF_8));
+        out.flush();
+        assertEquals(0, wire.size());
+        Thread.sleep(20);
+        out.flush();
+        assertEquals(LINE, wire.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void syncSendsThePendingBatchRightAway() throws Exception {
+        ByteArrayOutputStream wire = new ByteArrayOutputStream();
+        OutputStream out = new PipeTransport(4096, 60_000, false).encode(wire);
+        out.write(LINE.getBytes(StandardCharsets.UTF_8));
+        assertEquals(0, Syncable.sync(out));
+        assertEquals(LINE, wire.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void syncSendsWhatWasDeflated() throws Exception {
+        PipeTransport transport = new PipeTransport(4096, 60_000, true);
+        ByteArrayOutputStream wire = new ByteArrayOutputStream();
+        OutputStream out = new PipeTransport.EncodingOutputStream(wire, transport);
+        out.write(LINE.getBytes(StandardCharsets.UTF_8));
+        assertEquals(0, Syncable.sync(out));
+        InputStream in = transport.decode(new ByteArrayInputStream(wire.toByteArray()));
+        byte[] line = new byte[LINE.length()];
+        new DataInputStream(in).readFully(line);
+        assertEquals(LINE, new String(line, StandardCharsets.UTF_8));
+    }
+
+    private PipeStatistics assertRoundTrip(PipeTransport transport) throws Exception {
+        PipeStatistics statistics = new PipeStatistics();
+        ByteArrayOutputStream wire = new ByteArrayOutputStream();
+        StringBuilder expected = new StringBuilder();
+        try (OutputStream out = transport.encode(statistics.countTransferred(wire))) {
+            for (int i = 0; i < 1000; i++) {
+                out.write(LINE.getBytes(StandardCharsets.UTF_8));
+                out.flush();
+                expected.append(LINE);
+            }
+        }
+        InputStream in = statistics.countDecoded(transport.decode(new ByteArrayInputStream(wire.toByteArray())));
+        assertEquals(expected.toString(), new String(in.readAllBytes(), StandardCharsets.UTF_8));
+
+        assertEquals(expected.length(), statistics.getBytesIn());
+        assertEquals(wire.size(), statistics.getBytesOut());
+        assertTrue(statistics.toString(), statistics.getBatches() < 1000 / 10);
+        return statistics;
+    }
+}
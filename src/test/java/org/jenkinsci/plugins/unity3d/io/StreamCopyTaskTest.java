@@ -0,0 +1,79 @@
+package org.jenkinsci.plugins.unity3d.io;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import org.junit.Test;
+
+public class StreamCopyTaskTest {
+
+    @Test
+    public void copiesConcurrentStreamsOnTheSharedExecutor() throws Exception {
+        List<Future<Long>> copies = new ArrayList<>();
+        List<ByteArrayOutputStream> outs = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            outs.add(out);
+            byte[] content = ("copy " + i + "\n").repeat(1000).getBytes(StandardCharsets.UTF_8);
+            copies.add(new StreamCopyTask(new ByteArrayInputStream(content), out).start());
+        }
+        for (int i = 0; i < copies.size(); i++) {
+            long copied = copies.get(i).get();
+            assertEquals(outs.get(i).size(), copied);
+            assertTrue(outs.get(i).toString(StandardCharsets.UTF_8).startsWith("copy " + i + "\n"));
+        }
+    }
+
+    @Test(timeout = 60000)
+    public void copiesMorePipesAtOnceThanThereAreProcessors() throws Exception {
+        // each copy waits for more of its pipe until all were written: a queued copy would leave its pipe full
+        int count = 8 * Runtime.getRuntime().availableProcessors() + 32;
+        byte[] content = new byte[2 * PipeBuffer.DEFAULT_CAPACITY];
+        Arrays.fill(content, (byte) 'x');
+        List<PipeBuffer> pipes = new ArrayList<>();
+        List<Future<Long>> copies = new ArrayList<>();
+        List<ByteArrayOutputStream> outs = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            PipeBuffer pipe = new PipeBuffer();
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            pipes.add(pipe);
+            outs.add(out);
+            copies.add(new StreamCopyTask(pipe.getIn(), out).start());
+        }
+        for (PipeBuffer pipe : pipes) pipe.getOut().write(content);
+        for (PipeBuffer pipe : pipes) pipe.getOut().close();
+        for (int i = 0; i < count; i++) {
+            assertEquals(content.length, (long) copies.get(i).get());
+            assertEquals(content.length, outs.get(i).size());
+        }
+    }
+
+    @Test
+    public void reportsFailures() throws Exception {
+        InputStream failing = new InputStream() {
+            @Override
+            public int read() throws IOException {
+                throw new IOException("Simulated failure");
+            }
+        };
+        Future<Long> copy = new StreamCopyTask(failing, new ByteArrayOutputStream()).start();
+        try {
+            copy.get();
+        } catch (ExecutionException e) {
+            assertEquals("Simulated failure", e.getCause().getMessage());
+            return;
+        }
+        fail("Expected failure");
+    }
+}
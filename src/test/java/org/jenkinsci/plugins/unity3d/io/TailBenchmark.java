@@ -0,0 +1,294 @@
+package org.jenkinsci.plugins.unity3d.io;
+
+import hudson.Launcher;
+import hudson.model.TaskListener;
+import hudson.remoting.Future;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Stream;
+import jenkins.benchmark.jmh.JmhBenchmark;
+import jenkins.security.MasterToSlaveCallable;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.IterationParams;
+import org.openjdk.jmh.runner.IterationType;
+
+/**
+ * Measures the whole Editor.log piping: a synthetic writer appends lines to a file at a given rate, while a
+ * {@link PipeFileAfterModificationAction} tails it into a {@link Pipe}, drained by a {@link StreamCopyTask} into the
+ * "console".
+ * <p>
+ * Each invocation writes {@link Run#megabytes} MB, then drains the tail as the build does once Unity exited. Besides
+ * the time JMH reports, the end of the trial prints the throughput, the CPU used by the piping per MB (the process
+ * CPU time minus the writer's) and the distribution of the lag between writing a line and its arrival in the console.
+ * Each line starts with the time it was written, which is how the console side measures the lag.
+ * <p>
+ * With the remote launcher, the tail runs on a simulated agent (see {@link LoopbackChannel}). The direct one is how
+ * local builds pipe the Editor.log: straight into the console, without a pipe.
+ */
+@JmhBenchmark
+public class TailBenchmark {
+
+    @State(Scope.Thread)
+    public static class Run {
+        @Param({"direct", "local", "remote"})
+        public String launcher;
+
+        /** 0 to write as fast as possible */
+        @Param({"1", "10", "0"})
+        public int megabytesPerSecond;
+
+        @Param({"120", "2048"})
+        public int lineSize;
+
+        @Param({"16"})
+        public int megabytes;
+
+        private LoopbackChannel channel;
+        private Launcher l;
+        private Path dir;
+        private final LagRecorder lag = new LagRecorder();
+        private final Totals iteration = new Totals();
+        private final Totals trial = new Totals();
+
+        @Setup(Level.Trial)
+        public void setup() throws Exception {
+            dir = Files.createTempDirectory("unity3d-tail-benchmark");
+            if (launcher.equals("remote")) {
+                channel = LoopbackChannel.open();
+                l = channel.launcher();
+            } else {
+                l = new Launcher.LocalLauncher(TaskListener.NULL);
+            }
+        }
+
+        @Setup(Level.Iteration)
+        public void startIteration() {
+            iteration.reset();
+            lag.reset();
+        }
+
+        @TearDown(Level.Iteration)
+        public void endIteration(IterationParams params) {
+            if (params.getType() == IterationType.MEASUREMENT) {
+                trial.add(iteration);
+                lag.keep();
+            }
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws IOException {
+            double mb = trial.bytes / (1024.0 * 1024.0);
+            System.out.printf(
+                    "%n%s, %d MB/s, %d B lines: %.1f MB/s, %.1f CPU ms/MB, lag ms p50=%.2f p90=%.2f p99=%.2f"
+                            + " p99.9=%.2f max=%.2f%n",
+                    launcher,
+                    megabytesPerSecond,
+                    lineSize,
+                    mb / (trial.elapsedNanos / 1e9),
+                    trial.cpuNanos / 1e6 / mb,
+                    lag.percentileMillis(50),
+                    lag.percentileMillis(90),
+                    lag.percentileMillis(99),
+                    lag.percentileMillis(99.9),
+                    lag.percentileMillis(100));
+            if (channel != null) channel.close();
+            try (Stream<Path> files = Files.walk(dir)) {
+                for (Path p : files.sorted(Comparator.reverseOrder()).toList()) Files.delete(p);
+            }
+        }
+
+        long tailOnce() throws Exception {
+            Path file = dir.resolve("Editor.log");
+            Files.deleteIfExists(file);
+            Files.createFile(file);
+
+            String drainId = UUID.randomUUID().toString();
+            Future<Long> tail;
+            java.util.concurrent.Future<Long> copier = null;
+            if (launcher.equals("direct")) {
+                tail = l.getChannel().callAsync(new Tail(file.toString(), lag, false, drainId));
+            } else {
+                Pipe pipe = Pipe.createRemoteToLocal(l);
+                tail = l.getChannel().callAsync(new Tail(file.toString(), pipe.getOut(), true, drainId));
+                copier = new StreamCopyTask(pipe.getIn(), lag).start();
+            }
+            // let the tail take its first look at the file, as it does before Unity starts
+            Thread.sleep(250);
+
+            ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+            long cpu = processCpuNanos();
+            long writerCpu = threads.getCurrentThreadCpuTime();
+            long start = System.nanoTime();
+
+            write(file);
+            // both ends share the JVM, so the drain can be requested directly
+            DrainSignal.request(drainId);
+            long copied = tail.get();
+            if (copier != null) copied = copier.get();
+
+            iteration.elapsedNanos += System.nanoTime() - start;
+            iteration.cpuNanos +=
+                    processCpuNanos() - cpu - (threads.getCurrentThreadCpuTime() - writerCpu);
+            iteration.bytes += copied;
+            return copied;
+        }
+
+        private void write(Path file) throws IOException {
+            long total = (long) megabytes * 1024 * 1024;
+            // write in batches, every 10 msec when throttled
+            long tickNanos = TimeUnit.MILLISECONDS.toNanos(10);
+            int batchSize = megabytesPerSecond == 0
+                    ? 64 * 1024
+                    : Math.max(lineSize, (int) ((long) megabytesPerSecond * 1024 * 1024 / 100));
+            byte[] batch = new byte[batchSize + lineSize];
+            long next = System.nanoTime();
+            try (OutputStream out = new FileOutputStream(file.toFile(), true)) {
+                long written = 0;
+                while (written < total) {
+                    int len = 0;
+                    while (len < batchSize) {
+                        len += line(batch, len);
+                    }
+                    out.write(batch, 0, len);
+                    written += len;
+                    if (megabytesPerSecond > 0) {
+                        next += tickNanos;
+                        long wait = next - System.nanoTime();
+                        if (wait > 0) LockSupport.parkNanos(wait);
+                    }
+                }
+            }
+        }
+
+        private int line(byte[] b, int off) {
+            byte[] time = Long.toString(System.nanoTime()).getBytes(StandardCharsets.US_ASCII);
+            System.arraycopy(time, 0, b, off, time.length);
+            Arrays.fill(b, off + time.length, off + lineSize - 1, (byte) 'x');
+            b[off + time.length] = ' ';
+            b[off + lineSize - 1] = '\n';
+            return lineSize;
+        }
+
+        private static long processCpuNanos() {
+            return ((com.sun.management.OperatingSystemMXBean) ManagementFactory.getOperatingSystemMXBean())
+                    .getProcessCpuTime();
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public long tail(Run run) throws Exception {
+        return run.tailOnce();
+    }
+
+    private static class Totals {
+        long bytes;
+        long elapsedNanos;
+        long cpuNanos;
+
+        void reset() {
+            bytes = elapsedNanos = cpuNanos = 0;
+        }
+
+        void add(Totals other) {
+            bytes += other.bytes;
+            elapsedNanos += other.elapsedNanos;
+            cpuNanos += other.cpuNanos;
+        }
+    }
+
+    /**
+     * The console: records, for each line, the time elapsed since the time the line starts with.
+     */
+    static class LagRecorder extends OutputStream {
+        private long[] current = new long[1024];
+        private int currentCount;
+        private long[] kept = new long[1024];
+        private int keptCount;
+        private long time;
+        private boolean inTime = true;
+
+        @Override
+        public void write(int b) {
+            if (b == '\n') {
+                if (currentCount == current.length) current = Arrays.copyOf(current, current.length * 2);
+                current[currentCount++] = System.nanoTime() - time;
+                time = 0;
+                inTime = true;
+            } else if (inTime) {
+                if (b >= '0' && b <= '9') {
+                    time = time * 10 + (b - '0');
+                } else {
+                    inTime = false;
+                }
+            }
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            for (int i = off; i < off + len; i++) write(b[i]);
+        }
+
+        void reset() {
+            currentCount = 0;
+            time = 0;
+            inTime = true;
+        }
+
+        /** keep the lags of the current iteration for the report */
+        void keep() {
+            if (keptCount + currentCount > kept.length) {
+                kept = Arrays.copyOf(kept, Math.max(kept.length * 2, keptCount + currentCount));
+            }
+            System.arraycopy(current, 0, kept, keptCount, currentCount);
+            keptCount += currentCount;
+        }
+
+        double percentileMillis(double percentile) {
+            if (keptCount == 0) return Double.NaN;
+            long[] sorted = Arrays.copyOf(kept, keptCount);
+            Arrays.sort(sorted);
+            int index = (int) Math.min(sorted.length - 1, Math.ceil(percentile / 100 * sorted.length) - 1);
+            return sorted[Math.max(0, index)] / 1e6;
+        }
+    }
+
+    private static class Tail extends MasterToSlaveCallable<Long, IOException> {
+        private final String path;
+        private final OutputStream out;
+        private final boolean closeOut;
+        private final String drainId;
+
+        Tail(String path, OutputStream out, boolean closeOut, String drainId) {
+            this.path = path;
+            this.out = out;
+            this.closeOut = closeOut;
+            this.drainId = drainId;
+        }
+
+        public Long call() throws IOException {
+            return new PipeFileAfterModificationAction(path, out, closeOut, null, DrainSignal.forId(drainId)).call();
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package org.jenkinsci.plugins.unity3d.logs;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.List;
+import org.jenkinsci.plugins.unity3d.logs.AssetImportIndex.Aggregate;
+import org.jenkinsci.plugins.unity3d.logs.AssetImportIndex.AssetImport;
+import org.junit.Test;
+
+public class AssetImportIndexTest {
+    private final EditorLogParserImpl parser = new EditorLogParserImpl();
+    private long now = 1000;
+
+    @Test
+    public void keepsTheSlowestImportsAndAggregates() {
+        AssetImportIndex index = new AssetImportIndex(2);
+        parser.setListener(index);
+        parser.setClock(() -> now);
+
+        importAsset("Assets/Textures/grass.png", " done. [Time: 120.5 ms]", 0);
+        importAsset("Assets/Textures/rock.PNG", " done. [Time: 30.25 ms]", 0);
+        importAsset("Assets/Models/tree.fbx", " done. [Time: 2000 ms]", 0);
+        // older Unity versions don't report the time
+        importAsset("Assets/Shaders/water.shader", "  done: hash - 5f3a8e1b2c", 700);
+        importAsset("ProjectSettings/ProjectSettings.asset", " done. [Time: 1 ms]", 0);
+
+        assertEquals(5, index.getCount());
+        assertEquals(2851.75, index.getMillis(), 0.001);
+
+        List<AssetImport> slowest = index.getSlowest();
+        assertEquals(2, slowest.size());
+        assertImport(slowest.get(0), "Assets/Models/tree.fbx", 2000);
+        assertImport(slowest.get(1), "Assets/Shaders/water.shader", 700);
+
+        List<Aggregate> extensions = index.getExtensions();
+        assertEquals(4, extensions.size());
+        assertAggregate(extensions.get(0), "fbx", 1, 2000);
+        assertAggregate(extensions.get(1), "shader", 1, 700);
+        assertAggregate(extensions.get(2), "png", 2, 150.75);
+        assertAggregate(extensions.get(3), "asset", 1, 1);
+
+        assertAggregate(index.getFolders().get(2), "Assets/Textures", 2, 150.75);
+    }
+
+    @Test
+    public void mergesIndexes() {
+        AssetImportIndex index = new AssetImportIndex(2);
+        parser.setListener(index);
+        importAsset("Assets/a.png", " done. [Time: 10 ms]", 0);
+        importAsset("Assets/b.png", " done. [Time: 30 ms]", 0);
+
+        AssetImportIndex other = new AssetImportIndex(2);
+        parser.setListener(other);
+        importAsset("Assets/c.png", " done. [Time: 20 ms]", 0);
+        importAsset("Assets/d.wav", " done. [Time: 5 ms]", 0);
+
+        index.addAll(other);
+        assertEquals(4, index.getCount());
+        assertImport(index.getSlowest().get(0), "Assets/b.png", 30);
+        assertImport(index.getSlowest().get(1), "Assets/c.png", 20);
+        assertAggregate(index.getExtensions().get(0), "png", 3, 60);
+        assertAggregate(index.getFolders().get(0), "Assets", 4, 65);
+    }
+
+    private void importAsset(String path, String done, long elapsed) {
+        parser.log("Updating " + path + " - GUID: 0123456789abcdef0123456789abcdef...");
+        now += elapsed;
+        parser.log(done);
+    }
+
+    private static void assertImport(AssetImport asset, String path, double millis) {
+        assertEquals(path, asset.getPath());
+        assertEquals(millis, asset.getMillis(), 0.001);
+    }
+
+    private static void assertAggregate(Aggregate aggregate, String name, int count, double millis) {
+        assertEquals(aggregate.toString(), name, aggregate.getName());
+        assertEquals(aggregate.toString(), count, aggregate.getCount());
+        assertEquals(aggregate.toString(), millis, aggregate.getMillis(), 0.001);
+    }
+}
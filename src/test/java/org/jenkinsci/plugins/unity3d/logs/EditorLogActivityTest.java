@@ -0,0 +1,47 @@
+package org.jenkinsci.plugins.unity3d.logs;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+import org.jenkinsci.plugins.unity3d.logs.line.Line;
+import org.junit.Test;
+
+public class EditorLogActivityTest {
+    @Test
+    public void tracksTheOpenBlocks() {
+        EditorLogActivity activity = new EditorLogActivity();
+        EditorLogParserImpl parser = new EditorLogParserImpl();
+        parser.setListener(activity);
+
+        parser.log("---- PrepareBuild Start ----");
+        parser.log("-----Compiler Commandline Arguments:");
+        assertEquals(List.of("Compile", "Prepare Build"), activity.snapshot().getBlocks());
+        parser.log("-----EndCompilerOutput---------------");
+        assertEquals(List.of("Prepare Build"), activity.snapshot().getBlocks());
+        parser.log("---- PrepareBuild End ----");
+        assertEquals(List.of(), activity.snapshot().getBlocks());
+        assertTrue(activity.snapshot().getIdleMillis() < 60000);
+    }
+
+    @Test
+    public void recordsTheFirstFatalLine() {
+        EditorLogActivity activity = new EditorLogActivity(List.of("Compilation failed:", "compiler errors\\."));
+        activity.logMessage("Assets/Foo.cs(1,1): error CS0103: The name `x' does not exist", Line.Type.Error);
+        assertNull(activity.snapshot().getFatalLine());
+        activity.logMessage("Scripts have compiler errors.", Line.Type.Error);
+        activity.logMessage("Compilation failed: 1 error(s), 0 warnings", Line.Type.Error);
+        assertEquals("Scripts have compiler errors.", activity.snapshot().getFatalLine());
+    }
+
+    @Test
+    public void isFoundByIdWhileRegistered() {
+        EditorLogActivity activity = new EditorLogActivity();
+        EditorLogActivity.register("id", activity);
+        activity.logMessage("Loading the project", null);
+        assertEquals(List.of(), EditorLogActivity.snapshot("id").getBlocks());
+        EditorLogActivity.release("id", activity);
+        assertNull(EditorLogActivity.snapshot("id"));
+    }
+}
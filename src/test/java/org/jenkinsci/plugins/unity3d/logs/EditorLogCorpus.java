@@ -0,0 +1,137 @@
+package org.jenkinsci.plugins.unity3d.logs;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Generates Editor.log contents modelled after real builds, for the benchmarks.
+ */
+public final class EditorLogCorpus {
+
+    public enum Kind {
+        /** script compilations reporting many compiler warnings */
+        WARNINGS,
+        /** long runs of asset imports */
+        ASSET_IMPORT,
+        /** lightmap baking blocks with their progress lines */
+        LIGHTMAP,
+        /** a few lines of several KB, e.g. dumps of extensions or serialized data, among regular ones */
+        LONG_LINES,
+        /** a mix of all the above, in the proportions of a typical build */
+        MIXED
+    }
+
+    private final Random random;
+    private final List<String> lines = new ArrayList<>();
+
+    private EditorLogCorpus(long seed) {
+        this.random = new Random(seed);
+    }
+
+    /**
+     * @return about the given number of lines, always the same for a given kind and seed
+     */
+    public static List<String> generate(Kind kind, int count, long seed) {
+        EditorLogCorpus corpus = new EditorLogCorpus(seed);
+        while (corpus.lines.size() < count) {
+            corpus.append(kind == Kind.MIXED ? corpus.pickMixed() : kind);
+        }
+        return corpus.lines;
+    }
+
+    private Kind pickMixed() {
+        int n = random.nextInt(100);
+        if (n < 30) return Kind.WARNINGS;
+        if (n < 85) return Kind.ASSET_IMPORT;
+        if (n < 95) return Kind.LIGHTMAP;
+        return Kind.LONG_LINES;
+    }
+
+    private void append(Kind kind) {
+        switch (kind) {
+            case WARNINGS:
+                compilation();
+                break;
+            case ASSET_IMPORT:
+                assetImports();
+                break;
+            case LIGHTMAP:
+                lightmap();
+                break;
+            case LONG_LINES:
+                longLines();
+                break;
+            default:
+                throw new IllegalArgumentException(kind.toString());
+        }
+    }
+
+    private void compilation() {
+        lines.add("-----Compiler Commandline Arguments:");
+        lines.add("/Applications/Unity/Unity.app/Contents/Frameworks/Mono/bin/mono "
+                + "/Applications/Unity/Unity.app/Contents/Frameworks/Mono/lib/mono/2.0/gmcs.exe "
+                + "-debug -target:library");
+        lines.add("-----CompilerOutput:-stdout--exitcode: 0--compilationhadfailure: False--outfile: "
+                + "Temp/Assembly-CSharp.dll");
+        int warnings = 20 + random.nextInt(200);
+        for (int i = 0; i < warnings; i++) {
+            lines.add("Assets/Scripts/Gameplay/Enemy" + random.nextInt(500) + ".cs(" + random.nextInt(2000) + ","
+                    + random.nextInt(80) + "): warning CS0" + (100 + random.nextInt(900))
+                    + ": The private field `Enemy.m_Target' is assigned but its value is never used");
+            if (random.nextInt(10) == 0) {
+                lines.add("Compilation succeeded with warnings, see the compiler output for details.");
+            }
+        }
+        lines.add("-----EndCompilerOutput---------------");
+        if (random.nextInt(20) == 0) {
+            lines.add("Assets/Scripts/Menu.cs(12,5): error CS0246: "
+                    + "The type or namespace name `Foo' could not be found");
+            lines.add("Compilation failed: 1 error(s), " + warnings + " warnings");
+        }
+    }
+
+    private void assetImports() {
+        int assets = 100 + random.nextInt(2000);
+        for (int i = 0; i < assets; i++) {
+            lines.add("Updating Assets/Art/Textures/Environment/tex_" + random.nextInt(100000) + ".png - GUID: "
+                    + guid() + "...");
+            lines.add(random.nextBoolean()
+                    ? " done. [Time: " + random.nextInt(500) + "." + random.nextInt(1000000) + " ms]"
+                    : "  done: hash - " + guid());
+        }
+    }
+
+    private void lightmap() {
+        String level = "Level" + random.nextInt(50);
+        lines.add("---- Lightmapping Start for " + level + " ----");
+        int progress = 50 + random.nextInt(500);
+        for (int i = 0; i < progress; i++) {
+            lines.add("Baking lightmap " + random.nextInt(64) + " of 64 (" + i * 100 / progress + "%)");
+        }
+        lines.add("---- Lightmapping End for " + level + " ----");
+    }
+
+    private void longLines() {
+        int count = 1 + random.nextInt(5);
+        for (int i = 0; i < count; i++) {
+            StringBuilder sb = new StringBuilder("    Extensions:");
+            int length = 2048 + random.nextInt(14 * 1024);
+            while (sb.length() < length) {
+                sb.append(" GL_EXT_extension_").append(random.nextInt(1000));
+            }
+            // pathological for the rules that start with .*?
+            if (random.nextBoolean()) sb.append(" warning CS");
+            lines.add(sb.toString());
+        }
+        // they come among regular lines
+        for (int i = 0; i < 100; i++) {
+            lines.add("Refreshing native plugins compatible for Editor in " + random.nextInt(100) + " ms, found "
+                    + random.nextInt(20) + " plugins.");
+        }
+    }
+
+    private String guid() {
+        return Long.toHexString(random.nextLong()) + Long.toHexString(random.nextLong());
+    }
+}
@@ -0,0 +1,146 @@
+package org.jenkinsci.plugins.unity3d.logs;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import jenkins.benchmark.jmh.JmhBenchmark;
+import jenkins.benchmark.jmh.JmhBenchmarkState;
+import org.jenkinsci.plugins.unity3d.logs.block.MatchedBlock;
+import org.jenkinsci.plugins.unity3d.logs.line.Line;
+import org.jenkinsci.plugins.unity3d.logs.line.UnityLineList;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Measures the Editor.log parsing, one line per operation, on the generated {@link EditorLogCorpus corpora}.
+ * <p>
+ * The throughput benchmarks report lines per second, the latency ones the distribution of the time per line
+ * (including p0.99). The allocation per line is reported by the GC profiler enabled by the
+ * {@link org.jenkinsci.plugins.unity3d.BenchmarkRunner} (gc.alloc.rate.norm).
+ */
+@JmhBenchmark
+public class EditorLogParserBenchmark {
+    static final int CORPUS_LINES = 100_000;
+
+    @State(Scope.Thread)
+    public static class Corpus {
+        @Param({"WARNINGS", "ASSET_IMPORT", "LIGHTMAP", "LONG_LINES", "MIXED"})
+        public EditorLogCorpus.Kind kind;
+
+        String[] lines;
+        byte[][] bytes;
+        private int next;
+
+        @Setup(Level.Trial)
+        public void generate() {
+            List<String> generated = EditorLogCorpus.generate(kind, CORPUS_LINES, 42);
+            lines = generated.toArray(new String[0]);
+            bytes = new byte[lines.length][];
+            for (int i = 0; i < lines.length; i++) {
+                bytes[i] = (lines[i] + "\n").getBytes(StandardCharsets.UTF_8);
+            }
+        }
+
+        int next() {
+            int i = next;
+            next = i + 1 == lines.length ? 0 : i + 1;
+            return i;
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Parser implements EditorLogParserImpl.LogListener {
+        EditorLogParserImpl parser;
+        // the listener has an effect, so that the parsing isn't optimized away
+        int blocks;
+        int messages;
+
+        @Setup(Level.Trial)
+        public void setup() {
+            parser = new EditorLogParserImpl();
+            parser.setListener(this);
+        }
+
+        public void activityStarted(MatchedBlock block) {
+            blocks++;
+        }
+
+        public void activityFinished(MatchedBlock block) {
+            blocks--;
+        }
+
+        public void logMessage(CharSequence line, Line.Type type) {
+            messages += type.ordinal();
+        }
+    }
+
+    /**
+     * The annotator writes console notes, which are signed with a key of the Jenkins instance.
+     */
+    public static class Annotator extends JmhBenchmarkState {
+        Unity3dEditorLogAnnotator annotator;
+
+        @Override
+        public void setup() {
+            annotator = new Unity3dEditorLogAnnotator(OutputStream.nullOutputStream(), StandardCharsets.UTF_8);
+        }
+    }
+
+    /** Baseline: every line regular expression, recompiled for each line as the plugin used to. */
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    public Line.Type naiveRules(Corpus corpus) {
+        String message = corpus.lines[corpus.next()];
+        for (Line line : UnityLineList.lines) {
+            if (message.matches(line.getRegex())) return line.getType();
+        }
+        return Line.Type.Normal;
+    }
+
+    /** The prefiltered rules alone. */
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    public long rulesCandidates(Corpus corpus) {
+        return EditorLogRules.UNITY.candidates(corpus.lines[corpus.next()]);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    public void parser(Corpus corpus, Parser parser) {
+        parser.parser.log(corpus.lines[corpus.next()]);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SampleTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public void parserLatency(Corpus corpus, Parser parser) {
+        parser.parser.log(corpus.lines[corpus.next()]);
+    }
+
+    /** From the bytes read from the pipe to the console, notes included. */
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    public void annotator(Corpus corpus, Annotator annotator) throws IOException {
+        annotator.annotator.write(corpus.bytes[corpus.next()]);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SampleTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public void annotatorLatency(Corpus corpus, Annotator annotator) throws IOException {
+        annotator.annotator.write(corpus.bytes[corpus.next()]);
+    }
+}
@@ -1,8 +1,17 @@
 package org.jenkinsci.plugins.unity3d.logs;
 
+import static org.junit.Assert.assertEquals;
+
 import java.io.BufferedReader;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.jenkinsci.plugins.unity3d.logs.block.Block;
 import org.jenkinsci.plugins.unity3d.logs.block.MatchedBlock;
 import org.jenkinsci.plugins.unity3d.logs.line.Line;
 import org.junit.Test;
@@ -29,7 +38,7 @@ public class EditorLogParserImplTest {
                 System.out.println("BLOCK END: " + block.getName());
             }
 
-            public void logMessage(String line, Line.Type type) {
+            public void logMessage(CharSequence line, Line.Type type) {
                 if (type != Line.Type.Normal) System.out.println("=== " + type + " => " + line);
             }
         };
@@ -43,6 +52,131 @@ public class EditorLogParserImplTest {
         is.close();
     }
 
+    @Test
+    public void parsersCanRunConcurrently() throws Exception {
+        List<String> lines = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(findResource("/example_Editor.log"), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lines.add(line);
+            }
+        }
+        String expected = transcript(lines, 20);
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<String>> transcripts = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                transcripts.add(executor.submit(() -> transcript(lines, 20)));
+            }
+            for (Future<String> transcript : transcripts) {
+                assertEquals(expected, transcript.get());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void nestingIsBounded() {
+        List<String> finished = new ArrayList<>();
+        parser.setListener(new EditorLogParserImpl.LogListener() {
+            public void activityStarted(MatchedBlock block) {}
+
+            public void activityFinished(MatchedBlock block) {
+                finished.add(block.getName());
+            }
+
+            public void logMessage(CharSequence line, Line.Type type) {}
+        });
+        for (int i = 0; i < EditorLogParserImpl.MAX_DEPTH + 2; i++) {
+            parser.log("Updating Assets/asset" + i + " - GUID: 0123456789abcdef");
+        }
+        assertEquals(List.of("Update: Assets/asset0", "Update: Assets/asset1"), finished);
+    }
+
+    @Test
+    public void parsesTheBlocksSettingTheirFieldsThemselves() {
+        List<String> events = new ArrayList<>();
+        parser = new EditorLogParserImpl(new EditorLogRules(List.of(), List.of(new LegacyBlock())));
+        parser.setListener(new EditorLogParserImpl.LogListener() {
+            public void activityStarted(MatchedBlock block) {
+                events.add("START " + block.getName());
+            }
+
+            public void activityFinished(MatchedBlock block) {
+                events.add("END " + block.getName());
+            }
+
+            public void logMessage(CharSequence line, Line.Type type) {}
+        });
+        parser.log("Legacy start: first");
+        parser.log("Some line");
+        parser.log("Legacy end");
+        assertEquals(List.of("START Legacy: first", "END Legacy: first"), events);
+    }
+
+    @Test
+    public void tellsTheListenersTakingStrings() {
+        List<String> messages = new ArrayList<>();
+        parser.setListener(new EditorLogParserImpl.LogListener() {
+            public void activityStarted(MatchedBlock block) {}
+
+            public void activityFinished(MatchedBlock block) {}
+
+            @Override
+            @SuppressWarnings("deprecation")
+            public void logMessage(String line, Line.Type type) {
+                messages.add(type + " " + line);
+            }
+        });
+        parser.log("Some line");
+        parser.log("Compilation failed: 1 error(s), 0 warnings");
+        assertEquals(List.of("Normal Some line", "Error Compilation failed: 1 error(s), 0 warnings"), messages);
+    }
+
+    /**
+     * A block written before the blocks got their constructors.
+     */
+    @SuppressWarnings("deprecation")
+    private static class LegacyBlock extends Block {
+        LegacyBlock() {
+            beginning = "Legacy start: (.*)";
+            end = "Legacy end";
+            endMatchType = MatchType.Exclusive;
+
+            name = "Legacy";
+        }
+    }
+
+    private static String transcript(List<String> lines, int times) {
+        StringBuilder sb = new StringBuilder();
+        EditorLogParserImpl parser = new EditorLogParserImpl();
+        parser.setListener(new EditorLogParserImpl.LogListener() {
+            public void activityStarted(MatchedBlock block) {
+                sb.append("START ").append(block.getName()).append('\n');
+            }
+
+            public void activityFinished(MatchedBlock block) {
+                sb.append("END ").append(block.getName()).append('\n');
+            }
+
+            public void logMessage(CharSequence line, Line.Type type) {
+                sb.append(type).append(' ').append(line).append('\n');
+            }
+        });
+        StringBuilder all = new StringBuilder();
+        for (int i = 0; i < times; i++) {
+            for (String line : lines) {
+                parser.log(line);
+            }
+            all.append(sb);
+            sb.setLength(0);
+        }
+        return all.toString();
+    }
+
     private InputStream findResource(String resourceName) {
         return this.getClass().getResourceAsStream(resourceName);
     }
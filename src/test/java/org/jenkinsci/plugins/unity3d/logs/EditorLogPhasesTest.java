@@ -0,0 +1,105 @@
+package org.jenkinsci.plugins.unity3d.logs;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+import org.jenkinsci.plugins.unity3d.logs.EditorLogPhases.Phase;
+import org.junit.Test;
+
+public class EditorLogPhasesTest {
+    private final EditorLogParserImpl parser = new EditorLogParserImpl();
+    private final EditorLogPhases phases = new EditorLogPhases();
+    private long now = 1000;
+
+    @Test
+    public void recordsNestedAndRepeatedBlocks() {
+        parser.setListener(phases);
+        parser.setClock(() -> now);
+
+        log(0, "---- PrepareBuild Start ----");
+        log(100, "-----Compiler Commandline Arguments:");
+        log(2000, "-----EndCompilerOutput---------------");
+        log(10, "-----Compiler Commandline Arguments:");
+        log(500, "-----EndCompilerOutput---------------");
+        log(40, "---- PrepareBuild End ----");
+        log(50, "---- Lightmapping Start for Assets/Main.unity ----");
+        log(60000, "---- Lightmapping End for Assets/Main.unity ----");
+        log(5, "Updating Assets/Textures/grass.png - GUID: 0123456789abcdef");
+        phases.finish(now + 300);
+
+        List<Phase> recorded = phases.getPhases();
+        assertEquals(5, recorded.size());
+        assertPhase(recorded.get(0), "Prepare Build", 0, 1000, 3650);
+        assertPhase(recorded.get(1), "Compile", 1, 1100, 3100);
+        assertPhase(recorded.get(2), "Compile", 1, 3110, 3610);
+        assertEquals("Lightmap: Assets/Main.unity", recorded.get(3).getLabel());
+        assertPhase(recorded.get(3), "Lightmap", 0, 3700, 63700);
+        assertTrue(recorded.get(3).isComplete());
+
+        // its end wasn't found
+        assertPhase(recorded.get(4), "Update", 0, 63705, 64005);
+        assertFalse(recorded.get(4).isComplete());
+    }
+
+    @Test
+    public void mergesTheUpdateBlocksFollowingEachOther() {
+        parser.setListener(phases);
+        parser.setClock(() -> now);
+
+        log(0, "Updating Assets/Textures/grass.png - GUID: 0123456789abcdef");
+        log(100, " done. [Time: 100.0 ms]");
+        log(0, "Start importing Assets/Textures/sand.png");
+        log(0, "Updating Assets/Textures/sand.png - GUID: 0123456789abcdee");
+        log(200, " done. [Time: 200.0 ms]");
+        log(0, "---- PrepareBuild Start ----");
+        log(50, "---- PrepareBuild End ----");
+        log(0, "Updating Assets/Textures/rock.png - GUID: 0123456789abcded");
+        log(300, " done. [Time: 300.0 ms]");
+
+        List<Phase> recorded = phases.getPhases();
+        assertEquals(3, recorded.size());
+        assertEquals("Update: 2 assets", recorded.get(0).getLabel());
+        assertPhase(recorded.get(0), "Update", 0, 1000, 1300);
+        assertTrue(recorded.get(0).isComplete());
+        assertEquals(0, recorded.get(0).getLine());
+        assertPhase(recorded.get(1), "Prepare Build", 0, 1300, 1350);
+        assertEquals("Update: Assets/Textures/rock.png", recorded.get(2).getLabel());
+        assertPhase(recorded.get(2), "Update", 0, 1350, 1650);
+    }
+
+    @Test
+    public void recordsTheLineBlocksStartAt() {
+        parser.setListener(phases);
+        phases.add("Queued", 0, 1000);
+
+        log(0, "Loading the project");
+        log(0, "---- PrepareBuild Start ----");
+        log(0, "-----Compiler Commandline Arguments:");
+        log(0, "-----EndCompilerOutput---------------");
+        log(0, "---- PrepareBuild End ----");
+        log(0, "Updating Assets/Textures/grass.png - GUID: 0123456789abcdef");
+
+        List<Phase> recorded = phases.getPhases();
+        assertEquals(-1, recorded.get(0).getLine());
+        assertEquals("Prepare Build", recorded.get(1).getName());
+        assertEquals(1, recorded.get(1).getLine());
+        assertEquals("Compile", recorded.get(2).getName());
+        assertEquals(2, recorded.get(2).getLine());
+        assertEquals("Update", recorded.get(3).getName());
+        assertEquals(5, recorded.get(3).getLine());
+    }
+
+    private void log(long elapsed, String line) {
+        now += elapsed;
+        parser.log(line);
+    }
+
+    private static void assertPhase(Phase phase, String name, int depth, long start, long end) {
+        assertEquals(phase.toString(), name, phase.getName());
+        assertEquals(phase.toString(), depth, phase.getDepth());
+        assertEquals(phase.toString(), start, phase.getStart());
+        assertEquals(phase.toString(), end, phase.getEnd());
+    }
+}
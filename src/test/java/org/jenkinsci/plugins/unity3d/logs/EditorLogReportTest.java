@@ -0,0 +1,57 @@
+package org.jenkinsci.plugins.unity3d.logs;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.List;
+import org.junit.Test;
+
+public class EditorLogReportTest {
+    @Test
+    public void comesBackFromTheBuildNode() throws Exception {
+        EditorLogReport parsed = new EditorLogReport();
+        EditorLogParserImpl parser = new EditorLogParserImpl();
+        parser.setListener(parsed);
+        for (EditorLogParserImpl.LogListener listener : parsed.getListeners()) {
+            if (listener != parsed) parser.addListener(listener);
+        }
+        for (String line : List.of(
+                "---- PrepareBuild Start ----",
+                "Assets/Foo.cs(1,1): warning CS0168: The variable `e' is declared but never used",
+                "Compilation failed: 1 error(s), 0 warnings",
+                "---- PrepareBuild End ----",
+                "Updating Assets/Textures/grass.png - GUID: 0123456789abcdef",
+                "Done importing asset: 'Assets/Textures/grass.png' (target hash: 'abc') in 0.5 seconds",
+                "***Player size statistics***",
+                "Total compressed size 13.5 mb. Total uncompressed size 34.0 mb.")) {
+            parser.log(line);
+        }
+        parsed.getPhases().finish(System.currentTimeMillis());
+
+        EditorLogReport report = new EditorLogReport();
+        report.getPhases().add("Queued", 0, 1000);
+        report.merge(roundTrip(parsed));
+
+        assertEquals(8, report.getLines());
+        assertEquals(1, report.getWarnings());
+        assertEquals(1, report.getErrors());
+        assertEquals("Queued", report.getPhases().getPhases().get(0).getName());
+        assertEquals("Prepare Build", report.getPhases().getPhases().get(1).getName());
+        assertEquals(parsed.getImports().getCount(), report.getImports().getCount());
+        assertTrue(report.getPlayerSize().isFound());
+    }
+
+    private static EditorLogReport roundTrip(EditorLogReport report) throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(report);
+        }
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            return (EditorLogReport) in.readObject();
+        }
+    }
+}
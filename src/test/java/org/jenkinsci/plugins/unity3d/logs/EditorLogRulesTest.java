@@ -0,0 +1,138 @@
+package org.jenkinsci.plugins.unity3d.logs;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.BufferedReader;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+import org.jenkinsci.plugins.unity3d.logs.block.Block;
+import org.jenkinsci.plugins.unity3d.logs.block.MatchedBlock;
+import org.jenkinsci.plugins.unity3d.logs.line.Line;
+import org.jenkinsci.plugins.unity3d.logs.line.UnityLineList;
+import org.junit.Test;
+
+public class EditorLogRulesTest {
+
+    @Test
+    public void requiredLiterals() {
+        assertEquals("warning CS", LiteralMatcher.requiredLiteral(".*?warning CS\\d+.*?"));
+        assertEquals("Compilation failed:", LiteralMatcher.requiredLiteral("Compilation failed:.*"));
+        assertEquals(
+                "Scripts have compiler errors.", LiteralMatcher.requiredLiteral("Scripts have compiler errors\\..*"));
+        assertEquals(
+                "***Player size statistics***",
+                LiteralMatcher.requiredLiteral("\\*\\*\\*Player size statistics\\*\\*\\*"));
+        assertEquals(
+                "---- Lightmapping Start for ",
+                LiteralMatcher.requiredLiteral("---- Lightmapping Start for (.*) ----"));
+        assertEquals("done: hash - ", LiteralMatcher.requiredLiteral("\\s*done: hash - .+"));
+        // optional characters are not required
+        assertEquals("ab", LiteralMatcher.requiredLiteral("abc?d"));
+        assertEquals("abc", LiteralMatcher.requiredLiteral("abc+d"));
+        assertEquals("xyz", LiteralMatcher.requiredLiteral("a{0,2}xyz[abc]"));
+        // no literal can be found
+        assertNull(LiteralMatcher.requiredLiteral("warning|error"));
+        assertNull(LiteralMatcher.requiredLiteral("(?i)warning"));
+        assertNull(LiteralMatcher.requiredLiteral(".*"));
+        // the arguments of escapes aren't literal
+        assertNull(LiteralMatcher.requiredLiteral("error \\x41BC"));
+        assertNull(LiteralMatcher.requiredLiteral("error \\x{41}BC"));
+        assertNull(LiteralMatcher.requiredLiteral("error \\u0041BC"));
+        assertNull(LiteralMatcher.requiredLiteral("error \\0101BC"));
+        assertNull(LiteralMatcher.requiredLiteral("error \\cABC"));
+        assertNull(LiteralMatcher.requiredLiteral("(?<word>error) \\k<word>"));
+        assertNull(LiteralMatcher.requiredLiteral("error: \\p{Lu}ppercase"));
+        assertNull(LiteralMatcher.requiredLiteral("error: \\N{LATIN CAPITAL LETTER A}BC"));
+        assertNull(LiteralMatcher.requiredLiteral("(error)(.)(.)(.)(.)(.)(.)(.)(.)(.)(.)(.): \\12 again"));
+        // the literals are ASCII
+        assertEquals("chec de compilation", LiteralMatcher.requiredLiteral("\u00c9chec de compilation"));
+        assertNull(LiteralMatcher.requiredLiteral("\u041e\u0448\u0438\u0431\u043a\u0430"));
+    }
+
+    @Test
+    public void requiredLiteralsAreFoundInWhatTheRegularExpressionsMatch() {
+        assertRequiredLiteralIsIn("error \\x41BC", "error ABC");
+        assertRequiredLiteralIsIn("error \\u0041BC", "error ABC");
+        assertRequiredLiteralIsIn("error \\0101BC", "error ABC");
+        assertRequiredLiteralIsIn("error: \\p{Lu}ppercase", "error: Uppercase");
+        assertRequiredLiteralIsIn("\u00c9chec de compilation", "\u00c9chec de compilation");
+    }
+
+    private static void assertRequiredLiteralIsIn(String regex, String line) {
+        assertTrue(regex, Pattern.matches(regex, line));
+        String literal = LiteralMatcher.requiredLiteral(regex);
+        assertTrue(regex, literal == null || line.contains(literal));
+    }
+
+    @Test
+    public void literalMatcherFindsOverlappingLiterals() {
+        LiteralMatcher matcher = new LiteralMatcher(List.of("he", "she", "his", "hers"));
+        assertEquals(0b1011, matcher.scan("ushers"));
+        assertEquals(0b0100, matcher.scan("this"));
+        assertEquals(0, matcher.scan("h\u00e9 s\u00e9"));
+    }
+
+    @Test
+    public void classifiesLikeTheRegularExpressions() throws Exception {
+        List<String> messages = new ArrayList<>(readLines("/example_Editor.log"));
+        messages.add("Assets/Scripts/Foo.cs(12,5): warning CS0414: The private field is assigned but never used");
+        messages.add("Assets/Scripts/Foo.cs(12,5): error CS0246: The type or namespace could not be found");
+        messages.add("a warning CS without a number");
+        messages.add("Scripts have compiler errors.");
+        messages.add("WARNING: something odd");
+
+        List<Line.Type> types = new ArrayList<>();
+        EditorLogParserImpl parser = new EditorLogParserImpl();
+        parser.setListener(new EditorLogParserImpl.LogListener() {
+            public void activityStarted(MatchedBlock block) {}
+
+            public void activityFinished(MatchedBlock block) {}
+
+            public void logMessage(CharSequence line, Line.Type type) {
+                types.add(type);
+            }
+        });
+
+        EditorLogRules rules = EditorLogRules.UNITY;
+        List<Block> blocks = rules.getBlocks();
+        for (String message : messages) {
+            parser.log(message);
+            assertEquals(message, naiveClassify(message), types.get(types.size() - 1));
+            long candidates = rules.candidates(message);
+            for (int i = 0; i < blocks.size(); i++) {
+                Block block = blocks.get(i);
+                if (block.matchesBeginning(message) != null) {
+                    assertTrue(message, rules.mayBegin(i, candidates));
+                }
+                if (block.matchesEnd(message) != Block.MatchType.None) {
+                    assertTrue(message, rules.mayEnd(i, candidates));
+                }
+            }
+        }
+    }
+
+    private static Line.Type naiveClassify(String message) {
+        for (Line line : UnityLineList.lines) {
+            if (message.matches(line.getRegex())) return line.getType();
+        }
+        return Line.Type.Normal;
+    }
+
+    private List<String> readLines(String resourceName) throws Exception {
+        List<String> lines = new ArrayList<>();
+        try (InputStream is = getClass().getResourceAsStream(resourceName);
+                BufferedReader reader = new BufferedReader(new InputStreamReader(is, StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lines.add(line);
+            }
+        }
+        return lines;
+    }
+}
@@ -0,0 +1,71 @@
+package org.jenkinsci.plugins.unity3d.logs;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+import org.junit.Test;
+
+public class PlayerSizeStatisticsTest {
+    private static final long KB = 1024;
+    private static final long MB = 1024 * 1024;
+
+    @Test
+    public void parsesTheStatisticsAsTheyStream() {
+        PlayerSizeStatistics statistics = new PlayerSizeStatistics(2);
+        EditorLogParserImpl parser = new EditorLogParserImpl();
+        parser.setListener(statistics);
+        for (String line : List.of(
+                "Textures      2.0 mb     24.8% ",
+                "***Player size statistics***",
+                "Level 0 'Assets/Main.unity' uses 95.2 kb compressed / 1.7 mb uncompressed.",
+                "Total compressed size 13.5 mb. Total uncompressed size 34.0 mb.",
+                "Textures      3.25 mb     24.8% ",
+                "Meshes        0.0 kb     0.0% ",
+                "Included DLLs 8.5 mb     63.9% ",
+                "Complete size 13.5 mb    100.0% ",
+                "",
+                "Used Assets, sorted by uncompressed size:",
+                " 2.0 mb\t 20.5% Assets/Textures/Splash.png",
+                " 512.0 kb\t 3.7% Assets/Sounds/Theme.ogg",
+                " 12.0 kb\t 0.1% Assets/Scripts/Player.cs",
+                "Unloading 3 unused Assets to reduce memory usage.",
+                "Textures      9.0 mb     24.8% ")) {
+            parser.log(line);
+        }
+
+        assertTrue(statistics.isFound());
+        assertEquals(Math.round(13.5 * MB), statistics.getCompressed());
+        assertEquals(34 * MB, statistics.getUncompressed());
+        assertEquals(
+                List.of("Textures", "Meshes", "Included DLLs", "Complete size"),
+                List.copyOf(statistics.getCategories().keySet()));
+        assertEquals(Math.round(3.25 * MB), statistics.getSize("textures"));
+        assertEquals(Math.round(8.5 * MB), statistics.getSize("Included DLLs"));
+        assertEquals(Math.round(13.5 * MB), statistics.getSize(PlayerSizeStatistics.COMPRESSED));
+        assertEquals(-1, statistics.getSize("Sounds"));
+
+        assertEquals(2, statistics.getLargest().size());
+        assertEquals("Assets/Textures/Splash.png", statistics.getLargest().get(0).getPath());
+        assertEquals(2 * MB, statistics.getLargest().get(0).getSize());
+        assertEquals("Assets/Sounds/Theme.ogg", statistics.getLargest().get(1).getPath());
+        assertEquals(512 * KB, statistics.getLargest().get(1).getSize());
+    }
+
+    @Test
+    public void notFoundWithoutStatistics() {
+        PlayerSizeStatistics statistics = new PlayerSizeStatistics();
+        statistics.logMessage("Total compressed size 13.5 mb. Total uncompressed size 34.0 mb.", null);
+        assertFalse(statistics.isFound());
+    }
+
+    @Test
+    public void parsesSizes() {
+        assertEquals(1000, PlayerSizeStatistics.parseSize("1000"));
+        assertEquals(1000, PlayerSizeStatistics.parseSize("1000 b"));
+        assertEquals(1536, PlayerSizeStatistics.parseSize("1.5 kb"));
+        assertEquals(20 * MB, PlayerSizeStatistics.parseSize(" 20MB "));
+        assertEquals(2 * 1024 * MB, PlayerSizeStatistics.parseSize("2 gb"));
+    }
+}
@@ -0,0 +1,148 @@
+package org.jenkinsci.plugins.unity3d.logs;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import hudson.console.ConsoleNote;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import org.jenkinsci.plugins.unity3d.logs.Unity3dEditorLogNote.Kind;
+import org.junit.Assume;
+import org.junit.Rule;
+import org.junit.Test;
+import org.jvnet.hudson.test.JenkinsRule;
+
+public class Unity3dEditorLogAnnotatorTest {
+    // notes are signed with a key from the Jenkins instance
+    @Rule
+    public JenkinsRule rule = new JenkinsRule();
+
+    @Test
+    public void copiesTheLogUnchanged() throws Exception {
+        byte[] log = readLog();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (Unity3dEditorLogAnnotator annotator = new Unity3dEditorLogAnnotator(out, StandardCharsets.UTF_8)) {
+            annotator.write(log);
+        }
+        assertEquals(
+                new String(log, StandardCharsets.UTF_8),
+                ConsoleNote.removeNotes(new String(out.toByteArray(), StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    public void holdsBackTheIncompleteLine() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        Unity3dEditorLogAnnotator annotator = new Unity3dEditorLogAnnotator(out, StandardCharsets.UTF_8);
+        annotator.write("Some regular line\nSome incomplete".getBytes(StandardCharsets.UTF_8));
+
+        assertEquals("Some incomplete".length(), annotator.sync());
+        assertEquals("Some regular line\n", out.toString(StandardCharsets.UTF_8));
+        annotator.forceEol();
+        assertEquals(0, annotator.sync());
+    }
+
+    @Test
+    public void annotatesBlocksWarningsAndErrors() throws Exception {
+        String log = "-----Compiler Commandline Arguments:\n"
+                + "Assets/Foo.cs(1,1): warning CS0168: The variable `e' is declared but never used\n"
+                + "-----EndCompilerOutput---------------\n"
+                + "Some regular line\n"
+                + "Compilation failed: 1 error(s), 0 warnings\n";
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        Unity3dEditorLogAnnotator annotator = new Unity3dEditorLogAnnotator(out, StandardCharsets.UTF_8);
+        annotator.write(log.getBytes(StandardCharsets.UTF_8));
+        annotator.forceEol();
+
+        assertEquals(
+                List.of(Kind.BLOCK_START, Kind.WARNING, Kind.BLOCK_END_AFTER, Kind.ERROR), notes(out.toByteArray()));
+    }
+
+    @Test
+    public void keepsTheWarningsAndErrors() throws Exception {
+        String out = annotate(ConsoleVerbosity.WARNINGS, null);
+        assertEquals(
+                "Assets/Foo.cs(1,1): warning CS0168: The variable `e' is declared but never used\n"
+                        + "Compilation failed: 1 error(s), 0 warnings\n",
+                ConsoleNote.removeNotes(out));
+    }
+
+    @Test
+    public void summarizesThePhases() throws Exception {
+        String out = ConsoleNote.removeNotes(annotate(ConsoleVerbosity.PHASES, null));
+        String[] lines = out.split("\n");
+        assertEquals(2, lines.length);
+        assertTrue(lines[0], lines[0].startsWith("[Unity3d] "));
+        assertEquals("Compilation failed: 1 error(s), 0 warnings", lines[1]);
+    }
+
+    @Test
+    public void writesTheNotesEncodedBeforehand() throws Exception {
+        assertEquals(
+                annotate(ConsoleVerbosity.FULL, null),
+                annotate(ConsoleVerbosity.FULL, Unity3dEditorLogNote.encodeAll()));
+    }
+
+    private static String annotate(ConsoleVerbosity verbosity, byte[][] notes) throws Exception {
+        String log = "-----Compiler Commandline Arguments:\n"
+                + "Assets/Foo.cs(1,1): warning CS0168: The variable `e' is declared but never used\n"
+                + "-----EndCompilerOutput---------------\n"
+                + "Some regular line\n"
+                + "Compilation failed: 1 error(s), 0 warnings\n";
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        Unity3dEditorLogAnnotator annotator =
+                new Unity3dEditorLogAnnotator(out, StandardCharsets.UTF_8, verbosity, notes, null);
+        annotator.write(log.getBytes(StandardCharsets.UTF_8));
+        annotator.forceEol();
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    private static List<Kind> notes(byte[] out) throws Exception {
+        List<Kind> kinds = new ArrayList<>();
+        int pos = 0;
+        while ((pos = ConsoleNote.findPreamble(out, pos, out.length - pos)) >= 0) {
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(out, pos, out.length - pos));
+            kinds.add(((Unity3dEditorLogNote) ConsoleNote.readFrom(in)).getKind());
+            pos = out.length - in.available();
+        }
+        return kinds;
+    }
+
+    @Test
+    public void allocatesLittlePerLine() throws Exception {
+        Assume.assumeTrue(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean);
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        Assume.assumeTrue(threads.isThreadAllocatedMemorySupported() && threads.isThreadAllocatedMemoryEnabled());
+
+        byte[] log = readLog();
+        int lines = 0;
+        for (byte b : log) {
+            if (b == '\n') lines++;
+        }
+        Unity3dEditorLogAnnotator annotator =
+                new Unity3dEditorLogAnnotator(OutputStream.nullOutputStream(), StandardCharsets.UTF_8);
+        // warm up
+        for (int i = 0; i < 50; i++) annotator.write(log);
+
+        int rounds = 200;
+        long before = threads.getThreadAllocatedBytes(Thread.currentThread().getId());
+        for (int i = 0; i < rounds; i++) annotator.write(log);
+        long allocated = threads.getThreadAllocatedBytes(Thread.currentThread().getId()) - before;
+
+        long perLine = allocated / ((long) rounds * lines);
+        System.out.println("Allocated " + perLine + " bytes per line");
+        assertTrue("Allocated " + perLine + " bytes per line", perLine < 64);
+    }
+
+    private byte[] readLog() throws Exception {
+        try (InputStream is = getClass().getResourceAsStream("/example_Editor.log")) {
+            return is.readAllBytes();
+        }
+    }
+}